@@ -0,0 +1,34 @@
+package de.yanwittmann.bingo.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, which adds the allocation rate and the allocated bytes per operation to the
+ * results, and writes the results as json, so that runs of different versions can be compared.<br>
+ * Usage: <code>java -jar bingo-benchmarks/target/benchmarks.jar [include regex] [result file]</code>, by default all
+ * benchmarks are run and the results are written to <code>jmh-result.json</code>.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Keeps the generator from logging every improvement in the forked benchmark JVMs.
+     */
+    static final String LOGGING = "-Dlog4j.configurationFile=log4j2-benchmarks.xml";
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*";
+        String result = args.length > 1 ? args[1] : "jmh-result.json";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,48 @@
+package de.yanwittmann.bingo.benchmarks;
+
+import de.yanwittmann.bingo.BingoBoard;
+import de.yanwittmann.bingo.generator.BingoConfiguration;
+import de.yanwittmann.bingo.generator.BingoGenerationRequest;
+import de.yanwittmann.bingo.generator.BingoGenerator;
+import de.yanwittmann.bingo.generator.TileOptimizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole pipeline of generating a board: picking the tiles and arranging them on the board.<br>
+ * Every invocation generates the board of the next seed, the sequence of seeds is the same in every run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.LOGGING)
+public class BoardGenerationBenchmark {
+
+    @Param({"5", "10", "25"})
+    public int size;
+
+    @Param({"legacy", "annealing", "constraint"})
+    public String optimizer;
+
+    private BingoGenerator generator;
+    private BingoGenerationRequest request;
+    private long seed;
+
+    @Setup
+    public void setup() throws IOException {
+        BingoConfiguration configuration = Fixture.loadConfiguration();
+        generator = new BingoGenerator(configuration);
+        request = new BingoGenerationRequest(size, size, configuration.getDifficultyForLevel(Fixture.DIFFICULTY), -1, 0)
+                .withOptimizer(TileOptimizer.forName(optimizer));
+        seed = 0;
+    }
+
+    @Benchmark
+    public BingoBoard generateBingoBoard() {
+        return generator.generateBingoBoard(request.withSeed(seed++));
+    }
+}
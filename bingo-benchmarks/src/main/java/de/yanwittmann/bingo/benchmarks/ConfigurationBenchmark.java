@@ -0,0 +1,41 @@
+package de.yanwittmann.bingo.benchmarks;
+
+import de.yanwittmann.bingo.generator.BingoConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the configuration, either by parsing the yaml file or from an up to date snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.LOGGING)
+public class ConfigurationBenchmark {
+
+    private File configurationFile;
+    private File snapshotDirectory;
+
+    @Setup
+    public void setup() throws IOException {
+        File directory = Fixture.createTemporaryDirectory();
+        configurationFile = Fixture.copyConfiguration(directory);
+        snapshotDirectory = new File(directory, "snapshots");
+        BingoConfiguration.load(configurationFile, snapshotDirectory);
+    }
+
+    @Benchmark
+    public BingoConfiguration parseYaml() throws IOException {
+        return new BingoConfiguration(configurationFile);
+    }
+
+    @Benchmark
+    public BingoConfiguration loadSnapshot() throws IOException {
+        return BingoConfiguration.load(configurationFile, snapshotDirectory);
+    }
+}
@@ -0,0 +1,59 @@
+package de.yanwittmann.bingo.benchmarks;
+
+import de.yanwittmann.bingo.BingoBoard;
+import de.yanwittmann.bingo.generator.BingoConfiguration;
+import de.yanwittmann.bingo.generator.BingoGenerationRequest;
+import de.yanwittmann.bingo.generator.BingoGenerator;
+import de.yanwittmann.bingo.generator.TileOptimizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The configuration and boards that the benchmarks work on. All boards are generated from fixed seeds, so every run
+ * measures the same work.
+ */
+final class Fixture {
+
+    static final String CONFIGURATION = "outer_wilds.yaml";
+    static final String DIFFICULTY = "Normal";
+
+    private Fixture() {
+    }
+
+    /**
+     * Copies the configuration from the classpath into the directory, as the configuration can only be loaded from files.
+     */
+    static File copyConfiguration(File directory) throws IOException {
+        File file = new File(directory, CONFIGURATION);
+        try (InputStream in = Fixture.class.getClassLoader().getResourceAsStream(CONFIGURATION)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing benchmark configuration on the classpath: " + CONFIGURATION);
+            }
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    static File createTemporaryDirectory() throws IOException {
+        File directory = Files.createTempDirectory("bingo-benchmarks").toFile();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    static BingoConfiguration loadConfiguration() throws IOException {
+        return new BingoConfiguration(copyConfiguration(createTemporaryDirectory()));
+    }
+
+    /**
+     * Generates a square board with the simulated annealing optimizer, which is fast enough for large boards.
+     */
+    static BingoBoard generateBoard(BingoConfiguration configuration, int size, long seed) {
+        BingoGenerationRequest request = new BingoGenerationRequest(size, size, configuration.getDifficultyForLevel(DIFFICULTY), -1, seed)
+                .withOptimizer(TileOptimizer.SIMULATED_ANNEALING);
+        return new BingoGenerator(configuration).generateBingoBoard(request);
+    }
+}
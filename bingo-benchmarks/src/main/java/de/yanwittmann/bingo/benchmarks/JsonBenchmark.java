@@ -0,0 +1,62 @@
+package de.yanwittmann.bingo.benchmarks;
+
+import de.yanwittmann.bingo.BingoBoard;
+import de.yanwittmann.bingo.BingoBoardReader;
+import de.yanwittmann.bingo.BingoBoardWriter;
+import de.yanwittmann.bingo.generator.CategoryRegistry;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a board as json and reading it back, through the {@link JSONObject} tree and through the streaming
+ * {@link BingoBoardWriter} and {@link BingoBoardReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.LOGGING)
+public class JsonBenchmark {
+
+    @Param({"5", "10", "25"})
+    public int size;
+
+    private BingoBoard board;
+    private CategoryRegistry categoryRegistry;
+
+    @Setup
+    public void setup() throws IOException {
+        board = Fixture.generateBoard(Fixture.loadConfiguration(), size, 1);
+        categoryRegistry = new CategoryRegistry();
+    }
+
+    @Benchmark
+    public String writeJsonObject() {
+        return board.toJson().toString();
+    }
+
+    @Benchmark
+    public String writeStreaming() throws IOException {
+        StringWriter writer = new StringWriter();
+        BingoBoardWriter.writeBoard(board, writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public BingoBoard roundTripJsonObject() {
+        return new BingoBoard(new JSONObject(board.toJson().toString()), categoryRegistry);
+    }
+
+    @Benchmark
+    public BingoBoard roundTripStreaming() throws IOException {
+        StringWriter writer = new StringWriter();
+        BingoBoardWriter.writeBoard(board, writer);
+        return new BingoBoardReader(new StringReader(writer.toString()), categoryRegistry).read();
+    }
+}
@@ -0,0 +1,46 @@
+package de.yanwittmann.bingo.benchmarks;
+
+import de.yanwittmann.bingo.BingoBoard;
+import de.yanwittmann.bingo.generator.BingoConfiguration;
+import de.yanwittmann.bingo.generator.BingoGenerationRequest;
+import de.yanwittmann.bingo.generator.BingoGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating boards from 5x5 up to 100x100 in the large board mode of {@link BingoGenerationRequest#withLargeBoardMode()}.<br>
+ * The amount of generation attempts is fixed to <code>1</code>, so that the work per cell is the same for all sizes and
+ * the time divided by the amount of cells shows how the generation scales. A single board is generated per iteration,
+ * as the large boards take seconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.LOGGING)
+public class LargeBoardBenchmark {
+
+    @Param({"5", "10", "25", "50", "100"})
+    public int size;
+
+    private BingoGenerator generator;
+    private BingoGenerationRequest request;
+    private long seed;
+
+    @Setup
+    public void setup() throws IOException {
+        BingoConfiguration configuration = Fixture.loadConfiguration();
+        generator = new BingoGenerator(configuration);
+        request = new BingoGenerationRequest(size, size, configuration.getDifficultyForLevel(Fixture.DIFFICULTY), 1, 0)
+                .withLargeBoardMode();
+        seed = 0;
+    }
+
+    @Benchmark
+    public BingoBoard generateBingoBoard() {
+        return generator.generateBingoBoard(request.withSeed(seed++));
+    }
+}
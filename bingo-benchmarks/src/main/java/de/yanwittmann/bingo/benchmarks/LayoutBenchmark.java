@@ -0,0 +1,115 @@
+package de.yanwittmann.bingo.benchmarks;
+
+import de.yanwittmann.bingo.*;
+import de.yanwittmann.bingo.generator.BingoConfiguration;
+import de.yanwittmann.bingo.generator.Category;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arranging the tiles of a generated board with {@link BingoBoard#populate(List, List, Random, LayoutOptimizer)} and
+ * scoring a single layout, both from scratch and incrementally after swapping two cells.<br>
+ * The parallel swap search shares the iterations of a single search between its restarts, which run on a pool with a
+ * thread per restart, so its time is the wall-clock time of the search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.LOGGING)
+public class LayoutBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Tiles {
+        @Param({"5", "10", "25"})
+        public int size;
+
+        List<Category> categories;
+        List<BingoTile> tiles;
+        LayoutScorer scorer;
+        BingoTile[] layout;
+        Random random;
+
+        @Setup
+        public void setup() throws IOException {
+            BingoConfiguration configuration = Fixture.loadConfiguration();
+            BingoBoard board = Fixture.generateBoard(configuration, size, 1);
+            categories = configuration.getCategories();
+            tiles = new ArrayList<>();
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    tiles.add(board.get(x, y));
+                }
+            }
+            scorer = new LayoutScorer(size, size, categories, tiles);
+            layout = tiles.toArray(new BingoTile[0]);
+            scorer.reset(layout.clone());
+            random = new Random(1);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Optimizer {
+        @Param({"shuffle", "swap"})
+        public String name;
+
+        LayoutOptimizer optimizer;
+
+        @Setup
+        public void setup() {
+            optimizer = LayoutOptimizer.forName(name);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ParallelOptimizer {
+        @Param({"1", "2", "4"})
+        public int restarts;
+
+        ExecutorService executor;
+        LayoutOptimizer optimizer;
+
+        @Setup
+        public void setup() {
+            executor = Executors.newFixedThreadPool(restarts);
+            optimizer = new ParallelLayoutOptimizer(LayoutOptimizer.SWAP, restarts, executor);
+        }
+
+        @TearDown
+        public void tearDown() {
+            executor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public BingoBoard populateParallelSwap(Tiles tiles, ParallelOptimizer optimizer) {
+        BingoBoard board = new BingoBoard(tiles.size, tiles.size);
+        board.populate(new ArrayList<>(tiles.tiles), tiles.categories, tiles.random, optimizer.optimizer);
+        return board;
+    }
+
+    @Benchmark
+    public BingoBoard populate(Tiles tiles, Optimizer optimizer) {
+        BingoBoard board = new BingoBoard(tiles.size, tiles.size);
+        board.populate(new ArrayList<>(tiles.tiles), tiles.categories, tiles.random, optimizer.optimizer);
+        return board;
+    }
+
+    @Benchmark
+    public int score(Tiles tiles) {
+        return tiles.scorer.score(tiles.layout);
+    }
+
+    @Benchmark
+    public int swapScore(Tiles tiles) {
+        int cells = tiles.layout.length;
+        return tiles.scorer.swap(tiles.random.nextInt(cells), tiles.random.nextInt(cells));
+    }
+}
@@ -0,0 +1,44 @@
+package de.yanwittmann.bingo.benchmarks;
+
+import de.yanwittmann.bingo.BingoTile;
+import de.yanwittmann.bingo.generator.CompiledBingoConfiguration;
+import de.yanwittmann.bingo.generator.GenerationState;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating a single tile for a half filled 5x5 board at every difficulty level of the configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.LOGGING)
+public class TileGenerationBenchmark {
+
+    @Param({"Easy", "Normal", "Hard"})
+    public String difficulty;
+
+    private CompiledBingoConfiguration configuration;
+    private GenerationState state;
+    private Random random;
+
+    @Setup
+    public void setup() throws IOException {
+        configuration = Fixture.loadConfiguration().compile();
+        state = new GenerationState(configuration, 25, configuration.getDifficultyForLevel(difficulty));
+        random = new Random(1);
+        for (int i = 0; i < 12; i++) {
+            state.add(configuration.generateTile(state, random));
+        }
+    }
+
+    @Benchmark
+    public BingoTile generateTile() {
+        return configuration.generateTile(state, random);
+    }
+}
@@ -0,0 +1,102 @@
+package de.yanwittmann.bingo.benchmarks;
+
+import de.yanwittmann.bingo.BingoBoard;
+import de.yanwittmann.bingo.generator.BingoConfiguration;
+import de.yanwittmann.bingo.generator.BingoGenerationRequest;
+import de.yanwittmann.bingo.generator.BingoGenerator;
+import de.yanwittmann.bingo.generator.CompiledBingoConfiguration;
+import de.yanwittmann.bingo.generator.GenerationEvent;
+import de.yanwittmann.bingo.generator.GenerationMetrics;
+import de.yanwittmann.bingo.generator.GenerationState;
+import de.yanwittmann.bingo.generator.TileOptimizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time the tile optimizers need to generate a 5x5 board that is on target: its difficulty is within the tolerance of
+ * the destination difficulty and all category limits are met.<br>
+ * Every invocation generates boards of the next seeds until one is on target. The counters report how many boards were
+ * generated, how many tile texts were expanded for them and how many invocations gave up after {@link #MAX_BOARDS} boards,
+ * all summed over the iteration, so an optimizer that is fast per board but rarely on target does not look better than it
+ * is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = BenchmarkRunner.LOGGING)
+public class TimeToTargetBenchmark {
+
+    private static final double TOLERANCE = 0.02;
+    private static final int MAX_BOARDS = 100;
+
+    @Param({"Normal", "Hard"})
+    public String difficulty;
+
+    @Param({"legacy", "annealing", "constraint"})
+    public String optimizer;
+
+    private BingoGenerator generator;
+    private CompiledBingoConfiguration configuration;
+    private BingoGenerationRequest request;
+    private final GenerationMetrics metrics = new GenerationMetrics();
+    private long seed;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long boards;
+        public long expansions;
+        public long givenUp;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            boards = 0;
+            expansions = 0;
+            givenUp = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        BingoConfiguration loaded = Fixture.loadConfiguration();
+        generator = new BingoGenerator(loaded);
+        configuration = loaded.compile();
+        request = new BingoGenerationRequest(5, 5, loaded.getDifficultyForLevel(difficulty), -1, 0)
+                .withOptimizer(TileOptimizer.forName(optimizer)).withListener(metrics);
+        seed = 0;
+    }
+
+    @Benchmark
+    public BingoBoard generateOnTarget(Counters counters) {
+        long expansions = metrics.getCount(GenerationEvent.TEXT_EXPANSION);
+        BingoBoard board = generateUntilOnTarget(counters);
+        counters.expansions += metrics.getCount(GenerationEvent.TEXT_EXPANSION) - expansions;
+        return board;
+    }
+
+    private BingoBoard generateUntilOnTarget(Counters counters) {
+        BingoBoard board = null;
+        for (int i = 0; i < MAX_BOARDS; i++) {
+            board = generator.generateBingoBoard(request.withSeed(seed++));
+            counters.boards++;
+            if (isOnTarget(board)) return board;
+        }
+        counters.givenUp++;
+        return board;
+    }
+
+    private boolean isOnTarget(BingoBoard board) {
+        if (Math.abs(board.getDifficulty() - request.getDifficulty()) > TOLERANCE) return false;
+        GenerationState state = new GenerationState(configuration, board.getWidth() * board.getHeight(), request.getDifficulty());
+        for (int x = 0; x < board.getWidth(); x++) {
+            for (int y = 0; y < board.getHeight(); y++) {
+                state.add(board.get(x, y));
+            }
+        }
+        return state.getCategoryViolation() == 0;
+    }
+}
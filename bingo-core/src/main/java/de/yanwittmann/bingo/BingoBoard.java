@@ -2,6 +2,9 @@ package de.yanwittmann.bingo;
 
 import de.yanwittmann.bingo.generator.BingoBoardMetadata;
 import de.yanwittmann.bingo.generator.Category;
+import de.yanwittmann.bingo.generator.CategoryRegistry;
+import de.yanwittmann.bingo.generator.GenerationEvent;
+import de.yanwittmann.bingo.generator.GenerationListener;
 import de.yanwittmann.bingo.interfaces.Jsonable;
 import org.apache.commons.io.FileUtils;
 import org.json.JSONArray;
@@ -17,7 +20,7 @@ import java.util.stream.Collectors;
 
 public class BingoBoard implements Jsonable {
 
-    private final Logger LOG = LoggerFactory.getLogger(getClass());
+    private static final Logger LOG = LoggerFactory.getLogger(BingoBoard.class);
 
     private final BingoTile[][] board;
     private BingoBoardMetadata boardMetadata;
@@ -33,6 +36,15 @@ public class BingoBoard implements Jsonable {
     }
 
     public BingoBoard(JSONObject json) {
+        this(json, new CategoryRegistry());
+    }
+
+    /**
+     * To read many boards from a stream, use a {@link BingoBoardReader} instead.
+     *
+     * @param categoryRegistry The registry to intern the categories of the tiles with.
+     */
+    public BingoBoard(JSONObject json, CategoryRegistry categoryRegistry) {
         this(json.getInt("width"), json.getInt("height"));
         if (json.has("metadata")) {
             boardMetadata = new BingoBoardMetadata(json.getJSONObject("metadata").toMap());
@@ -41,7 +53,7 @@ public class BingoBoard implements Jsonable {
         for (int y = 0; y < getHeight(); y++) {
             JSONArray row = jsonBoard.getJSONArray(y);
             for (int x = 0; x < getWidth(); x++) {
-                BingoTile tile = new BingoTile(row.getJSONObject(x));
+                BingoTile tile = new BingoTile(row.getJSONObject(x), categoryRegistry);
                 set(x, y, tile);
             }
         }
@@ -49,7 +61,7 @@ public class BingoBoard implements Jsonable {
             JSONObject jsonCategoryCount = json.getJSONObject("categories");
             categoryCount = new HashMap<>();
             for (Map.Entry<String, Object> entry : jsonCategoryCount.toMap().entrySet()) {
-                Category category = new Category(entry.getKey());
+                Category category = categoryRegistry.intern(entry.getKey());
                 categoryCount.put(category, (Integer) entry.getValue());
             }
         }
@@ -113,164 +125,46 @@ public class BingoBoard implements Jsonable {
     }
 
     public void populate(List<BingoTile> tiles, List<Category> categories, Random random) {
-        LOG.info("Populating board with [{}] tiles", tiles.size());
-        int bestScore = Integer.MIN_VALUE;
-        BingoTile[][] bestBoard = null;
-        for (int i = 0; i < 1000; i++) {
-            BingoTile[][] populatedBoard = populate(tiles, random);
-            int score = scoreBoard(populatedBoard, categories);
-            if (score > bestScore) {
-                bestScore = score;
-                bestBoard = populatedBoard;
-                LOG.info("New best score [{}]", bestScore);
-            }
-        }
-        // board is final, copy cells individually
-        if (bestBoard != null) {
-            for (int x = 0; x < getWidth(); x++) {
-                if (getHeight() >= 0) System.arraycopy(bestBoard[x], 0, board[x], 0, getHeight());
-            }
-        }
-
-        LOG.info("Board score is [{}]", bestScore);
+        populate(tiles, categories, random, LayoutOptimizer.SHUFFLE);
     }
 
-    private BingoTile[][] populate(List<BingoTile> tiles, Random random) {
-        Collections.shuffle(tiles, random);
-        BingoTile[][] board = new BingoTile[getWidth()][getHeight()];
-        for (int i = 0; i < getWidth(); i++) {
-            for (int j = 0; j < getHeight(); j++) {
-                board[i][j] = tiles.get(i * getHeight() + j);
-            }
-        }
-        return board;
+    /**
+     * Places the tiles on the board, arranged by the layout optimizer.
+     *
+     * @param tiles      The tiles to place, exactly one per cell.
+     * @param categories The categories to check the antisynergies and synergies of.
+     * @param random     The random to arrange the tiles with.
+     * @param optimizer  The strategy that searches for the best layout.
+     */
+    public void populate(List<BingoTile> tiles, List<Category> categories, Random random, LayoutOptimizer optimizer) {
+        populate(tiles, categories, random, optimizer, GenerationListener.NONE);
     }
 
     /**
-     * Calculates the score of the board.<br>
-     * Score is determined by checking if rows contain synergies and antisynergies.<br>
-     * The higher the score, the better the board.
+     * Places the tiles on the board, arranged by the layout optimizer.
      *
-     * @param board      The board to score.
+     * @param tiles      The tiles to place, exactly one per cell.
      * @param categories The categories to check the antisynergies and synergies of.
-     * @return The score of the board. The higher, the better.
+     * @param random     The random to arrange the tiles with.
+     * @param optimizer  The strategy that searches for the best layout.
+     * @param listener   Receives the amount of layouts the optimizer scored as {@link GenerationEvent#LAYOUT_EVALUATION}.
      */
-    private int scoreBoard(BingoTile[][] board, List<Category> categories) {
-        // find vertical rows
-        int score = 0;
-        List<BingoTile> row = new ArrayList<>(getWidth());
-        for (int x = 0; x < getWidth(); x++) {
-            for (int y = 0; y < getHeight(); y++) {
-                row.add(board[x][y]);
-            }
-            score += scoreRow(row, categories);
-            row.clear();
-        }
-
-        // find horizontal rows
-        for (int y = 0; y < getHeight(); y++) {
-            for (int x = 0; x < getWidth(); x++) {
-                row.add(board[x][y]);
-            }
-            score += scoreRow(row, categories);
-            row.clear();
+    public void populate(List<BingoTile> tiles, List<Category> categories, Random random, LayoutOptimizer optimizer, GenerationListener listener) {
+        LOG.debug("Populating board with [{}] tiles", tiles.size());
+        if (tiles.size() != getWidth() * getHeight()) {
+            throw new IllegalArgumentException("Board with [" + getWidth() + "x" + getHeight() + "] cells cannot be populated with [" + tiles.size() + "] tiles");
         }
-
-        // find diagonal rows
-        int diagonalRowLength = Math.min(getWidth(), getHeight());
-        if (getWidth() >= getHeight()) {
-            for (int x = 0; x < getWidth() - diagonalRowLength + 1; x++) {
-                for (int y = 0; y < diagonalRowLength; y++) {
-                    row.add(board[x + y][y]);
-                }
-                score += scoreRow(row, categories);
-                row.clear();
-
-                int i = 0;
-                for (int y = getHeight() - 1; y >= 0; y--) {
-                    row.add(board[x + i][y]);
-                    i++;
-                }
-                score += scoreRow(row, categories);
-                row.clear();
-            }
-        } else {
-            for (int y = 0; y < getHeight() - diagonalRowLength + 1; y++) {
-                for (int x = 0; x < diagonalRowLength; x++) {
-                    row.add(board[x][y + x]);
-                }
-                score += scoreRow(row, categories);
-                row.clear();
-
-                int i = 0;
-                for (int x = getWidth() - 1; x >= 0; x--) {
-                    row.add(board[x][y + i]);
-                    i++;
-                }
-                score += scoreRow(row, categories);
-                row.clear();
-            }
-        }
-
-        // give points for having a larger difficulty on outer layers compared to inner layers (circles)
-        // example, a board like this, the numbers being the difficulties:
-        //  1 2 3 4
-        //  5 6 7 8
-        //  9 10 11 12
-        //  13 14 15 16
-        // would have two layers, one the outer ring and one the inner ring.
-        // the outer ring would have a score of (1+2+3+4+5+8+9+19+13+14+15+16 = 109), the inner ring would have a score of (6+7+10+11 = 34).
-        int layers = (int) Math.ceil(Math.max(getWidth(), getHeight()) / 2.0);
-        double[] totalDifficultyPerLayer = new double[layers];
-        int[] elementsPerLayer = new int[layers];
-        double centerX = (getWidth() - 1) / 2.0;
-        double centerY = (getHeight() - 1) / 2.0;
+        LayoutScorer scorer = new LayoutScorer(getWidth(), getHeight(), categories, tiles);
+        BingoTile[] bestLayout = optimizer.optimize(scorer, tiles, random);
+        // board is final, copy cells individually
         for (int x = 0; x < getWidth(); x++) {
-            for (int y = 0; y < getHeight(); y++) {
-                double distance = Math.max(Math.abs(x - centerX), Math.abs(y - centerY));
-                int layer = (int) Math.floor(distance);
-                totalDifficultyPerLayer[layer] += board[x][y].getDifficulty();
-                elementsPerLayer[layer]++;
-            }
-        }
-        for (int i = 0; i < layers; i++) {
-            totalDifficultyPerLayer[i] /= elementsPerLayer[i];
-        }
-        for (int i = 0; i < layers - 1; i++) {
-            if (totalDifficultyPerLayer[i] <= totalDifficultyPerLayer[i + 1]) {
-                score += 5;
-            } else {
-                score -= 2;
-            }
+            System.arraycopy(bestLayout, x * getHeight(), board[x], 0, getHeight());
         }
 
-        return score;
-    }
-
-    private int scoreRow(List<BingoTile> row, List<Category> categories) {
-        int score = 0;
-        for (Category category : categories) {
-            BingoTile tile = rowContainsCategory(row, category, null);
-            if (tile != null) {
-                // check for antisynergies
-                for (Category antisynergy : category.getAntisynergy()) {
-                    if (rowContainsCategory(row, antisynergy, tile) != null) {
-                        score -= 10;
-                    }
-                }
-                // check for synergies
-                for (Category synergy : category.getSynergies()) {
-                    if (rowContainsCategory(row, synergy, tile) != null) {
-                        score += 4;
-                    }
-                }
-            }
+        listener.onEvent(GenerationEvent.LAYOUT_EVALUATION, scorer.getEvaluations());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Board score is [{}]", scorer.score(bestLayout));
         }
-        return score;
-    }
-
-    private BingoTile rowContainsCategory(List<BingoTile> row, Category category, BingoTile exclude) {
-        return row.stream().filter(t -> t != exclude).filter(tile -> tile.getCategories().contains(category)).findFirst().orElse(null);
     }
 
     public String toString() {
@@ -0,0 +1,445 @@
+package de.yanwittmann.bingo;
+
+import de.yanwittmann.bingo.generator.BingoBoardMetadata;
+import de.yanwittmann.bingo.generator.Category;
+import de.yanwittmann.bingo.generator.CategoryRegistry;
+import org.json.JSONObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reads boards in the format of {@link BingoBoard#toJson()} from a stream, one board at a time.<br>
+ * The stream may contain a single board, several boards one after another (for example newline delimited json as
+ * written by {@link BingoBoardWriter}) or json arrays of boards. The boards are parsed directly from the stream without
+ * building a {@link JSONObject} tree, and only when they are requested, so any amount of boards can be read.<br>
+ * The categories of the tiles are interned by a {@link CategoryRegistry}, tiles of all boards read with the same registry
+ * share their category instances. Unknown fields are skipped.
+ */
+public class BingoBoardReader implements Closeable, Iterable<BingoBoard> {
+
+    private final Reader reader;
+    private final CategoryRegistry categoryRegistry;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder token = new StringBuilder();
+    private int position = 0;
+    private int limit = 0;
+    private long offset = 0;
+    private boolean inArray = false;
+    private boolean iteratorCreated = false;
+
+    /**
+     * Reads the boards as UTF-8 with a new category registry.
+     */
+    public BingoBoardReader(InputStream in) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8), new CategoryRegistry());
+    }
+
+    /**
+     * @param reader           The reader to read the boards from. Is buffered by this reader.
+     * @param categoryRegistry The registry to intern the categories of the tiles with.
+     */
+    public BingoBoardReader(Reader reader, CategoryRegistry categoryRegistry) {
+        if (reader == null || categoryRegistry == null) {
+            throw new IllegalArgumentException("Reader and category registry must not be null");
+        }
+        this.reader = reader;
+        this.categoryRegistry = categoryRegistry;
+    }
+
+    public CategoryRegistry getCategoryRegistry() {
+        return categoryRegistry;
+    }
+
+    /**
+     * @return The next board or <code>null</code> if the end of the stream has been reached.
+     * @throws IOException If the stream cannot be read or does not contain valid boards.
+     */
+    public BingoBoard read() throws IOException {
+        while (true) {
+            int c = peekSkippingWhitespace();
+            if (inArray) {
+                if (c == ']') {
+                    position++;
+                    inArray = false;
+                    continue;
+                }
+                if (c == ',') {
+                    position++;
+                    c = peekSkippingWhitespace();
+                }
+            } else if (c == '[') {
+                position++;
+                inArray = true;
+                continue;
+            }
+            if (c == -1) {
+                if (inArray) throw error("Unexpected end of stream in array of boards");
+                return null;
+            }
+            return readBoard();
+        }
+    }
+
+    /**
+     * The returned iterator reads the boards lazily from this reader, it can only be created once.<br>
+     * {@link IOException}s are thrown as {@link UncheckedIOException}s.
+     */
+    @Override
+    public Iterator<BingoBoard> iterator() {
+        if (iteratorCreated) {
+            throw new IllegalStateException("The boards of a reader can only be iterated once");
+        }
+        iteratorCreated = true;
+        return new Iterator<BingoBoard>() {
+            private BingoBoard next;
+            private boolean done = false;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !done) {
+                    try {
+                        next = read();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    done = next == null;
+                }
+                return next != null;
+            }
+
+            @Override
+            public BingoBoard next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                BingoBoard board = next;
+                next = null;
+                return board;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private BingoBoard readBoard() throws IOException {
+        expect('{');
+        int width = -1, height = -1;
+        Map<String, Object> metadata = null;
+        Map<Category, Integer> categoryCount = null;
+        double difficulty = -1;
+        List<List<BingoTile>> rows = null;
+
+        if (!consumeIf('}')) {
+            do {
+                String key = readString();
+                expect(':');
+                switch (key) {
+                    case "width":
+                        width = readNumber().intValue();
+                        break;
+                    case "height":
+                        height = readNumber().intValue();
+                        break;
+                    case "metadata":
+                        metadata = readObject();
+                        break;
+                    case "categories":
+                        categoryCount = readCategoryCount();
+                        break;
+                    case "difficulty":
+                        difficulty = readNumber().doubleValue();
+                        break;
+                    case "board":
+                        rows = readRows();
+                        break;
+                    default:
+                        readValue();
+                }
+            } while (consumeIf(','));
+            expect('}');
+        }
+
+        if (width < 1 || height < 1) {
+            throw error("Board is missing a valid width and height");
+        }
+        if (rows == null || rows.size() < height) {
+            throw error("Board does not contain [" + height + "] rows");
+        }
+        BingoBoard board = new BingoBoard(width, height);
+        for (int y = 0; y < height; y++) {
+            List<BingoTile> row = rows.get(y);
+            if (row.size() < width) {
+                throw error("Row [" + y + "] does not contain [" + width + "] tiles");
+            }
+            for (int x = 0; x < width; x++) {
+                board.set(x, y, row.get(x));
+            }
+        }
+        if (metadata != null) board.setBoardMetadata(new BingoBoardMetadata(metadata));
+        if (categoryCount != null) board.setCategoryCount(categoryCount);
+        if (difficulty != -1) board.setDifficulty(difficulty);
+        return board;
+    }
+
+    private Map<Category, Integer> readCategoryCount() throws IOException {
+        Map<Category, Integer> categoryCount = new HashMap<>();
+        expect('{');
+        if (consumeIf('}')) return categoryCount;
+        do {
+            String name = readString();
+            expect(':');
+            categoryCount.put(categoryRegistry.intern(name), readNumber().intValue());
+        } while (consumeIf(','));
+        expect('}');
+        return categoryCount;
+    }
+
+    private List<List<BingoTile>> readRows() throws IOException {
+        List<List<BingoTile>> rows = new ArrayList<>();
+        expect('[');
+        if (consumeIf(']')) return rows;
+        do {
+            List<BingoTile> row = new ArrayList<>();
+            expect('[');
+            if (!consumeIf(']')) {
+                do {
+                    row.add(readTile());
+                } while (consumeIf(','));
+                expect(']');
+            }
+            rows.add(row);
+        } while (consumeIf(','));
+        expect(']');
+        return rows;
+    }
+
+    private BingoTile readTile() throws IOException {
+        expect('{');
+        String text = null, tooltip = null;
+        double difficulty = Double.NaN;
+        List<Category> categories = Collections.emptyList();
+        if (!consumeIf('}')) {
+            do {
+                String key = readString();
+                expect(':');
+                switch (key) {
+                    case "text":
+                        text = readString();
+                        break;
+                    case "tooltip":
+                        tooltip = readNullableString();
+                        break;
+                    case "difficulty":
+                        difficulty = readNumber().doubleValue();
+                        break;
+                    case "categories":
+                        categories = readCategories();
+                        break;
+                    default:
+                        readValue();
+                }
+            } while (consumeIf(','));
+            expect('}');
+        }
+        if (text == null || Double.isNaN(difficulty)) {
+            throw error("Tile is missing its text or difficulty");
+        }
+        BingoTile tile = new BingoTile(text, tooltip, difficulty);
+        for (Category category : categories) {
+            tile.addCategory(category);
+        }
+        return tile;
+    }
+
+    private List<Category> readCategories() throws IOException {
+        List<Category> categories = new ArrayList<>();
+        expect('[');
+        if (consumeIf(']')) return categories;
+        do {
+            categories.add(categoryRegistry.intern(String.valueOf(readNullableString())));
+        } while (consumeIf(','));
+        expect(']');
+        return categories;
+    }
+
+    /**
+     * Reads any json value into the same types as {@link JSONObject#toMap()} does.
+     */
+    private Object readValue() throws IOException {
+        int c = peekSkippingWhitespace();
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                List<Object> list = new ArrayList<>();
+                position++;
+                if (consumeIf(']')) return list;
+                do {
+                    list.add(readValue());
+                } while (consumeIf(','));
+                expect(']');
+                return list;
+            case '"':
+                return readString();
+            default:
+                Object value = readLiteral();
+                return value == JSONObject.NULL ? null : value;
+        }
+    }
+
+    private Map<String, Object> readObject() throws IOException {
+        Map<String, Object> map = new HashMap<>();
+        expect('{');
+        if (consumeIf('}')) return map;
+        do {
+            String key = readString();
+            expect(':');
+            map.put(key, readValue());
+        } while (consumeIf(','));
+        expect('}');
+        return map;
+    }
+
+    private Number readNumber() throws IOException {
+        Object value = readLiteral();
+        if (!(value instanceof Number)) {
+            throw error("Expected a number but found [" + value + "]");
+        }
+        return (Number) value;
+    }
+
+    /**
+     * Reads a number, <code>true</code>, <code>false</code> or <code>null</code> and converts it the same way
+     * {@link JSONObject} does.
+     */
+    private Object readLiteral() throws IOException {
+        peekSkippingWhitespace();
+        token.setLength(0);
+        while (true) {
+            int c = peek();
+            if (c == -1 || c == ',' || c == ':' || c == ']' || c == '}' || c == '"' || c == '[' || c == '{' || Character.isWhitespace(c)) {
+                break;
+            }
+            token.append((char) c);
+            position++;
+        }
+        if (token.length() == 0) {
+            throw error("Expected a value");
+        }
+        Object value = JSONObject.stringToValue(token.toString());
+        if (value instanceof String) {
+            throw error("Invalid value [" + value + "]");
+        }
+        return value;
+    }
+
+    private String readNullableString() throws IOException {
+        if (peekSkippingWhitespace() == '"') return readString();
+        Object value = readLiteral();
+        if (value != JSONObject.NULL) {
+            throw error("Expected a string but found [" + value + "]");
+        }
+        return null;
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        token.setLength(0);
+        while (true) {
+            int c = next();
+            if (c == -1) throw error("Unterminated string");
+            if (c == '"') return token.toString();
+            if (c != '\\') {
+                token.append((char) c);
+                continue;
+            }
+            c = next();
+            switch (c) {
+                case 'b':
+                    token.append('\b');
+                    break;
+                case 't':
+                    token.append('\t');
+                    break;
+                case 'n':
+                    token.append('\n');
+                    break;
+                case 'f':
+                    token.append('\f');
+                    break;
+                case 'r':
+                    token.append('\r');
+                    break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(next(), 16);
+                        if (digit == -1) throw error("Invalid unicode escape");
+                        code = code * 16 + digit;
+                    }
+                    token.append((char) code);
+                    break;
+                case '"':
+                case '\'':
+                case '\\':
+                case '/':
+                    token.append((char) c);
+                    break;
+                default:
+                    throw error("Invalid escape sequence");
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peekSkippingWhitespace();
+        if (c != expected) {
+            throw error("Expected [" + expected + "] but found [" + (c == -1 ? "end of stream" : String.valueOf((char) c)) + "]");
+        }
+        position++;
+    }
+
+    private boolean consumeIf(char expected) throws IOException {
+        if (peekSkippingWhitespace() == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private int peekSkippingWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && Character.isWhitespace(c)) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            offset += limit;
+            position = 0;
+            limit = reader.read(buffer, 0, buffer.length);
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        if (c != -1) position++;
+        return c;
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at character [" + (offset + position) + "]");
+    }
+}
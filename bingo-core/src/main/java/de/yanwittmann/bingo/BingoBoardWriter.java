@@ -0,0 +1,202 @@
+package de.yanwittmann.bingo;
+
+import de.yanwittmann.bingo.generator.BingoBoardMetadata;
+import de.yanwittmann.bingo.generator.Category;
+import org.json.JSONObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes boards as json directly to a stream, without building the {@link org.json.JSONObject} tree of
+ * {@link BingoBoard#toJson()} first. The written boards have the same format and can be read by
+ * {@link BingoBoard#BingoBoard(JSONObject)}.<br>
+ * A writer either writes newline delimited json, one board per line, or a single json array containing all boards. Only
+ * the board that is currently written is held in memory, so any amount of boards can be written to a single stream.
+ * A single board can be written as a plain json object using {@link #writeBoard(BingoBoard, Writer)}.
+ */
+public class BingoBoardWriter implements Closeable, Flushable {
+
+    public enum Format {
+        /**
+         * One board per line.
+         */
+        NDJSON,
+        /**
+         * A single json array that contains all boards. The array is closed when the writer is closed.
+         */
+        JSON_ARRAY
+    }
+
+    private final Writer writer;
+    private final Format format;
+    private long count = 0;
+    private boolean closed = false;
+
+    /**
+     * @param out    The stream to write the boards to, as UTF-8.
+     * @param format The format to write the boards in.
+     */
+    public BingoBoardWriter(OutputStream out, Format format) {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), format);
+    }
+
+    /**
+     * @param writer The writer to write the boards to. Is not buffered by this writer.
+     * @param format The format to write the boards in.
+     */
+    public BingoBoardWriter(Writer writer, Format format) {
+        if (writer == null || format == null) {
+            throw new IllegalArgumentException("Writer and format must not be null");
+        }
+        this.writer = writer;
+        this.format = format;
+    }
+
+    public void write(BingoBoard board) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Writer is already closed");
+        }
+        if (format == Format.JSON_ARRAY) {
+            writer.write(count == 0 ? '[' : ',');
+        }
+        writeBoard(board, writer);
+        if (format == Format.NDJSON) {
+            writer.write('\n');
+        }
+        count++;
+    }
+
+    /**
+     * @return The amount of boards written so far.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Closes the json array if the format is {@link Format#JSON_ARRAY} and closes the underlying writer.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        if (format == Format.JSON_ARRAY) {
+            writer.write(count == 0 ? "[]" : "]");
+        }
+        writer.close();
+    }
+
+    /**
+     * Writes the board as a single json object with the same content as {@link BingoBoard#toJson()}.
+     */
+    public static void writeBoard(BingoBoard board, Writer writer) throws IOException {
+        writer.write("{\"width\":");
+        writer.write(Integer.toString(board.getWidth()));
+        writer.write(",\"height\":");
+        writer.write(Integer.toString(board.getHeight()));
+
+        BingoBoardMetadata metadata = board.getBoardMetadata();
+        if (metadata != null) {
+            writer.write(",\"metadata\":{");
+            boolean first = true;
+            first = writeStringField(writer, "title", metadata.getTitle(), first);
+            first = writeStringField(writer, "game", metadata.getGame(), first);
+            first = writeStringField(writer, "description", metadata.getDescription(), first);
+            first = writeStringField(writer, "version", metadata.getVersion(), first);
+            if (metadata.getAuthors() != null) {
+                if (!first) writer.write(',');
+                writer.write("\"authors\":[");
+                List<String> authors = metadata.getAuthors();
+                for (int i = 0; i < authors.size(); i++) {
+                    if (i > 0) writer.write(',');
+                    // the yaml file may contain authors that are not strings
+                    writer.write(JSONObject.valueToString(((List<?>) authors).get(i)));
+                }
+                writer.write(']');
+            }
+            writer.write('}');
+        }
+
+        Map<Category, Integer> categoryCount = board.getCategoryCount();
+        if (categoryCount != null) {
+            writer.write(",\"categories\":{");
+            boolean first = true;
+            for (Map.Entry<Category, Integer> entry : categoryCount.entrySet()) {
+                if (!first) writer.write(',');
+                first = false;
+                JSONObject.quote(String.valueOf(entry.getKey()), writer);
+                writer.write(':');
+                writer.write(entry.getValue() == null ? "null" : entry.getValue().toString());
+            }
+            writer.write('}');
+        }
+
+        if (board.getDifficulty() != -1) {
+            writer.write(",\"difficulty\":");
+            writeNumber(writer, board.getDifficulty());
+        }
+
+        writer.write(",\"board\":[");
+        for (int y = 0; y < board.getHeight(); y++) {
+            if (y > 0) writer.write(',');
+            writer.write('[');
+            for (int x = 0; x < board.getWidth(); x++) {
+                if (x > 0) writer.write(',');
+                writeTile(board.get(x, y), writer);
+            }
+            writer.write(']');
+        }
+        writer.write("]}");
+    }
+
+    private static void writeTile(BingoTile tile, Writer writer) throws IOException {
+        writer.write('{');
+        boolean first = writeStringField(writer, "text", tile.getText(), true);
+        first = writeStringField(writer, "tooltip", tile.getTooltip(), first);
+        if (!first) writer.write(',');
+        writer.write("\"difficulty\":");
+        writeNumber(writer, tile.getDifficulty());
+        writer.write(",\"categories\":[");
+        List<Category> categories = tile.getCategories();
+        for (int i = 0; i < categories.size(); i++) {
+            if (i > 0) writer.write(',');
+            String name = categories.get(i).getName();
+            if (name == null) {
+                writer.write("null");
+            } else {
+                JSONObject.quote(name, writer);
+            }
+        }
+        writer.write("]}");
+    }
+
+    /**
+     * Fields with a <code>null</code> value are left out, just like {@link JSONObject#put(String, Object)} does.
+     *
+     * @return Whether no field has been written yet.
+     */
+    private static boolean writeStringField(Writer writer, String key, String value, boolean first) throws IOException {
+        if (value == null) return first;
+        if (!first) writer.write(',');
+        writer.write('"');
+        writer.write(key);
+        writer.write("\":");
+        JSONObject.quote(value, writer);
+        return false;
+    }
+
+    private static void writeNumber(Writer writer, double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Json does not allow non-finite numbers: " + value);
+        }
+        writer.write(JSONObject.numberToString(value));
+    }
+}
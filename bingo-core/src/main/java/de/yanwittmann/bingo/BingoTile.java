@@ -1,6 +1,7 @@
 package de.yanwittmann.bingo;
 
 import de.yanwittmann.bingo.generator.Category;
+import de.yanwittmann.bingo.generator.CategoryRegistry;
 import de.yanwittmann.bingo.interfaces.Jsonable;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -9,30 +10,51 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 public class BingoTile implements Jsonable {
 
-    private final Logger LOG = LoggerFactory.getLogger(getClass());
+    private static final Logger LOG = LoggerFactory.getLogger(BingoTile.class);
 
     private final String text;
+    private final String textKey;
     private final String tooltip;
     private final double difficulty;
     private final List<Category> categories = new ArrayList<>();
 
     public BingoTile(String text, String tooltip, double difficulty) {
         this.text = text;
+        this.textKey = toTextKey(text);
         this.tooltip = tooltip;
         this.difficulty = difficulty;
     }
 
+    /**
+     * For read-only views that override all getters and {@link #addCategory(Category)}, see {@link CompactBingoBoard#get(int, int)}.
+     */
+    BingoTile() {
+        this.text = null;
+        this.textKey = null;
+        this.tooltip = null;
+        this.difficulty = 0;
+    }
+
     public BingoTile(JSONObject jsonObject) {
+        this(jsonObject, new CategoryRegistry());
+    }
+
+    /**
+     * @param categoryRegistry The registry to intern the categories of the tile with.
+     */
+    public BingoTile(JSONObject jsonObject, CategoryRegistry categoryRegistry) {
         text = jsonObject.getString("text");
+        textKey = toTextKey(text);
         tooltip = jsonObject.optString("tooltip", null);
         difficulty = jsonObject.getDouble("difficulty");
         JSONArray categories = jsonObject.optJSONArray("categories");
         if (categories != null) {
-            this.categories.addAll(categories.toList().stream().map(s -> new Category(String.valueOf(s))).collect(Collectors.toList()));
+            this.categories.addAll(categories.toList().stream().map(s -> categoryRegistry.intern(String.valueOf(s))).collect(Collectors.toList()));
         }
     }
 
@@ -59,25 +81,60 @@ public class BingoTile implements Jsonable {
     }
 
     public boolean isTextEqual(String text) {
-        if (text == null && this.text == null) return true;
-        if (text == null || this.text == null) return false;
-        String compare = text.replaceAll("-?\\d", "");
-        String self = this.text.replaceAll("-?\\d", "");
-        return compare.equalsIgnoreCase(self);
+        return Objects.equals(getTextKey(), toTextKey(text));
+    }
+
+    /**
+     * @return The key of the text of this tile, see {@link #toTextKey(String)}.
+     */
+    public String getTextKey() {
+        return textKey;
+    }
+
+    /**
+     * Two texts are considered equal if they only differ in their numbers (with an optional leading minus) and the case of
+     * their characters, so <code>Collect 5 Stars</code> and <code>collect -3 stars</code> are equal.<br>
+     * This method creates a key that is the same for equal texts: the numbers are removed and every character is folded
+     * to a single case the same way as {@link String#equalsIgnoreCase(String)} compares them.
+     *
+     * @return The key of the text or <code>null</code> if the text is <code>null</code>.
+     */
+    public static String toTextKey(String text) {
+        if (text == null) return null;
+        return appendTextKey(text, new StringBuilder(text.length())).toString();
+    }
+
+    /**
+     * Appends the key of the text to the builder, see {@link #toTextKey(String)}.
+     *
+     * @return The builder.
+     */
+    public static StringBuilder appendTextKey(CharSequence text, StringBuilder key) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c) || (c == '-' && i + 1 < length && isDigit(text.charAt(i + 1)))) continue;
+            key.append(Character.toLowerCase(Character.toUpperCase(c)));
+        }
+        return key;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("text", text);
+        json.put("text", getText());
         json.put("tooltip", getTooltip());
-        json.put("difficulty", difficulty);
-        json.put("categories", categories.stream().map(Category::getName).collect(Collectors.toList()));
+        json.put("difficulty", getDifficulty());
+        json.put("categories", getCategories().stream().map(Category::getName).collect(Collectors.toList()));
         return json;
     }
 
     @Override
     public String toString() {
-        return text;
+        return getText();
     }
 }
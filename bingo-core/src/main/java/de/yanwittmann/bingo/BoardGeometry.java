@@ -0,0 +1,185 @@
+package de.yanwittmann.bingo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The lines and rings of a board size, computed once per size and shared by all boards of that size.<br>
+ * Cells are numbered <code>x * height + y</code>. The lines are all columns, all rows and the diagonals, non-square
+ * boards having one pair of diagonals per offset along the longer side. Within a line, cells are ordered the way the
+ * board is read along that line. The rings are layers around the center, layer <code>0</code> being the innermost one.<br>
+ * Only the geometries of boards with up to {@link #MAX_CACHED_CELLS} cells are kept, larger ones are computed per board
+ * so that generating boards of many large sizes does not keep their geometries in memory.
+ */
+public final class BoardGeometry {
+
+    public static final int MAX_CACHED_CELLS = 32 * 32;
+    private static final Map<Long, BoardGeometry> GEOMETRIES = new ConcurrentHashMap<>();
+
+    private final int width;
+    private final int height;
+    private final int[][] lines;
+    private final int[][] linesOfCell;
+    private final int[][] positionsOfCell;
+    private final int[] layerOfCell;
+    private final int[][] cellsOfLayer;
+    private final int maxLineLength;
+
+    private BoardGeometry(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        List<int[]> lines = new ArrayList<>();
+        // vertical rows
+        for (int x = 0; x < width; x++) {
+            int[] line = new int[height];
+            for (int y = 0; y < height; y++) line[y] = index(x, y);
+            lines.add(line);
+        }
+        // horizontal rows
+        for (int y = 0; y < height; y++) {
+            int[] line = new int[width];
+            for (int x = 0; x < width; x++) line[x] = index(x, y);
+            lines.add(line);
+        }
+        // diagonal rows
+        int diagonalRowLength = Math.min(width, height);
+        if (width >= height) {
+            for (int x = 0; x < width - diagonalRowLength + 1; x++) {
+                int[] diagonal = new int[diagonalRowLength];
+                for (int y = 0; y < diagonalRowLength; y++) diagonal[y] = index(x + y, y);
+                lines.add(diagonal);
+                int[] antiDiagonal = new int[height];
+                for (int i = 0, y = height - 1; y >= 0; y--, i++) antiDiagonal[i] = index(x + i, y);
+                lines.add(antiDiagonal);
+            }
+        } else {
+            for (int y = 0; y < height - diagonalRowLength + 1; y++) {
+                int[] diagonal = new int[diagonalRowLength];
+                for (int x = 0; x < diagonalRowLength; x++) diagonal[x] = index(x, y + x);
+                lines.add(diagonal);
+                int[] antiDiagonal = new int[width];
+                for (int i = 0, x = width - 1; x >= 0; x--, i++) antiDiagonal[i] = index(x, y + i);
+                lines.add(antiDiagonal);
+            }
+        }
+        this.lines = lines.toArray(new int[0][]);
+
+        int cells = width * height;
+        int[] linesPerCell = new int[cells];
+        int maxLineLength = 0;
+        for (int[] line : this.lines) {
+            for (int cell : line) linesPerCell[cell]++;
+            maxLineLength = Math.max(maxLineLength, line.length);
+        }
+        this.maxLineLength = maxLineLength;
+        this.linesOfCell = new int[cells][];
+        this.positionsOfCell = new int[cells][];
+        for (int cell = 0; cell < cells; cell++) {
+            linesOfCell[cell] = new int[linesPerCell[cell]];
+            positionsOfCell[cell] = new int[linesPerCell[cell]];
+        }
+        int[] filledLines = new int[cells];
+        for (int line = 0; line < this.lines.length; line++) {
+            for (int position = 0; position < this.lines[line].length; position++) {
+                int cell = this.lines[line][position];
+                linesOfCell[cell][filledLines[cell]] = line;
+                positionsOfCell[cell][filledLines[cell]] = position;
+                filledLines[cell]++;
+            }
+        }
+
+        int layers = (int) Math.ceil(Math.max(width, height) / 2.0);
+        double centerX = (width - 1) / 2.0;
+        double centerY = (height - 1) / 2.0;
+        this.layerOfCell = new int[cells];
+        int[] elementsPerLayer = new int[layers];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                double distance = Math.max(Math.abs(x - centerX), Math.abs(y - centerY));
+                int layer = (int) Math.floor(distance);
+                layerOfCell[index(x, y)] = layer;
+                elementsPerLayer[layer]++;
+            }
+        }
+        this.cellsOfLayer = new int[layers][];
+        for (int i = 0; i < layers; i++) cellsOfLayer[i] = new int[elementsPerLayer[i]];
+        int[] filledLayers = new int[layers];
+        for (int cell = 0; cell < cells; cell++) {
+            int layer = layerOfCell[cell];
+            cellsOfLayer[layer][filledLayers[layer]++] = cell;
+        }
+    }
+
+    public static BoardGeometry of(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Board size must be at least 1x1: " + width + "x" + height);
+        }
+        if ((long) width * height > MAX_CACHED_CELLS) {
+            return new BoardGeometry(width, height);
+        }
+        return GEOMETRIES.computeIfAbsent(((long) width << 32) | height, k -> new BoardGeometry(width, height));
+    }
+
+    public int index(int x, int y) {
+        return x * height + y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCellCount() {
+        return width * height;
+    }
+
+    public int getLineCount() {
+        return lines.length;
+    }
+
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    /**
+     * @return The cells of the line in reading order. Must not be modified.
+     */
+    int[] getLine(int line) {
+        return lines[line];
+    }
+
+    /**
+     * @return The lines that contain the cell. Must not be modified.
+     */
+    int[] getLinesOfCell(int cell) {
+        return linesOfCell[cell];
+    }
+
+    /**
+     * @return The position of the cell in each of the lines of {@link #getLinesOfCell(int)}. Must not be modified.
+     */
+    int[] getPositionsOfCell(int cell) {
+        return positionsOfCell[cell];
+    }
+
+    public int getLayerCount() {
+        return cellsOfLayer.length;
+    }
+
+    public int getLayerOfCell(int cell) {
+        return layerOfCell[cell];
+    }
+
+    /**
+     * @return The cells of the layer in ascending order. Must not be modified.
+     */
+    int[] getCellsOfLayer(int layer) {
+        return cellsOfLayer[layer];
+    }
+}
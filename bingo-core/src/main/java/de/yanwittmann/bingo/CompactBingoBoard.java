@@ -0,0 +1,300 @@
+package de.yanwittmann.bingo;
+
+import de.yanwittmann.bingo.generator.BingoBoardMetadata;
+import de.yanwittmann.bingo.generator.Category;
+import de.yanwittmann.bingo.interfaces.Jsonable;
+import org.json.JSONObject;
+
+import java.util.*;
+
+/**
+ * A board stored in primitive arrays instead of {@link BingoTile} objects, for holding many boards in memory.<br>
+ * Every cell is a text id and a tooltip id into a {@link CompactBoardPool}, a difficulty and a bit mask of the pool ids
+ * of its categories. The cell at <code>(x, y)</code> is stored at index <code>x * height + y</code>, just like the
+ * layouts of the {@link LayoutScorer}. The metadata is shared with the board the compact board was created from.<br>
+ * The getters of single cells read the arrays directly. {@link #get(int, int)} returns a read-only {@link BingoTile} view
+ * of a cell that reads the same arrays, {@link #toBingoBoard()} a new {@link BingoBoard} of such views. Nothing of the
+ * cells is copied, the strings and categories are the shared instances of the pool. The categories of a tile are listed
+ * in the order of their pool ids.
+ */
+public final class CompactBingoBoard implements Jsonable {
+
+    private final CompactBoardPool pool;
+    private final int width;
+    private final int height;
+    private final int[] textIds;
+    private final int[] tooltipIds;
+    private final double[] difficulties;
+    private final int wordsPerCell;
+    private final long[] categoryMasks;
+    private final BingoBoardMetadata boardMetadata;
+    private final double difficulty;
+    private final int[] countedCategoryIds;
+    private final int[] categoryCounts;
+
+    private CompactBingoBoard(BingoBoard board, CompactBoardPool pool) {
+        this.pool = pool;
+        this.width = board.getWidth();
+        this.height = board.getHeight();
+        int cells = width * height;
+        this.textIds = new int[cells];
+        this.tooltipIds = new int[cells];
+        this.difficulties = new double[cells];
+
+        int[][] cellCategories = new int[cells][];
+        int maxCategoryId = -1;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                BingoTile tile = board.get(x, y);
+                if (tile == null) {
+                    throw new IllegalArgumentException("Board has no tile at [" + x + ", " + y + "]");
+                }
+                int cell = x * height + y;
+                textIds[cell] = pool.getStringId(tile.getText());
+                tooltipIds[cell] = pool.getStringId(tile.getTooltip());
+                difficulties[cell] = tile.getDifficulty();
+                List<Category> categories = tile.getCategories();
+                cellCategories[cell] = new int[categories.size()];
+                for (int i = 0; i < categories.size(); i++) {
+                    cellCategories[cell][i] = pool.getCategoryId(categories.get(i));
+                    maxCategoryId = Math.max(maxCategoryId, cellCategories[cell][i]);
+                }
+            }
+        }
+        this.wordsPerCell = (maxCategoryId + 64) >>> 6;
+        this.categoryMasks = new long[cells * wordsPerCell];
+        for (int cell = 0; cell < cells; cell++) {
+            for (int id : cellCategories[cell]) {
+                categoryMasks[cell * wordsPerCell + (id >>> 6)] |= 1L << id;
+            }
+        }
+
+        this.boardMetadata = board.getBoardMetadata();
+        this.difficulty = board.getDifficulty();
+        Map<Category, Integer> categoryCount = board.getCategoryCount();
+        if (categoryCount == null) {
+            this.countedCategoryIds = null;
+            this.categoryCounts = null;
+        } else {
+            this.countedCategoryIds = new int[categoryCount.size()];
+            this.categoryCounts = new int[categoryCount.size()];
+            int i = 0;
+            for (Map.Entry<Category, Integer> entry : categoryCount.entrySet()) {
+                countedCategoryIds[i] = pool.getCategoryId(entry.getKey());
+                categoryCounts[i] = entry.getValue();
+                i++;
+            }
+        }
+    }
+
+    /**
+     * @param board The board to store. All cells must have a tile.
+     * @param pool  The pool to store the strings and categories of the board in.
+     */
+    public static CompactBingoBoard of(BingoBoard board, CompactBoardPool pool) {
+        if (board == null || pool == null) {
+            throw new IllegalArgumentException("Board and pool must not be null");
+        }
+        return new CompactBingoBoard(board, pool);
+    }
+
+    public CompactBoardPool getPool() {
+        return pool;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    private int cell(int x, int y) {
+        if (x < 0 || x >= width) {
+            throw new IllegalArgumentException("X coordinate out of bounds: " + x);
+        }
+        if (y < 0 || y >= height) {
+            throw new IllegalArgumentException("Y coordinate out of bounds: " + y);
+        }
+        return x * height + y;
+    }
+
+    public String getText(int x, int y) {
+        return pool.getString(textIds[cell(x, y)]);
+    }
+
+    public String getTooltip(int x, int y) {
+        return pool.getString(tooltipIds[cell(x, y)]);
+    }
+
+    public double getDifficulty(int x, int y) {
+        return difficulties[cell(x, y)];
+    }
+
+    public boolean hasCategory(int x, int y, Category category) {
+        int cell = cell(x, y);
+        int id = pool.findCategoryId(category);
+        if (id == -1 || (id >>> 6) >= wordsPerCell) return false;
+        return (categoryMasks[cell * wordsPerCell + (id >>> 6)] & (1L << id)) != 0;
+    }
+
+    public List<Category> getCategories(int x, int y) {
+        int offset = cell(x, y) * wordsPerCell;
+        List<Category> categories = new ArrayList<>();
+        for (int word = 0; word < wordsPerCell; word++) {
+            long bits = categoryMasks[offset + word];
+            while (bits != 0) {
+                categories.add(pool.getCategory((word << 6) + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * @return A read-only view of the cell. Adding categories to it throws an {@link UnsupportedOperationException}.
+     */
+    public BingoTile get(int x, int y) {
+        return new CellTile(this, cell(x, y));
+    }
+
+    public BingoBoardMetadata getBoardMetadata() {
+        return boardMetadata;
+    }
+
+    /**
+     * @return The difficulty of the board, <code>-1</code> if it was not set.
+     */
+    public double getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * @return A new map of the category counts of the board or <code>null</code> if they were not set.
+     */
+    public Map<Category, Integer> getCategoryCount() {
+        if (countedCategoryIds == null) return null;
+        Map<Category, Integer> categoryCount = new HashMap<>();
+        for (int i = 0; i < countedCategoryIds.length; i++) {
+            categoryCount.put(pool.getCategory(countedCategoryIds[i]), categoryCounts[i]);
+        }
+        return categoryCount;
+    }
+
+    /**
+     * @return A new board with a view of every cell of this board, see {@link #get(int, int)}. Setting a cell of the new
+     * board does not change this board.
+     */
+    public BingoBoard toBingoBoard() {
+        BingoBoard board = new BingoBoard(width, height);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                board.set(x, y, new CellTile(this, x * height + y));
+            }
+        }
+        if (boardMetadata != null) board.setBoardMetadata(boardMetadata);
+        board.setCategoryCount(getCategoryCount());
+        board.setDifficulty(difficulty);
+        return board;
+    }
+
+    @Override
+    public JSONObject toJson() {
+        return toBingoBoard().toJson();
+    }
+
+    @Override
+    public String toString() {
+        return toBingoBoard().toString();
+    }
+
+    /**
+     * A tile that reads a cell of a compact board. Only the text key is computed and kept on first use.
+     */
+    private static final class CellTile extends BingoTile {
+        private final CompactBingoBoard board;
+        private final int cell;
+        private String textKey;
+        private List<Category> categories;
+
+        private CellTile(CompactBingoBoard board, int cell) {
+            this.board = board;
+            this.cell = cell;
+        }
+
+        @Override
+        public String getText() {
+            return board.pool.getString(board.textIds[cell]);
+        }
+
+        @Override
+        public String getTextKey() {
+            if (textKey == null) textKey = toTextKey(getText());
+            return textKey;
+        }
+
+        @Override
+        public String getTooltip() {
+            String tooltip = board.pool.getString(board.tooltipIds[cell]);
+            return tooltip == null || tooltip.length() == 0 ? null : tooltip;
+        }
+
+        @Override
+        public double getDifficulty() {
+            return board.difficulties[cell];
+        }
+
+        @Override
+        public void addCategory(Category category) {
+            throw new UnsupportedOperationException("Tiles of a compact board are read-only");
+        }
+
+        @Override
+        public List<Category> getCategories() {
+            if (categories == null) categories = new CellCategories(board, cell);
+            return categories;
+        }
+    }
+
+    /**
+     * The categories of a cell, read from its category mask.
+     */
+    private static final class CellCategories extends AbstractList<Category> {
+        private final CompactBingoBoard board;
+        private final int offset;
+        private final int size;
+
+        private CellCategories(CompactBingoBoard board, int cell) {
+            this.board = board;
+            this.offset = cell * board.wordsPerCell;
+            int size = 0;
+            for (int word = 0; word < board.wordsPerCell; word++) {
+                size += Long.bitCount(board.categoryMasks[offset + word]);
+            }
+            this.size = size;
+        }
+
+        @Override
+        public Category get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index [" + index + "] is not in the [" + size + "] categories");
+            }
+            for (int word = 0; word < board.wordsPerCell; word++) {
+                long bits = board.categoryMasks[offset + word];
+                int count = Long.bitCount(bits);
+                if (index < count) {
+                    for (int i = 0; i < index; i++) bits &= bits - 1;
+                    return board.pool.getCategory((word << 6) + Long.numberOfTrailingZeros(bits));
+                }
+                index -= count;
+            }
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
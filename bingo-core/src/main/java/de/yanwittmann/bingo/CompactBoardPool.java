@@ -0,0 +1,116 @@
+package de.yanwittmann.bingo;
+
+import de.yanwittmann.bingo.generator.Category;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The strings and categories shared by {@link CompactBingoBoard}s. Every distinct text and tooltip is stored once and
+ * referenced by an int id, every distinct category gets an id that is its bit in the category masks of the boards.<br>
+ * Ids are assigned in the order the strings and categories are first seen and never change, so a pool can be shared by
+ * any amount of boards. The pool is thread safe: looking up ids and reading strings and categories by id never locks,
+ * only adding a string or category that the pool does not contain yet does. The strings and categories are kept in
+ * arrays that are only replaced by larger copies, an id is only handed out after its entry is visible in the array.
+ */
+public final class CompactBoardPool {
+
+    private final Map<String, Integer> stringIds = new ConcurrentHashMap<>();
+    private volatile String[] strings = new String[64];
+    private volatile int stringCount = 0;
+    private final Map<Category, Integer> categoryIds = new ConcurrentHashMap<>();
+    private volatile Category[] categories = new Category[64];
+    private volatile int categoryCount = 0;
+
+    public CompactBoardPool() {
+    }
+
+    /**
+     * @param categories The categories to assign the first ids to, for example the categories of a configuration. Tiles
+     *                   of boards read from a pool list their categories in the order of their ids.
+     */
+    public CompactBoardPool(Iterable<Category> categories) {
+        for (Category category : categories) {
+            getCategoryId(category);
+        }
+    }
+
+    /**
+     * @return The id of the string, <code>-1</code> for <code>null</code>.
+     */
+    public int getStringId(String string) {
+        if (string == null) return -1;
+        Integer id = stringIds.get(string);
+        return id != null ? id : addString(string);
+    }
+
+    private synchronized int addString(String string) {
+        Integer existing = stringIds.get(string);
+        if (existing != null) return existing;
+        int id = stringCount;
+        String[] array = strings;
+        if (id == array.length) array = Arrays.copyOf(array, id * 2);
+        array[id] = string;
+        strings = array;
+        stringCount = id + 1;
+        stringIds.put(string, id);
+        return id;
+    }
+
+    /**
+     * @return The string with the id, <code>null</code> for <code>-1</code>.
+     */
+    public String getString(int id) {
+        if (id == -1) return null;
+        checkId(id, stringCount);
+        return strings[id];
+    }
+
+    public int getCategoryId(Category category) {
+        if (category == null) {
+            throw new IllegalArgumentException("Category must not be null");
+        }
+        Integer id = categoryIds.get(category);
+        return id != null ? id : addCategory(category);
+    }
+
+    private synchronized int addCategory(Category category) {
+        Integer existing = categoryIds.get(category);
+        if (existing != null) return existing;
+        int id = categoryCount;
+        Category[] array = categories;
+        if (id == array.length) array = Arrays.copyOf(array, id * 2);
+        array[id] = category;
+        categories = array;
+        categoryCount = id + 1;
+        categoryIds.put(category, id);
+        return id;
+    }
+
+    /**
+     * @return The id of the category or <code>-1</code> if the pool does not contain it.
+     */
+    public int findCategoryId(Category category) {
+        return categoryIds.getOrDefault(category, -1);
+    }
+
+    public Category getCategory(int id) {
+        checkId(id, categoryCount);
+        return categories[id];
+    }
+
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    private static void checkId(int id, int count) {
+        if (id < 0 || id >= count) {
+            throw new IndexOutOfBoundsException("Id [" + id + "] is not in the pool of [" + count + "] entries");
+        }
+    }
+}
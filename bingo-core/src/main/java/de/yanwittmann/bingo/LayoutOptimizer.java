@@ -0,0 +1,57 @@
+package de.yanwittmann.bingo;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Strategy that arranges the tiles of a board so that the {@link LayoutScorer} score is as high as possible.<br>
+ * Implementations must not keep any state between calls, a single instance is shared between all boards of a batch.
+ */
+public interface LayoutOptimizer {
+
+    /**
+     * @return The name the strategy can be selected with using {@link #forName(String)}.
+     */
+    String getName();
+
+    /**
+     * @param scorer The scorer for the size of the board and the tiles.
+     * @param tiles  The tiles to place, exactly one per cell of the board.
+     * @param random The only source of randomness the strategy may use.
+     * @return The best layout found, the tile at <code>(x, y)</code> being stored at index <code>x * height + y</code>.
+     */
+    BingoTile[] optimize(LayoutScorer scorer, List<BingoTile> tiles, Random random);
+
+    /**
+     * Used by the {@link ParallelLayoutOptimizer} to share the work of a single search between its restarts.
+     *
+     * @param parts The amount of searches to share the work between.
+     * @return An optimizer that does about the given part of the work of this one. By default this optimizer itself,
+     * so every restart does the full work.
+     */
+    default LayoutOptimizer split(int parts) {
+        return this;
+    }
+
+    /**
+     * Used by the {@link de.yanwittmann.bingo.generator.BingoGenerator} to keep the layout within what is left of the
+     * {@link de.yanwittmann.bingo.generator.GenerationBudget} of the board.
+     *
+     * @param timeBudget The time after which the search should stop even if it is not done.
+     * @return An optimizer that stops once the time budget is used up, always returning a complete layout. By default
+     * this optimizer itself, which ignores the budget.
+     */
+    default LayoutOptimizer withTimeBudget(Duration timeBudget) {
+        return this;
+    }
+
+    LayoutOptimizer SHUFFLE = new ShuffleLayoutOptimizer(1000);
+    LayoutOptimizer SWAP = new SwapLayoutOptimizer();
+
+    static LayoutOptimizer forName(String name) {
+        if (SHUFFLE.getName().equalsIgnoreCase(name)) return SHUFFLE;
+        if (SWAP.getName().equalsIgnoreCase(name)) return SWAP;
+        throw new IllegalArgumentException("Unknown layout optimizer: " + name);
+    }
+}
@@ -0,0 +1,328 @@
+package de.yanwittmann.bingo;
+
+import de.yanwittmann.bingo.generator.Category;
+
+import java.util.*;
+
+/**
+ * Scores the layout of tiles on a board of a fixed size.<br>
+ * A layout is an array of tiles, the tile at <code>(x, y)</code> is stored at index <code>x * height + y</code>.
+ * The score rewards synergies and punishes antisynergies between tiles in the same line (columns, rows and diagonals)
+ * and rewards boards that get more difficult from the center to the outer rings. The higher, the better.<br>
+ * The lines and rings come from the {@link BoardGeometry} of the board size. For every line and category, the positions
+ * in the line that have a tile with that category are kept as a bitboard, so checking a line for synergies and
+ * antisynergies only intersects bitboards instead of comparing the categories of all tiles in the line.<br>
+ * A scorer can either score any layout from scratch with {@link #score(BingoTile[])} or hold a current layout, where
+ * {@link #swap(int, int)} only updates the bitboards of and rescores the lines and rings that contain the swapped cells.<br>
+ * Scorers are not thread safe, use {@link #copy()} to get a scorer for another thread.
+ */
+public final class LayoutScorer {
+
+    private final BoardGeometry geometry;
+    private final int categoryCount;
+    private final int wordsPerCategory;
+    private final int wordsPerLine;
+
+    private final int[][] synergies;
+    private final int[][] antisynergies;
+    private final Map<BingoTile, int[]> tileCategories = new IdentityHashMap<>();
+
+    private BingoTile[] cells;
+    private int[][] cellCategories;
+    private long[] occupancy;
+    private int[] lineScores;
+    private double[] layerDifficulties;
+    private int lineScore;
+    private int score;
+    private int[] lineStamps;
+    private int stamp = 0;
+    private long evaluations = 0;
+
+    // buffers of score(BingoTile[]), reused for every scored layout
+    private int[][] scoreCategories;
+    private long[] scoreOccupancy;
+    private double[] scoreLayerDifficulties;
+
+    /**
+     * @param width      The width of the board.
+     * @param height     The height of the board.
+     * @param categories The categories to check the antisynergies and synergies of.
+     * @param tiles      All tiles that may be placed on the board.
+     */
+    public LayoutScorer(int width, int height, List<Category> categories, Collection<BingoTile> tiles) {
+        this.geometry = BoardGeometry.of(width, height);
+        this.categoryCount = categories.size();
+        this.wordsPerCategory = (geometry.getMaxLineLength() + 63) >>> 6;
+        this.wordsPerLine = categoryCount * wordsPerCategory;
+
+        Map<Category, Integer> positions = new HashMap<>();
+        for (int i = 0; i < categories.size(); i++) {
+            positions.putIfAbsent(categories.get(i), i);
+        }
+        this.synergies = new int[categoryCount][];
+        this.antisynergies = new int[categoryCount][];
+        for (int i = 0; i < categoryCount; i++) {
+            synergies[i] = toIndices(categories.get(i).getSynergies(), positions);
+            antisynergies[i] = toIndices(categories.get(i).getAntisynergy(), positions);
+        }
+        for (BingoTile tile : tiles) {
+            tileCategories.put(tile, toIndices(tile.getCategories(), positions));
+        }
+    }
+
+    private LayoutScorer(LayoutScorer other) {
+        this.geometry = other.geometry;
+        this.categoryCount = other.categoryCount;
+        this.wordsPerCategory = other.wordsPerCategory;
+        this.wordsPerLine = other.wordsPerLine;
+        this.synergies = other.synergies;
+        this.antisynergies = other.antisynergies;
+        this.tileCategories.putAll(other.tileCategories);
+    }
+
+    /**
+     * A scorer holds the state of its current layout and can only be used by one thread at a time.
+     *
+     * @return A scorer for the same board and tiles without a current layout, that can be used by another thread.
+     */
+    public LayoutScorer copy() {
+        return new LayoutScorer(this);
+    }
+
+    /**
+     * @return The distinct positions of the categories in the category list, in ascending order.
+     */
+    private static int[] toIndices(List<Category> categories, Map<Category, Integer> positions) {
+        return categories.stream().map(positions::get).filter(Objects::nonNull).mapToInt(Integer::intValue).distinct().sorted().toArray();
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    public int getWidth() {
+        return geometry.getWidth();
+    }
+
+    public int getHeight() {
+        return geometry.getHeight();
+    }
+
+    public int getCellCount() {
+        return geometry.getCellCount();
+    }
+
+    /**
+     * Scores the layout from scratch, without changing the current layout of this scorer. Does not allocate after the
+     * first call.
+     *
+     * @param layout The layout to score.
+     * @return The score of the layout. The higher, the better.
+     */
+    public int score(BingoTile[] layout) {
+        if (scoreCategories == null) {
+            scoreCategories = new int[geometry.getCellCount()][];
+            scoreOccupancy = new long[geometry.getLineCount() * wordsPerLine];
+            scoreLayerDifficulties = new double[geometry.getLayerCount()];
+        }
+        long[] occupancy = occupancyOf(categoriesOf(layout, scoreCategories), scoreOccupancy);
+        evaluations++;
+        int score = 0;
+        for (int line = 0; line < geometry.getLineCount(); line++) {
+            score += scoreLine(line, occupancy);
+        }
+        double[] layerDifficulties = scoreLayerDifficulties;
+        for (int layer = 0; layer < layerDifficulties.length; layer++) {
+            layerDifficulties[layer] = layerDifficulty(layer, layout);
+        }
+        return score + scoreLayers(layerDifficulties);
+    }
+
+    /**
+     * Sets the current layout of this scorer. The array is used directly, {@link #swap(int, int)} swaps its cells.
+     *
+     * @return The score of the layout.
+     */
+    public int reset(BingoTile[] layout) {
+        this.cells = layout;
+        this.cellCategories = categoriesOf(layout, new int[layout.length][]);
+        evaluations++;
+        this.occupancy = occupancyOf(cellCategories, new long[geometry.getLineCount() * wordsPerLine]);
+        this.lineScores = new int[geometry.getLineCount()];
+        this.lineStamps = new int[geometry.getLineCount()];
+        this.lineScore = 0;
+        for (int line = 0; line < lineScores.length; line++) {
+            lineScores[line] = scoreLine(line, occupancy);
+            lineScore += lineScores[line];
+        }
+        this.layerDifficulties = new double[geometry.getLayerCount()];
+        for (int layer = 0; layer < layerDifficulties.length; layer++) {
+            layerDifficulties[layer] = layerDifficulty(layer, cells);
+        }
+        this.score = lineScore + scoreLayers(layerDifficulties);
+        return score;
+    }
+
+    /**
+     * Swaps two cells of the current layout and rescores the lines and rings that contain them. Swapping the same cells
+     * again restores the previous layout.
+     *
+     * @return The score of the layout after the swap.
+     */
+    public int swap(int a, int b) {
+        if (cells == null) {
+            throw new IllegalStateException("No layout set, call reset first");
+        }
+        if (a == b) return score;
+        evaluations++;
+        BingoTile tile = cells[a];
+        cells[a] = cells[b];
+        cells[b] = tile;
+        int[] categoriesA = cellCategories[a], categoriesB = cellCategories[b];
+        cellCategories[a] = categoriesB;
+        cellCategories[b] = categoriesA;
+        replaceOccupancy(occupancy, a, categoriesA, categoriesB);
+        replaceOccupancy(occupancy, b, categoriesB, categoriesA);
+
+        stamp++;
+        rescoreLines(geometry.getLinesOfCell(a));
+        rescoreLines(geometry.getLinesOfCell(b));
+
+        // even within the same ring the order of the summands changes, which may change the rounding of the sum
+        int layerA = geometry.getLayerOfCell(a), layerB = geometry.getLayerOfCell(b);
+        layerDifficulties[layerA] = layerDifficulty(layerA, cells);
+        if (layerA != layerB) layerDifficulties[layerB] = layerDifficulty(layerB, cells);
+        score = lineScore + scoreLayers(layerDifficulties);
+        return score;
+    }
+
+    private void rescoreLines(int[] affectedLines) {
+        for (int line : affectedLines) {
+            if (lineStamps[line] == stamp) continue;
+            lineStamps[line] = stamp;
+            int lineScore = scoreLine(line, occupancy);
+            this.lineScore += lineScore - lineScores[line];
+            lineScores[line] = lineScore;
+        }
+    }
+
+    /**
+     * @return The score of the current layout.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return The amount of layouts scored by this scorer, counting every call of {@link #score(BingoTile[])},
+     * {@link #reset(BingoTile[])} and {@link #swap(int, int)} that rescored the layout.
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Adds the evaluations of a copy of this scorer, see {@link #copy()}.
+     */
+    void addEvaluations(long evaluations) {
+        this.evaluations += evaluations;
+    }
+
+    private int[][] categoriesOf(BingoTile[] layout, int[][] categories) {
+        if (layout.length != geometry.getCellCount()) {
+            throw new IllegalArgumentException("Layout has [" + layout.length + "] cells, expected [" + geometry.getCellCount() + "]");
+        }
+        for (int i = 0; i < layout.length; i++) {
+            categories[i] = tileCategories.get(layout[i]);
+            if (categories[i] == null) {
+                throw new IllegalArgumentException("Tile is not part of the tiles of this scorer: " + layout[i]);
+            }
+        }
+        return categories;
+    }
+
+    private long[] occupancyOf(int[][] cellCategories, long[] occupancy) {
+        Arrays.fill(occupancy, 0);
+        for (int cell = 0; cell < cellCategories.length; cell++) {
+            replaceOccupancy(occupancy, cell, null, cellCategories[cell]);
+        }
+        return occupancy;
+    }
+
+    private void replaceOccupancy(long[] occupancy, int cell, int[] removed, int[] added) {
+        int[] lines = geometry.getLinesOfCell(cell);
+        int[] positions = geometry.getPositionsOfCell(cell);
+        for (int i = 0; i < lines.length; i++) {
+            int base = lines[i] * wordsPerLine + (positions[i] >>> 6);
+            long bit = 1L << positions[i];
+            if (removed != null) {
+                for (int category : removed) occupancy[base + category * wordsPerCategory] &= ~bit;
+            }
+            for (int category : added) occupancy[base + category * wordsPerCategory] |= bit;
+        }
+    }
+
+    /**
+     * For every category in the line, the first tile with that category is checked against all other tiles in the line:
+     * every antisynergy category among them costs 10 points, every synergy category gives 4 points.
+     */
+    private int scoreLine(int line, long[] occupancy) {
+        int base = line * wordsPerLine;
+        int score = 0;
+        for (int category = 0; category < categoryCount; category++) {
+            int first = firstPosition(occupancy, base + category * wordsPerCategory);
+            if (first == -1) continue;
+            // check for antisynergies
+            for (int antisynergy : antisynergies[category]) {
+                if (hasOtherPosition(occupancy, base + antisynergy * wordsPerCategory, first)) score -= 10;
+            }
+            // check for synergies
+            for (int synergy : synergies[category]) {
+                if (hasOtherPosition(occupancy, base + synergy * wordsPerCategory, first)) score += 4;
+            }
+        }
+        return score;
+    }
+
+    private int firstPosition(long[] occupancy, int offset) {
+        for (int word = 0; word < wordsPerCategory; word++) {
+            long bits = occupancy[offset + word];
+            if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+        return -1;
+    }
+
+    private boolean hasOtherPosition(long[] occupancy, int offset, int excluded) {
+        int excludedWord = excluded >>> 6;
+        for (int word = 0; word < wordsPerCategory; word++) {
+            long bits = occupancy[offset + word];
+            if (word == excludedWord) bits &= ~(1L << excluded);
+            if (bits != 0) return true;
+        }
+        return false;
+    }
+
+    private double layerDifficulty(int layer, BingoTile[] layout) {
+        int[] layerCells = geometry.getCellsOfLayer(layer);
+        double total = 0;
+        for (int cell : layerCells) {
+            total += layout[cell].getDifficulty();
+        }
+        return total / layerCells.length;
+    }
+
+    /**
+     * Gives points for having a larger difficulty on outer layers compared to inner layers (circles).
+     */
+    private static int scoreLayers(double[] layerDifficulties) {
+        int score = 0;
+        for (int i = 0; i < layerDifficulties.length - 1; i++) {
+            if (layerDifficulties[i] <= layerDifficulties[i + 1]) {
+                score += 5;
+            } else {
+                score -= 2;
+            }
+        }
+        return score;
+    }
+}
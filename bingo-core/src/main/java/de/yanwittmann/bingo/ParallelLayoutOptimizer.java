@@ -0,0 +1,116 @@
+package de.yanwittmann.bingo;
+
+import de.yanwittmann.bingo.generator.BingoGenerator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs several independent restarts of another layout optimizer on an executor and keeps the best layout.<br>
+ * The restarts share the work of a single run of the optimizer, see {@link LayoutOptimizer#split(int)}: with four restarts
+ * of a swap search of 20 iterations per cell, every restart does 5 iterations per cell. Spread over as many threads as
+ * restarts, the search takes about the wall-clock time of a single run divided by the restarts, at the price of several
+ * shorter searches instead of a long one.<br>
+ * Only a single <code>nextLong()</code> is drawn from the random of the caller. Every restart gets its own random seeded
+ * with {@link BingoGenerator#deriveBoardSeed(long, int)} of that value and its index. The best layout is the one with the
+ * highest score, ties going to the lowest restart index, so the result only depends on the seed and not on the executor or
+ * the order in which the restarts finish.
+ */
+public class ParallelLayoutOptimizer implements LayoutOptimizer {
+
+    private final LayoutOptimizer delegate;
+    private final LayoutOptimizer restartOptimizer;
+    private final int restarts;
+    private final Executor executor;
+
+    /**
+     * The executor is not shared with the board generation on purpose: the boards of
+     * {@link BingoGenerator#generateBingoBoards(int, long, int)} already keep every thread of the batch busy, so a batch
+     * should either use <code>Runnable::run</code> or an executor of its own.
+     *
+     * @param delegate The optimizer whose work the restarts share.
+     * @param restarts The amount of independent restarts.
+     * @param executor The executor to run the restarts on.
+     */
+    public ParallelLayoutOptimizer(LayoutOptimizer delegate, int restarts, Executor executor) {
+        if (delegate == null || executor == null) {
+            throw new IllegalArgumentException("Delegate and executor must not be null");
+        }
+        if (restarts < 1) {
+            throw new IllegalArgumentException("Restarts must be at least 1: " + restarts);
+        }
+        this.delegate = delegate;
+        this.restartOptimizer = delegate.split(restarts);
+        this.restarts = restarts;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getName() {
+        return "parallel-" + delegate.getName();
+    }
+
+    @Override
+    public BingoTile[] optimize(LayoutScorer scorer, List<BingoTile> tiles, Random random) {
+        long seed = random.nextLong();
+        List<CompletableFuture<Result>> futures = new ArrayList<>(restarts);
+        for (int i = 0; i < restarts; i++) {
+            int restart = i;
+            LayoutScorer restartScorer = scorer.copy();
+            List<BingoTile> restartTiles = new ArrayList<>(tiles);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                BingoTile[] layout = restartOptimizer.optimize(restartScorer, restartTiles, new Random(BingoGenerator.deriveBoardSeed(seed, restart)));
+                return new Result(layout, restartScorer.score(layout), restartScorer.getEvaluations());
+            }, executor));
+        }
+
+        Result best = null;
+        for (CompletableFuture<Result> future : futures) {
+            Result result;
+            try {
+                result = future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw e;
+            }
+            scorer.addEvaluations(result.evaluations);
+            if (best == null || result.score > best.score) {
+                best = result;
+            }
+        }
+        return best.layout;
+    }
+
+    /**
+     * @return An optimizer with the same restarts whose restarts all stop after the time budget.
+     */
+    @Override
+    public LayoutOptimizer withTimeBudget(Duration timeBudget) {
+        return new ParallelLayoutOptimizer(delegate.withTimeBudget(timeBudget), restarts, executor);
+    }
+
+    public LayoutOptimizer getDelegate() {
+        return delegate;
+    }
+
+    public int getRestarts() {
+        return restarts;
+    }
+
+    private static class Result {
+        private final BingoTile[] layout;
+        private final int score;
+        private final long evaluations;
+
+        private Result(BingoTile[] layout, int score, long evaluations) {
+            this.layout = layout;
+            this.score = score;
+            this.evaluations = evaluations;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package de.yanwittmann.bingo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The original layout search: shuffles the tiles a fixed amount of times and keeps the best scored layout.<br>
+ * The tiles list is shuffled in place. Every trial is copied into the same layout array, only the best layout is kept in
+ * a second array. If a time budget is set, the search stops once it is used up, but always scores at least one layout.
+ */
+public class ShuffleLayoutOptimizer implements LayoutOptimizer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShuffleLayoutOptimizer.class);
+
+    private final int trials;
+    private final Duration timeBudget;
+
+    public ShuffleLayoutOptimizer(int trials) {
+        this(trials, null);
+    }
+
+    /**
+     * @param trials     The amount of shuffled layouts to score.
+     * @param timeBudget The time after which the search stops even if not all trials are done, or <code>null</code>.
+     */
+    public ShuffleLayoutOptimizer(int trials, Duration timeBudget) {
+        if (trials < 1) {
+            throw new IllegalArgumentException("Trials must be at least 1: " + trials);
+        }
+        this.trials = trials;
+        this.timeBudget = timeBudget;
+    }
+
+    @Override
+    public String getName() {
+        return "shuffle";
+    }
+
+    @Override
+    public BingoTile[] optimize(LayoutScorer scorer, List<BingoTile> tiles, Random random) {
+        int bestScore = Integer.MIN_VALUE;
+        BingoTile[] layout = new BingoTile[tiles.size()];
+        BingoTile[] bestLayout = new BingoTile[tiles.size()];
+        long deadline = timeBudget == null ? Long.MAX_VALUE : System.nanoTime() + timeBudget.toNanos();
+        for (int i = 0; i < trials; i++) {
+            if (timeBudget != null && i > 0 && (i & 15) == 0 && System.nanoTime() >= deadline) break;
+            Collections.shuffle(tiles, random);
+            tiles.toArray(layout);
+            int score = scorer.score(layout);
+            if (score > bestScore) {
+                bestScore = score;
+                System.arraycopy(layout, 0, bestLayout, 0, layout.length);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("New best score [{}]", bestScore);
+                }
+            }
+        }
+        return bestLayout;
+    }
+
+    /**
+     * @return An optimizer with the trials divided between the parts, rounded up. The time budget stays the same, as the
+     * parts run at the same time.
+     */
+    @Override
+    public LayoutOptimizer split(int parts) {
+        return parts <= 1 ? this : new ShuffleLayoutOptimizer((trials + parts - 1) / parts, timeBudget);
+    }
+
+    /**
+     * @return An optimizer with the same trials that stops after the given time budget, or the current one if it is shorter.
+     */
+    @Override
+    public LayoutOptimizer withTimeBudget(Duration timeBudget) {
+        return new ShuffleLayoutOptimizer(trials, this.timeBudget == null || timeBudget.compareTo(this.timeBudget) < 0 ? timeBudget : this.timeBudget);
+    }
+
+    public int getTrials() {
+        return trials;
+    }
+
+    public Duration getTimeBudget() {
+        return timeBudget;
+    }
+}
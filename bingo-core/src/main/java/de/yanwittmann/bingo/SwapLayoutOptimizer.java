@@ -0,0 +1,132 @@
+package de.yanwittmann.bingo;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Local search over pairwise swaps, starting from a shuffled layout.<br>
+ * Every step swaps two random cells and only rescores the lines and rings that contain them. Better layouts are always
+ * kept, worse ones are kept with a chance of <code>exp(delta / temperature)</code>, the temperature cooling down
+ * geometrically from the initial to the final temperature. An initial temperature of <code>0</code> turns the search into
+ * a plain hill climb. The search stops after the amount of iterations or, if set, once the time budget is used up.
+ */
+public class SwapLayoutOptimizer implements LayoutOptimizer {
+
+    private final int iterationsPerCell;
+    private final double initialTemperature;
+    private final double finalTemperature;
+    private final Duration timeBudget;
+
+    public SwapLayoutOptimizer() {
+        this(20, 8, 0.1, null);
+    }
+
+    /**
+     * @param iterationsPerCell  The amount of swaps per cell of the board.
+     * @param initialTemperature The temperature of the first swap, <code>0</code> for a hill climb.
+     * @param finalTemperature   The temperature of the last swap.
+     * @param timeBudget         The time after which the search stops even if not all iterations are done, or <code>null</code>.
+     */
+    public SwapLayoutOptimizer(int iterationsPerCell, double initialTemperature, double finalTemperature, Duration timeBudget) {
+        if (iterationsPerCell < 0) {
+            throw new IllegalArgumentException("Iterations per cell must not be negative: " + iterationsPerCell);
+        }
+        if (initialTemperature < 0 || finalTemperature < 0 || (initialTemperature > 0 && finalTemperature == 0) || finalTemperature > initialTemperature) {
+            throw new IllegalArgumentException("Temperatures must cool down to a positive temperature or both be 0: " + initialTemperature + " -> " + finalTemperature);
+        }
+        this.iterationsPerCell = iterationsPerCell;
+        this.initialTemperature = initialTemperature;
+        this.finalTemperature = finalTemperature;
+        this.timeBudget = timeBudget;
+    }
+
+    public static SwapLayoutOptimizer hillClimb(int iterationsPerCell) {
+        return new SwapLayoutOptimizer(iterationsPerCell, 0, 0, null);
+    }
+
+    @Override
+    public String getName() {
+        return "swap";
+    }
+
+    @Override
+    public BingoTile[] optimize(LayoutScorer scorer, List<BingoTile> tiles, Random random) {
+        BingoTile[] layout = tiles.toArray(new BingoTile[0]);
+        shuffle(layout, random);
+        int score = scorer.reset(layout);
+        int bestScore = score;
+        BingoTile[] bestLayout = layout.clone();
+
+        int cells = layout.length;
+        if (cells < 2) return bestLayout;
+        long iterations = (long) iterationsPerCell * cells;
+        long deadline = timeBudget == null ? Long.MAX_VALUE : System.nanoTime() + timeBudget.toNanos();
+        double cooling = initialTemperature > 0 && iterations > 1 ? Math.pow(finalTemperature / initialTemperature, 1.0 / (iterations - 1)) : 1.0;
+        double temperature = initialTemperature;
+
+        for (long i = 0; i < iterations; i++, temperature *= cooling) {
+            if (timeBudget != null && (i & 63) == 0 && System.nanoTime() >= deadline) break;
+            int a = random.nextInt(cells);
+            int b = random.nextInt(cells - 1);
+            if (b >= a) b++;
+
+            int newScore = scorer.swap(a, b);
+            int delta = newScore - score;
+            if (delta >= 0 || (temperature > 0 && random.nextDouble() < Math.exp(delta / temperature))) {
+                score = newScore;
+                if (score > bestScore) {
+                    bestScore = score;
+                    System.arraycopy(layout, 0, bestLayout, 0, cells);
+                }
+            } else {
+                scorer.swap(a, b);
+            }
+        }
+        return bestLayout;
+    }
+
+    /**
+     * @return An optimizer with the iterations divided between the parts, rounded up. The temperatures and the time
+     * budget stay the same, as the parts run at the same time.
+     */
+    @Override
+    public LayoutOptimizer split(int parts) {
+        return parts <= 1 ? this : new SwapLayoutOptimizer((iterationsPerCell + parts - 1) / parts, initialTemperature, finalTemperature, timeBudget);
+    }
+
+    /**
+     * @return An optimizer with the same iterations and temperatures that stops after the given time budget, or the
+     * current one if it is shorter.
+     */
+    @Override
+    public LayoutOptimizer withTimeBudget(Duration timeBudget) {
+        return new SwapLayoutOptimizer(iterationsPerCell, initialTemperature, finalTemperature,
+                this.timeBudget == null || timeBudget.compareTo(this.timeBudget) < 0 ? timeBudget : this.timeBudget);
+    }
+
+    private static void shuffle(BingoTile[] layout, Random random) {
+        for (int i = layout.length; i > 1; i--) {
+            int j = random.nextInt(i);
+            BingoTile tile = layout[i - 1];
+            layout[i - 1] = layout[j];
+            layout[j] = tile;
+        }
+    }
+
+    public int getIterationsPerCell() {
+        return iterationsPerCell;
+    }
+
+    public double getInitialTemperature() {
+        return initialTemperature;
+    }
+
+    public double getFinalTemperature() {
+        return finalTemperature;
+    }
+
+    public Duration getTimeBudget() {
+        return timeBudget;
+    }
+}
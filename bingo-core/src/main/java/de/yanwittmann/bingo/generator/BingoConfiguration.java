@@ -6,13 +6,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.*;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class BingoConfiguration {
 
@@ -20,34 +15,112 @@ public class BingoConfiguration {
 
     private BingoBoardMetadata boardMetadata;
     private final List<TileGenerator> tileGenerators = new ArrayList<>();
-    private final Map<Difficulty, List<TileGenerator>> tileGeneratorsByDifficulty = new HashMap<>();
     private final Map<String, List<TextSnippet>> textSnippets = new HashMap<>();
     private final Map<String, ValueProvider> numberValueProviders = new HashMap<>();
     private final List<Category> categories = new ArrayList<>();
     private final List<Difficulty> difficulties = new ArrayList<>();
+    private CompiledBingoConfiguration compiled;
+    private String sourceHash;
 
     public BingoConfiguration(File file) throws FileNotFoundException {
         parse(new Yaml().load(new FileInputStream(file)));
     }
 
+    BingoConfiguration(byte[] yaml, String sourceHash) {
+        this.sourceHash = sourceHash;
+        parse(new Yaml().load(new ByteArrayInputStream(yaml)));
+    }
+
+    BingoConfiguration(BingoBoardMetadata boardMetadata, List<TileGenerator> tileGenerators, Map<String, List<TextSnippet>> textSnippets,
+                       Map<String, ValueProvider> numberValueProviders, List<Category> categories, List<Difficulty> difficulties, String sourceHash) {
+        this.boardMetadata = boardMetadata;
+        this.tileGenerators.addAll(tileGenerators);
+        this.textSnippets.putAll(textSnippets);
+        this.numberValueProviders.putAll(numberValueProviders);
+        this.categories.addAll(categories);
+        this.difficulties.addAll(difficulties);
+        this.sourceHash = sourceHash;
+        finishLoading();
+    }
+
+    /**
+     * Loads the configuration from the yaml file, using the binary snapshot of the configuration in the snapshot directory
+     * if there is one for the current content of the file.<br>
+     * The snapshot is keyed by the SHA-256 hash of the yaml file, a missing, outdated or unreadable snapshot is replaced
+     * after the yaml file has been parsed. The snapshot directory is created if it does not exist.
+     *
+     * @param file              The yaml configuration file.
+     * @param snapshotDirectory The directory to store the snapshots in.
+     * @return The loaded configuration.
+     * @throws IOException If the yaml file cannot be read.
+     */
+    public static BingoConfiguration load(File file, File snapshotDirectory) throws IOException {
+        return ConfigurationSnapshot.load(file, snapshotDirectory);
+    }
+
+    /**
+     * Writes a binary snapshot of this configuration that can be read with {@link #readSnapshot(InputStream)}.
+     */
+    public void writeSnapshot(OutputStream out) throws IOException {
+        ConfigurationSnapshot.write(this, out);
+    }
+
+    /**
+     * @throws IOException If the stream does not contain a snapshot of the current format.
+     */
+    public static BingoConfiguration readSnapshot(InputStream in) throws IOException {
+        return ConfigurationSnapshot.read(in);
+    }
+
+    /**
+     * @return The SHA-256 hash of the yaml file this configuration was loaded from using {@link #load(File, File)},
+     * <code>null</code> if it was loaded differently.
+     */
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    /**
+     * @return The configuration the way it was loaded, before it was compiled.
+     */
+    List<TileGenerator> getLoadedTileGenerators() {
+        return tileGenerators;
+    }
+
+    Map<String, List<TextSnippet>> getLoadedTextSnippets() {
+        return textSnippets;
+    }
+
+    Map<String, ValueProvider> getLoadedValueProviders() {
+        return numberValueProviders;
+    }
+
+    List<Category> getLoadedCategories() {
+        return categories;
+    }
+
+    List<Difficulty> getLoadedDifficulties() {
+        return difficulties;
+    }
+
     public BingoBoardMetadata getBoardMetadata() {
         return boardMetadata;
     }
 
     public List<TileGenerator> getTileGenerators() {
-        return tileGenerators;
+        return compiled.getTileGenerators();
     }
 
     public Map<String, List<TextSnippet>> getTextSnippets() {
-        return textSnippets;
+        return compiled.getTextSnippets();
     }
 
     public List<Category> getCategories() {
-        return categories;
+        return compiled.getCategories();
     }
 
     public List<Difficulty> getDifficulties() {
-        return difficulties;
+        return compiled.getDifficulties();
     }
 
     private void parse(Object rootObject) {
@@ -101,7 +174,7 @@ public class BingoConfiguration {
                         if (optionObject instanceof Map) {
                             Map<String, Object> optionMap = (Map<String, Object>) optionObject;
                             if (TileGenerator.validate(optionMap)) {
-                                tileGenerators.add(new TileGenerator(optionMap, categories, textSnippets));
+                                tileGenerators.add(new TileGenerator(optionMap, categories));
                             }
                         }
                     }
@@ -139,352 +212,54 @@ public class BingoConfiguration {
             }
         }
 
-        tileGeneratorsByDifficulty.clear();
-        for (TileGenerator tileGenerator : tileGenerators) {
-            if (tileGenerator.getDifficulties().isEmpty()) {
-                for (Difficulty difficulty : difficulties) {
-                    tileGeneratorsByDifficulty.computeIfAbsent(difficulty, k -> new ArrayList<>()).add(tileGenerator);
-                }
-            } else {
-                for (String difficulty : tileGenerator.getDifficulties()) {
-                    tileGeneratorsByDifficulty.computeIfAbsent(getDifficulty(difficulty), k -> new ArrayList<>()).add(tileGenerator);
-                }
-            }
-        }
+        SnippetReferenceGraph.assign(textSnippets, tileGenerators);
 
-        for (Map.Entry<String, List<TextSnippet>> snippet : textSnippets.entrySet()) {
-            for (TextSnippet textSnippet : snippet.getValue()) {
-                textSnippet.deriveSnippetCategories(snippet.getKey(), textSnippets);
-            }
-        }
+        finishLoading();
+    }
 
+    private void finishLoading() {
         LOG.info("Loaded [{}] tile generators", tileGenerators.size());
         LOG.info("Loaded [{}] text snippet types with a total of [{}] snippets", textSnippets.size(), textSnippets.values().stream().mapToInt(List::size).sum());
         LOG.info("Loaded [{}] value providers", numberValueProviders.size());
         LOG.info("Loaded [{}] categories", categories.size());
         LOG.info("Loaded [{}] difficulty levels", difficulties.size());
+
+        compiled = new CompiledBingoConfiguration(boardMetadata, tileGenerators, textSnippets, numberValueProviders, categories, difficulties);
+    }
+
+    /**
+     * @return The frozen snapshot of this configuration that is used for generating tiles.
+     */
+    public CompiledBingoConfiguration compile() {
+        return compiled;
     }
 
     public double getDifficultyForLevel(int level) {
-        if (difficulties.isEmpty()) return 1.0;
-        if (difficulties.size() < level) level = difficulties.size();
-        return difficulties.get(level - 1).getScore();
+        return compiled.getDifficultyForLevel(level);
     }
 
     public double getDifficultyForLevel(String level) {
-        return difficulties.stream().filter(d -> d.getName().equalsIgnoreCase(level)).findFirst().map(Difficulty::getScore).orElse(1.0);
+        return compiled.getDifficultyForLevel(level);
     }
 
     public Map<Category, Integer> countCategories(List<BingoTile> tiles) {
-        Map<Category, Integer> counts = new HashMap<>();
-        for (BingoTile tile : tiles) {
-            for (Category category : tile.getCategories()) {
-                counts.compute(category, (k, v) -> v == null ? 1 : v + 1);
-            }
-        }
-        for (Category category : categories) {
-            counts.putIfAbsent(category, 0);
-        }
-        return counts;
+        return compiled.countCategories(tiles);
     }
 
     public BingoTile generateTile(List<BingoTile> existingTiles, int destAmount, double destinationDifficulty, Random random) {
-        List<TileGenerator> allowedTileGeneratorsByDifficulty;
-        if (destinationDifficulty != -1) {
-            allowedTileGeneratorsByDifficulty = tileGeneratorsByDifficulty.getOrDefault(getDifficulty(destinationDifficulty), new ArrayList<>());
-            if (allowedTileGeneratorsByDifficulty.size() == 0) {
-                LOG.warn("No tile generators found for difficulty [{}], using all generators", destinationDifficulty);
-                allowedTileGeneratorsByDifficulty = new ArrayList<>(tileGenerators);
-            }
-        } else {
-            allowedTileGeneratorsByDifficulty = new ArrayList<>(tileGenerators);
-        }
-
-        // find what categories are allowed and not allowed in the existing tiles
-        Map<Category, Integer> categoryCount = countCategories(existingTiles);
-        Set<Category> createdMustBeCategories = new HashSet<>();
-        Set<Category> createdMayNotBeCategories = new HashSet<>();
-        for (Map.Entry<Category, Integer> category : categoryCount.entrySet()) {
-            double min = Math.max(category.getKey().getMinAbsolute(), category.getKey().getMinRelative() * 0.01 * destAmount);
-            double max = Math.ceil(Math.min(category.getKey().getMaxAbsolute(), category.getKey().getMaxRelative() * 0.01 * destAmount));
-            int currentCount = category.getValue();
-            if (currentCount < min) {
-                createdMustBeCategories.add(category.getKey());
-            } else if (currentCount >= max) {
-                createdMayNotBeCategories.add(category.getKey());
-            }
-        }
-
-        List<TileGenerator> filteredTileGenerators = new ArrayList<>(allowedTileGeneratorsByDifficulty);
-        // remove all tile generators that are not the right difficulty level
-        if (destinationDifficulty != -1 && difficulties.size() > 0) {
-            Difficulty destDiff = getDifficulty(destinationDifficulty);
-            for (int i = filteredTileGenerators.size() - 1; i >= 0; i--) {
-                List<String> difficulties = filteredTileGenerators.get(i).getDifficulties();
-                if (difficulties.size() > 0 && !difficulties.contains(destDiff.getName())) {
-                    filteredTileGenerators.remove(i);
-                }
-            }
-        }
-        // remove all tile generators that do not match the must-be categories
-        if (!createdMustBeCategories.isEmpty()) {
-            for (int i = filteredTileGenerators.size() - 1; i >= 0; i--) {
-                TileGenerator tileGenerator = filteredTileGenerators.get(i);
-                Set<Category> derivedCategories = tileGenerator.getDerivedCategories();
-                if (!tileGenerator.containsAnyCategory(createdMustBeCategories) && derivedCategories.stream().noneMatch(createdMustBeCategories::contains)) {
-                    filteredTileGenerators.remove(i);
-                }
-            }
-        }
-        // remove all tile generators that match the may-not-be categories
-        if (!createdMayNotBeCategories.isEmpty()) {
-            for (int i = filteredTileGenerators.size() - 1; i >= 0; i--) {
-                TileGenerator tileGenerator = filteredTileGenerators.get(i);
-                if (tileGenerator.containsAnyCategory(createdMayNotBeCategories)) {
-                    filteredTileGenerators.remove(i);
-                }
-            }
-        }
-
-        if (filteredTileGenerators.isEmpty()) {
-            filteredTileGenerators = new ArrayList<>(allowedTileGeneratorsByDifficulty);
-            //LOG.warn("No generator for categories [MUST {}] [CANNOT {}], using all [{}]", createdMustBeCategories, createdMayNotBeCategories, allowedTileGeneratorsByDifficulty.size());
-        }
-        TileGenerator selectedGenerator = getRandom(filteredTileGenerators, random);
-        String text = selectedGenerator.getText();
-        StringJoiner tooltips = new StringJoiner("\n");
-        if (selectedGenerator.getTooltip() != null) tooltips.add(selectedGenerator.getTooltip());
-
-        String currentClosestText = null;
-        double currentClosestDifficulty = Double.MAX_VALUE;
-        String currentClosestTooltips = null;
-        Set<Category> bestTileCategories = new HashSet<>();
-        int repeatCount = 0;
-        int maxAttempts = destinationDifficulty == -1 ? 1 : 3;
-        for (int i = 0; i < maxAttempts; i++) { // try finding a better tile 3 times
-            AtomicReference<Double> currentDifficulty = new AtomicReference<>(selectedGenerator.getDifficulty());
-            Set<Category> currentTileCategories = new HashSet<>();
-            StringJoiner currentTooltips = new StringJoiner("\n");
-            String tmp = insertSnippets(text, createdMustBeCategories, createdMayNotBeCategories, currentDifficulty, destinationDifficulty, currentTileCategories, currentTooltips, random);
-
-            if (destinationDifficulty != -1) {
-                if (repeatCount < 40) {
-                    if (hasAntisynergies(currentTileCategories, selectedGenerator.getCategories()) || doesTileAlreadyExist(tmp, existingTiles)) {
-                        repeatCount++;
-                        i--;
-                        continue;
-                    }
-                }
-            }
-            double currentDistance = Math.abs(currentDifficulty.get() - destinationDifficulty);
-            double currentClosestDistance = Math.abs(currentClosestDifficulty - destinationDifficulty);
-            if (currentDistance < currentClosestDistance) {
-                currentClosestText = tmp;
-                currentClosestDifficulty = currentDifficulty.get();
-                bestTileCategories = currentTileCategories;
-                currentClosestTooltips = currentTooltips.toString();
-            }
-        }
-        if (currentClosestText != null) {
-            text = currentClosestText;
-            currentClosestDifficulty -= selectedGenerator.getDifficulty();
-        }
-        if (currentClosestTooltips != null && !currentClosestTooltips.isEmpty()) {
-            tooltips.add(currentClosestTooltips);
-        }
-
-        BingoTile bingoTile = new BingoTile(text, tooltips.toString(), currentClosestDifficulty + selectedGenerator.getDifficulty());
-        selectedGenerator.getCategories().forEach(bingoTile::addCategory);
-        bestTileCategories.forEach(bingoTile::addCategory);
-        return bingoTile;
-    }
-
-    private boolean doesTileAlreadyExist(String text, List<BingoTile> tiles) {
-        return tiles.stream().anyMatch(tile -> tile.isTextEqual(text));
-    }
-
-    private boolean hasAntisynergies(Collection<Category> c1, Collection<Category> c2) {
-        for (Category cat1 : c1) {
-            for (Category cat2 : c2) {
-                if (cat1.getAntisynergy().contains(cat2)) {
-                    return true;
-                } else if (cat2.getAntisynergy().contains(cat1)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    private String insertSnippets(String text,
-                                  Set<Category> createdMustBeCategories, Set<Category> createdMayNotBeCategories,
-                                  AtomicReference<Double> currentDifficulty, double destinationDifficulty,
-                                  Set<Category> tileCategories,
-                                  StringJoiner currentTooltips,
-                                  Random random) {
-        boolean found;
-        do {
-            found = false;
-            Matcher snippetsMatcher = TextSnippet.SNIPPET_PATTERN.matcher(text);
-            while (snippetsMatcher.find()) {
-                String snippetType = snippetsMatcher.group(1);
-
-                // check if there are conditions or extra snippet types to be extracted
-                List<String> conditions = new ArrayList<>();
-                if (snippetType.contains(":")) {
-                    Arrays.stream(snippetType.split(":")).skip(1).forEach(conditions::add);
-                    snippetType = snippetType.split(":")[0];
-                }
-
-                if (textSnippets.containsKey(snippetType)) {
-                    // check if some conditions are actually snippet types
-                    List<String> snippetTypes = new ArrayList<>();
-                    snippetTypes.add(snippetType);
-                    for (int i = conditions.size() - 1; i >= 0; i--) {
-                        String condition = conditions.get(i);
-                        if (!condition.contains("(") && textSnippets.containsKey(condition)) {
-                            snippetTypes.add(condition);
-                            conditions.remove(i);
-                        }
-                    }
-
-                    List<TextSnippet> snippets = getTextSnippets(snippetTypes, createdMustBeCategories, createdMayNotBeCategories, conditions, text);
-                    TextSnippet selectedSnippet = getRandom(snippets, random);
-
-                    currentDifficulty.set(currentDifficulty.get() + selectedSnippet.getDifficulty());
-                    tileCategories.addAll(selectedSnippet.getCategories());
-                    if (selectedSnippet.getTooltip() != null) currentTooltips.add(selectedSnippet.getTooltip());
-                    text = text.replaceFirst(Pattern.quote(snippetsMatcher.group()), selectedSnippet.getText());
-
-                    found = true;
-                    continue;
-                }
-
-                // check if it is a value provider or a random number generator
-                ValueProvider valueProvider = numberValueProviders.getOrDefault(snippetType, null);
-                if (valueProvider != null) {
-                    Difficulty difficulty = getDifficulty(destinationDifficulty);
-                    ValueProvider.NumberProviderResult result = valueProvider.getValue(difficulty.getName());
-                    if (result != null) {
-                        text = text.replaceFirst(Pattern.quote(snippetsMatcher.group()), String.valueOf(result.getValue()));
-                        currentDifficulty.set(currentDifficulty.get() + result.getScore());
-                    }
-                } else if (snippetType.matches("-?\\d+-?\\d+")) {
-                    int min = Integer.parseInt(snippetType.split("-")[0]);
-                    int max = Integer.parseInt(snippetType.split("-")[1]);
-                    text = text.replaceFirst(Pattern.quote(snippetsMatcher.group()), String.valueOf(random.nextInt(max - min + 1) + min));
-                }
-            }
-        } while (found);
-        return text;
-    }
-
-    private List<TextSnippet> getSnippets(List<String> snippetTypes) {
-        List<TextSnippet> snippets = new ArrayList<>();
-        for (String snippetType : snippetTypes) {
-            if (textSnippets.containsKey(snippetType)) {
-                snippets.addAll(textSnippets.get(snippetType));
-            }
-        }
-        return snippets;
-    }
-
-    private List<TextSnippet> getTextSnippets(List<String> snippetTypes, Set<Category> createdMustBeCategories, Set<Category> createdMayNotBeCategories, List<String> conditions, String textSoFar) {
-        List<TextSnippet> limitedSnippets = getSnippets(snippetTypes);
-
-        if (conditions.size() > 0) {
-            List<TextSnippet> filteredSnippets = new ArrayList<>();
-            for (TextSnippet snippet : limitedSnippets) {
-                boolean valid = true;
-                for (String condition : conditions) {
-                    if (!snippet.matchesCondition(condition, textSoFar)) {
-                        valid = false;
-                        break;
-                    }
-                }
-                if (valid) filteredSnippets.add(snippet);
-            }
-            if (filteredSnippets.size() == 0) {
-                //LOG.warn("No snippets found for type [{}] with conditions {}", snippetTypes, conditions);
-            } else {
-                limitedSnippets = filteredSnippets;
-            }
-        }
-
-        if (!createdMustBeCategories.isEmpty()) {
-            List<TextSnippet> filteredSnippets = new ArrayList<>();
-            for (TextSnippet snippet : limitedSnippets) {
-                boolean valid = true;
-                for (Category category : createdMustBeCategories) {
-                    if (!snippet.getCategories().contains(category)) {
-                        valid = false;
-                        break;
-                    }
-                }
-                if (valid) filteredSnippets.add(snippet);
-            }
-            if (filteredSnippets.size() == 0) {
-                //LOG.warn("No snippets found for type {} with must-be categories {}", snippetTypes, createdMustBeCategories);
-            } else {
-                limitedSnippets = filteredSnippets;
-            }
-        }
-
-        if (!createdMayNotBeCategories.isEmpty()) {
-            List<TextSnippet> filteredSnippets = new ArrayList<>();
-            for (TextSnippet snippet : limitedSnippets) {
-                boolean valid = true;
-                for (Category category : createdMayNotBeCategories) {
-                    if (snippet.getCategories().contains(category)) {
-                        valid = false;
-                        break;
-                    }
-                }
-                if (valid) filteredSnippets.add(snippet);
-            }
-            if (filteredSnippets.size() == 0) {
-                //LOG.warn("No snippets found for type {} with may-not categories {}", snippetTypes, createdMayNotBeCategories);
-            } else {
-                limitedSnippets = filteredSnippets;
-            }
-        }
-
-        return limitedSnippets;
+        return compiled.generateTile(existingTiles, destAmount, destinationDifficulty, random);
     }
 
     public Difficulty getDifficulty(double difficulty) {
-        double closestDifficulty = Double.MAX_VALUE;
-        Difficulty closestDifficultyDifficulty = null;
-        for (Difficulty difficultyDifficulty : difficulties) {
-            double currentDifficulty = Math.abs(difficultyDifficulty.getScore() - difficulty);
-            if (currentDifficulty < closestDifficulty) {
-                closestDifficulty = currentDifficulty;
-                closestDifficultyDifficulty = difficultyDifficulty;
-            }
-        }
-        return closestDifficultyDifficulty;
+        return compiled.getDifficulty(difficulty);
     }
 
     public Difficulty getDifficulty(String difficulty) {
-        for (Difficulty difficultyDifficulty : difficulties) {
-            if (difficultyDifficulty.getName().equals(difficulty)) {
-                return difficultyDifficulty;
-            }
-        }
-        return null;
+        return compiled.getDifficulty(difficulty);
     }
 
     public <T extends Weightable> T getRandom(Collection<T> collection, Random random) {
-        double totalWeight = collection.stream().mapToDouble(Weightable::getWeight).sum();
-        double randomValue = random.nextDouble() * totalWeight;
-        double currentWeight = 0;
-        for (T weightable : collection) {
-            currentWeight += weightable.getWeight();
-            if (currentWeight >= randomValue) {
-                return weightable;
-            }
-        }
-        return collection.stream().findAny().orElse(null);
+        return compiled.getRandom(collection, random);
     }
 
     static void validateContained(Map<String, Object> optionMap, String key, boolean forcePresent, Class<?>... clazz) {
@@ -0,0 +1,152 @@
+package de.yanwittmann.bingo.generator;
+
+import de.yanwittmann.bingo.LayoutOptimizer;
+
+import java.util.Random;
+
+/**
+ * Immutable set of parameters for generating a single board with {@link BingoGenerator#generateBingoBoard(BingoGenerationRequest)}.<br>
+ * A difficulty of <code>-1</code> disables the difficulty optimization, a max generation attempts value of <code>-1</code>
+ * lets the generator pick the amount of attempts based on the board size.<br>
+ * The tiles are picked by the {@link TileOptimizer} of the request, {@link TileOptimizer#LEGACY} if none is set, and
+ * arranged by the {@link LayoutOptimizer} of the request, {@link LayoutOptimizer#SHUFFLE} if none is set.<br>
+ * The {@link GenerationListener} of the request receives the counters and timings of the generation.
+ */
+public final class BingoGenerationRequest {
+
+    private final int width;
+    private final int height;
+    private final double difficulty;
+    private final int maxGenerationAttempts;
+    private final long seed;
+    private final TileOptimizer optimizer;
+    private final LayoutOptimizer layoutOptimizer;
+    private final GenerationListener listener;
+
+    public BingoGenerationRequest(int width, int height, double difficulty, int maxGenerationAttempts, long seed,
+                                  TileOptimizer optimizer, LayoutOptimizer layoutOptimizer, GenerationListener listener) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Board size must be at least 1x1: " + width + "x" + height);
+        }
+        if (optimizer == null) {
+            throw new IllegalArgumentException("Tile optimizer must not be null");
+        }
+        if (layoutOptimizer == null) {
+            throw new IllegalArgumentException("Layout optimizer must not be null");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        this.width = width;
+        this.height = height;
+        this.difficulty = difficulty;
+        this.maxGenerationAttempts = maxGenerationAttempts;
+        this.seed = seed;
+        this.optimizer = optimizer;
+        this.layoutOptimizer = layoutOptimizer;
+        this.listener = listener;
+    }
+
+    public BingoGenerationRequest(int width, int height, double difficulty, int maxGenerationAttempts, long seed,
+                                  TileOptimizer optimizer, LayoutOptimizer layoutOptimizer) {
+        this(width, height, difficulty, maxGenerationAttempts, seed, optimizer, layoutOptimizer, GenerationListener.NONE);
+    }
+
+    public BingoGenerationRequest(int width, int height, double difficulty, int maxGenerationAttempts, long seed, TileOptimizer optimizer) {
+        this(width, height, difficulty, maxGenerationAttempts, seed, optimizer, LayoutOptimizer.SHUFFLE);
+    }
+
+    public BingoGenerationRequest(int width, int height, double difficulty, int maxGenerationAttempts, long seed) {
+        this(width, height, difficulty, maxGenerationAttempts, seed, TileOptimizer.LEGACY, LayoutOptimizer.SHUFFLE);
+    }
+
+    public BingoGenerationRequest(int width, int height, double difficulty) {
+        this(width, height, difficulty, -1, new Random().nextLong());
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public double getDifficulty() {
+        return difficulty;
+    }
+
+    public int getMaxGenerationAttempts() {
+        return maxGenerationAttempts;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public TileOptimizer getOptimizer() {
+        return optimizer;
+    }
+
+    public LayoutOptimizer getLayoutOptimizer() {
+        return layoutOptimizer;
+    }
+
+    public GenerationListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return The max generation attempts or, if they are <code>-1</code>, the amount of attempts for the board size.
+     */
+    public int getGenerationAttempts() {
+        if (maxGenerationAttempts != -1) return maxGenerationAttempts;
+        return (2000 / Math.max(1, width * height - 10)) + 10;
+    }
+
+    public BingoGenerationRequest withSize(int width, int height) {
+        return new BingoGenerationRequest(width, height, difficulty, maxGenerationAttempts, seed, optimizer, layoutOptimizer, listener);
+    }
+
+    public BingoGenerationRequest withDifficulty(double difficulty) {
+        return new BingoGenerationRequest(width, height, difficulty, maxGenerationAttempts, seed, optimizer, layoutOptimizer, listener);
+    }
+
+    public BingoGenerationRequest withMaxGenerationAttempts(int maxGenerationAttempts) {
+        return new BingoGenerationRequest(width, height, difficulty, maxGenerationAttempts, seed, optimizer, layoutOptimizer, listener);
+    }
+
+    public BingoGenerationRequest withSeed(long seed) {
+        return new BingoGenerationRequest(width, height, difficulty, maxGenerationAttempts, seed, optimizer, layoutOptimizer, listener);
+    }
+
+    public BingoGenerationRequest withOptimizer(TileOptimizer optimizer) {
+        return new BingoGenerationRequest(width, height, difficulty, maxGenerationAttempts, seed, optimizer, layoutOptimizer, listener);
+    }
+
+    public BingoGenerationRequest withLayoutOptimizer(LayoutOptimizer layoutOptimizer) {
+        return new BingoGenerationRequest(width, height, difficulty, maxGenerationAttempts, seed, optimizer, layoutOptimizer, listener);
+    }
+
+    /**
+     * Large boards (50x50 and beyond) should be generated with strategies whose cost grows about linearly with the amount
+     * of cells: {@link TileOptimizer#SIMULATED_ANNEALING} replaces a single tile in place per step, and
+     * {@link LayoutOptimizer#SWAP} only rescores the lines and rings of the swapped cells. The legacy tile optimizer
+     * re-sorts the whole board by difficulty per step, which is why it is not used here, and the shuffle layout
+     * optimizer scores whole layouts.
+     *
+     * @return A copy of this request that uses the strategies for large boards.
+     */
+    public BingoGenerationRequest withLargeBoardMode() {
+        return new BingoGenerationRequest(width, height, difficulty, maxGenerationAttempts, seed, TileOptimizer.SIMULATED_ANNEALING, LayoutOptimizer.SWAP, listener);
+    }
+
+    public BingoGenerationRequest withListener(GenerationListener listener) {
+        return new BingoGenerationRequest(width, height, difficulty, maxGenerationAttempts, seed, optimizer, layoutOptimizer, listener);
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height + " difficulty [" + difficulty + "] attempts [" + maxGenerationAttempts + "] seed [" + seed + "] optimizer [" + optimizer.getName() + "] layout [" + layoutOptimizer.getName() + "]";
+    }
+}
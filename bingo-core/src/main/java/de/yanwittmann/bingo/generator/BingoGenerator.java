@@ -2,14 +2,25 @@ package de.yanwittmann.bingo.generator;
 
 import de.yanwittmann.bingo.BingoBoard;
 import de.yanwittmann.bingo.BingoTile;
+import de.yanwittmann.bingo.CompactBingoBoard;
+import de.yanwittmann.bingo.CompactBoardPool;
+import de.yanwittmann.bingo.LayoutOptimizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.ObjIntConsumer;
 
 public class BingoGenerator {
 
@@ -20,6 +31,9 @@ public class BingoGenerator {
     private int width = 5;
     private int height = 5;
     private int maxGenerationAttempts = -1;
+    private TileOptimizer tileOptimizer = TileOptimizer.LEGACY;
+    private LayoutOptimizer layoutOptimizer = LayoutOptimizer.SHUFFLE;
+    private GenerationListener listener = GenerationListener.NONE;
 
     public BingoGenerator(File configurationFile) throws FileNotFoundException {
         this.configuration = new BingoConfiguration(configurationFile);
@@ -34,96 +48,234 @@ public class BingoGenerator {
     }
 
     public BingoBoard generateBingoBoard(Random random) {
+        return generateBingoBoard(toRequest(0), random, GenerationBudget.unlimited());
+    }
+
+    /**
+     * Generates a board within the given time budget instead of using the generation attempts.
+     *
+     * @see GenerationBudget
+     */
+    public BingoBoard generateBingoBoard(Random random, Duration budget) {
+        return generateBingoBoard(random, new GenerationBudget(budget));
+    }
+
+    /**
+     * Generates a board within the given time budget instead of using the generation attempts. Once the board is
+     * generated, the budget reports how much of it was used and whether the target was reached early.
+     *
+     * @see GenerationBudget
+     */
+    public BingoBoard generateBingoBoard(Random random, GenerationBudget budget) {
+        return generateBingoBoard(toRequest(0), random, budget);
+    }
+
+    /**
+     * Generates a board only from the given request and the configuration, without reading any of the settings of this
+     * generator. Any amount of threads may call this method on the same instance at the same time.
+     *
+     * @param request The parameters of the board, the board is generated using a {@link Random} seeded with the request seed.
+     * @return The generated board.
+     */
+    public BingoBoard generateBingoBoard(BingoGenerationRequest request) {
+        return generateBingoBoard(request, new Random(request.getSeed()), GenerationBudget.unlimited());
+    }
+
+    /**
+     * Generates a board from the given request within the time budget.
+     *
+     * @see #generateBingoBoard(BingoGenerationRequest)
+     * @see GenerationBudget
+     */
+    public BingoBoard generateBingoBoard(BingoGenerationRequest request, GenerationBudget budget) {
+        return generateBingoBoard(request, new Random(request.getSeed()), budget);
+    }
+
+    private BingoBoard generateBingoBoard(BingoGenerationRequest request, Random random, GenerationBudget budget) {
+        BingoConfiguration configuration = this.configuration;
         if (configuration == null) {
             throw new IllegalStateException("Bingo configuration is not set.");
         }
+        budget.start();
+        CompiledBingoConfiguration compiled = configuration.compile();
+        int width = request.getWidth(), height = request.getHeight();
+        double difficulty = request.getDifficulty();
 
-        List<BingoTile> tiles = new ArrayList<>();
-        int maxAttempts = this.maxGenerationAttempts == -1 ? (2000 / Math.max(1, width * height - 10)) + 10 : this.maxGenerationAttempts;
-        LOG.info("Generation attempts [{}]", maxAttempts);
-        LOG.info("Generating board with [{}]x[{}]", width, height);
-        LOG.info("Difficulty [{}]", difficulty);
+        GenerationListener listener = request.getListener();
+        long start = System.nanoTime();
+
+        GenerationState state = new GenerationState(compiled, width * height, difficulty);
+        state.setListener(listener);
+        LOG.debug("Generating board with [{}]x[{}] difficulty [{}] attempts [{}]", width, height, difficulty, request.getGenerationAttempts());
         if (difficulty == -1) {
-            fillBoard(tiles, random);
+            state.fill(random);
         } else {
-            for (int i = 0; i < maxAttempts; i++) {
-                createAndRemoveTiles(tiles, width * height, random);
-            }
+            request.getOptimizer().optimize(request, state, random, budget);
         }
+        long tilesFinished = System.nanoTime();
+        listener.onPhaseFinished(GenerationPhase.TILES, tilesFinished - start);
 
+        List<BingoTile> tiles = new ArrayList<>(state.getTiles());
         BingoBoard board = new BingoBoard(width, height);
-        board.populate(tiles, configuration.getCategories(), random);
-        board.setBoardMetadata(configuration.getBoardMetadata());
-        board.setCategoryCount(configuration.countCategories(tiles));
+        LayoutOptimizer layoutOptimizer = request.getLayoutOptimizer();
+        if (!budget.isUnlimited()) {
+            layoutOptimizer = layoutOptimizer.withTimeBudget(budget.getRemaining());
+        }
+        board.populate(tiles, compiled.getCategories(), random, layoutOptimizer, listener);
+        board.setBoardMetadata(compiled.getBoardMetadata());
+        board.setCategoryCount(compiled.countCategories(tiles));
         board.setDifficulty(calculateDifficulty(tiles));
+        long finished = System.nanoTime();
+        listener.onPhaseFinished(GenerationPhase.LAYOUT, finished - tilesFinished);
+        listener.onPhaseFinished(GenerationPhase.BOARD, finished - start);
+
+        LOG.info("Generated [{}]x[{}] board with difficulty [{}] (destination [{}]) in [{}] ms", width, height,
+                board.getDifficulty(), difficulty, TimeUnit.NANOSECONDS.toMillis(finished - start));
+        LOG.debug("Categories [{}]", board.getCategoryCount());
 
-        LOG.info("Board difficulty is [{}]", calculateDifficulty(tiles));
-        LOG.info("Categories [{}]", board.getCategoryCount());
+        budget.finish();
+        if (!budget.isUnlimited()) {
+            LOG.info("Generation budget {}", budget);
+        }
 
         return board;
     }
 
-    private void createAndRemoveTiles(List<BingoTile> tiles, int maxTileCount, Random random) {
-        for (int i = 0; i < maxTileCount; i++) {
-            fillBoard(tiles, random);
-            ArrayList<BingoTile> backup = new ArrayList<>(tiles);
-            if (difficulty != -1) {
-                removeByDifficulty(tiles, (width + height) / 2);
-            } else {
-                removeRandom(tiles, (width + height) / 2, random);
-            }
-            fillBoard(tiles, random);
-            double newDifficultyDistance = distanceToDestinationDifficulty(calculateDifficulty(tiles));
-            double oldDifficultyDistance = distanceToDestinationDifficulty(calculateDifficulty(backup));
-            if (newDifficultyDistance > oldDifficultyDistance) {
-                tiles.clear();
-                tiles.addAll(backup);
-                removeRandom(tiles, 2, random);
-                fillBoard(tiles, random);
-                newDifficultyDistance = distanceToDestinationDifficulty(calculateDifficulty(tiles));
-                oldDifficultyDistance = distanceToDestinationDifficulty(calculateDifficulty(backup));
-                if (newDifficultyDistance > oldDifficultyDistance) {
-                    tiles.clear();
-                    tiles.addAll(backup);
-                } else if (newDifficultyDistance < oldDifficultyDistance) {
-                    LOG.info("Found better board [{}] -> [{}] [{}]", oldDifficultyDistance, newDifficultyDistance, calculateDifficulty(tiles));
-                }
-            } else if (newDifficultyDistance < oldDifficultyDistance) {
-                LOG.info("Found better board [{}] -> [{}] [{}]", oldDifficultyDistance, newDifficultyDistance, calculateDifficulty(tiles));
-            }
-        }
+    private BingoGenerationRequest toRequest(long seed) {
+        return new BingoGenerationRequest(width, height, difficulty, maxGenerationAttempts, seed, tileOptimizer, layoutOptimizer, listener);
     }
 
-    private void removeByDifficulty(List<BingoTile> tiles, int amount) {
-        tiles.sort((o1, o2) -> Double.compare(o2.getDifficulty(), o1.getDifficulty()));
-        for (int i = 0; i < amount && tiles.size() > 0; i++) {
-            double currentDifficulty = calculateDifficulty(tiles);
-            if (currentDifficulty > difficulty) {
-                tiles.remove(0);
-            } else {
-                tiles.remove(tiles.size() - 1);
-            }
+    /**
+     * Generates multiple boards in parallel on the common {@link ForkJoinPool} parallelism level.
+     *
+     * @see #generateBingoBoards(int, long, int, BooleanSupplier)
+     */
+    public List<BingoBoard> generateBingoBoards(int count, long masterSeed) {
+        return generateBingoBoards(count, masterSeed, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Generates multiple boards in parallel using the given amount of threads.
+     *
+     * @see #generateBingoBoards(int, long, int, BooleanSupplier)
+     */
+    public List<BingoBoard> generateBingoBoards(int count, long masterSeed, int parallelism) {
+        return generateBingoBoards(count, masterSeed, parallelism, () -> false);
+    }
+
+    /**
+     * Generates multiple boards in parallel.<br>
+     * Every board uses its own {@link Random} seeded with {@link #deriveBoardSeed(long, int)}, so the result only depends
+     * on the master seed and not on the parallelism level or the order the boards are finished in. Board <code>i</code>
+     * is the same board that <code>generateBingoBoard(new Random(deriveBoardSeed(masterSeed, i)))</code> returns.<br>
+     * The current generator settings are captured when the batch is started.
+     *
+     * @param count       The amount of boards to generate.
+     * @param masterSeed  The seed to derive the seeds of the individual boards from.
+     * @param parallelism The amount of threads to use, at least 1.
+     * @param cancelled   Checked before every board is generated. Once it returns true, no more boards are started.
+     * @return The boards in index order.
+     * @throws CancellationException If the batch was cancelled before all boards were generated.
+     */
+    public List<BingoBoard> generateBingoBoards(int count, long masterSeed, int parallelism, BooleanSupplier cancelled) {
+        return generateBingoBoards(toRequest(masterSeed), count, parallelism, cancelled);
+    }
+
+    /**
+     * Generates multiple boards in parallel, using the seed of the request as the master seed.
+     *
+     * @see #generateBingoBoards(int, long, int, BooleanSupplier)
+     */
+    public List<BingoBoard> generateBingoBoards(BingoGenerationRequest request, int count, int parallelism, BooleanSupplier cancelled) {
+        BingoBoard[] boards = new BingoBoard[count < 0 ? 0 : count];
+        generateBingoBoards(request, count, parallelism, cancelled, (board, index) -> boards[index] = board);
+        return Arrays.asList(boards);
+    }
+
+    /**
+     * Generates multiple boards in parallel and stores every board as a {@link CompactBingoBoard} as soon as it is
+     * generated, so that only the compact boards of the batch are held in memory.
+     *
+     * @param pool The pool to store the strings and categories of the boards in.
+     * @see #generateBingoBoards(int, long, int, BooleanSupplier)
+     */
+    public List<CompactBingoBoard> generateCompactBingoBoards(BingoGenerationRequest request, int count, int parallelism, BooleanSupplier cancelled, CompactBoardPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
         }
+        CompactBingoBoard[] boards = new CompactBingoBoard[count < 0 ? 0 : count];
+        generateBingoBoards(request, count, parallelism, cancelled, (board, index) -> boards[index] = CompactBingoBoard.of(board, pool));
+        return Arrays.asList(boards);
     }
 
-    private void removeRandom(List<BingoTile> tiles, int amount, Random random) {
-        for (int i = 0; i < amount && tiles.size() > 0; i++) {
-            tiles.remove(random.nextInt(tiles.size()));
+    private void generateBingoBoards(BingoGenerationRequest request, int count, int parallelism, BooleanSupplier cancelled, ObjIntConsumer<BingoBoard> sink) {
+        if (configuration == null) {
+            throw new IllegalStateException("Bingo configuration is not set.");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Board count must not be negative: " + count);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        if (cancelled == null) {
+            throw new IllegalArgumentException("Cancellation check must not be null");
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new BoardBatchTask(sink, 0, count, request, cancelled));
+        } finally {
+            pool.shutdown();
         }
     }
 
-    private void fillBoard(List<BingoTile> tiles, Random random) {
-        int tileCount = width * height;
-        while (tiles.size() < tileCount)
-            tiles.add(configuration.generateTile(tiles, width * height, difficulty, random));
+    /**
+     * Derives the seed of a single board in a batch from the master seed of that batch.<br>
+     * Uses the SplitMix64 finalizer, so that neighbouring indices and seeds result in unrelated random streams.
+     */
+    public static long deriveBoardSeed(long masterSeed, int index) {
+        long z = masterSeed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 
-    private double calculateDifficulty(List<BingoTile> tiles) {
-        return tiles.stream().mapToDouble(BingoTile::getDifficulty).average().orElse(0.0);
+    private class BoardBatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ObjIntConsumer<BingoBoard> sink;
+        private final int from, to;
+        private final BingoGenerationRequest request;
+        private final BooleanSupplier cancelled;
+
+        private BoardBatchTask(ObjIntConsumer<BingoBoard> sink, int from, int to, BingoGenerationRequest request, BooleanSupplier cancelled) {
+            this.sink = sink;
+            this.from = from;
+            this.to = to;
+            this.request = request;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BoardBatchTask(sink, from, middle, request, cancelled),
+                        new BoardBatchTask(sink, middle, to, request, cancelled));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException("Board generation was cancelled at board " + i);
+                }
+                sink.accept(generateBingoBoard(request.withSeed(deriveBoardSeed(request.getSeed(), i))), i);
+            }
+        }
     }
 
-    private double distanceToDestinationDifficulty(double difficulty) {
-        return Math.abs(difficulty - this.difficulty);
+    private double calculateDifficulty(List<BingoTile> tiles) {
+        return tiles.stream().mapToDouble(BingoTile::getDifficulty).average().orElse(0.0);
     }
 
     public BingoConfiguration getConfiguration() {
@@ -173,4 +325,41 @@ public class BingoGenerator {
     public int getMaxGenerationAttempts() {
         return maxGenerationAttempts;
     }
+
+    public TileOptimizer getTileOptimizer() {
+        return tileOptimizer;
+    }
+
+    public void setTileOptimizer(TileOptimizer tileOptimizer) {
+        if (tileOptimizer == null) {
+            throw new IllegalArgumentException("Tile optimizer must not be null");
+        }
+        this.tileOptimizer = tileOptimizer;
+    }
+
+    public LayoutOptimizer getLayoutOptimizer() {
+        return layoutOptimizer;
+    }
+
+    public void setLayoutOptimizer(LayoutOptimizer layoutOptimizer) {
+        if (layoutOptimizer == null) {
+            throw new IllegalArgumentException("Layout optimizer must not be null");
+        }
+        this.layoutOptimizer = layoutOptimizer;
+    }
+
+    public GenerationListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @param listener Receives the counters and timings of all boards generated by this generator, see
+     *                 {@link GenerationMetrics}.
+     */
+    public void setListener(GenerationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        this.listener = listener;
+    }
 }
@@ -0,0 +1,81 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Thread safe cache for the candidate lists that tiles are drawn from, keyed by the rules the candidates were filtered with.<br>
+ * The values must only depend on the key, so it does not matter which thread computes them first. Values are computed
+ * outside of the lock. Once the maximum size is reached, the least recently used entry is evicted for every new one.
+ */
+public final class CandidateCache<K, V> {
+
+    private final Map<K, V> entries;
+    private final int maxSize;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    CandidateCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size must be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > CandidateCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    V get(K key, Function<K, V> compute) {
+        V value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value != null) {
+            hits.incrementAndGet();
+            return value;
+        }
+        misses.incrementAndGet();
+        value = compute.apply(key);
+        synchronized (entries) {
+            V previous = entries.putIfAbsent(key, value);
+            return previous != null ? previous : value;
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "hits [" + getHits() + "] misses [" + getMisses() + "] evictions [" + getEvictions() + "] size [" + size() + "/" + maxSize + "]";
+    }
+}
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class Category {
 
@@ -17,6 +18,10 @@ public class Category {
     private double minAbsolute = 0, minRelative = 0;
     private final List<Category> synergies = new ArrayList<>();
     private final List<Category> antisynergy = new ArrayList<>();
+    private int id = -1;
+    private CategoryMask synergyMask = CategoryMask.EMPTY;
+    private CategoryMask antisynergyMask = CategoryMask.EMPTY;
+    private boolean frozen = false;
 
     public Category(String category, Map<String, Object> optionMap, List<Category> categories) {
         categories.add(this);
@@ -47,11 +52,20 @@ public class Category {
         this.name = name;
     }
 
+    Category(String name, double maxAbsolute, double maxRelative, double minAbsolute, double minRelative) {
+        this.name = name;
+        this.maxAbsolute = maxAbsolute;
+        this.maxRelative = maxRelative;
+        this.minAbsolute = minAbsolute;
+        this.minRelative = minRelative;
+    }
+
     public String getName() {
         return name;
     }
 
     public void setName(String name) {
+        checkNotFrozen();
         this.name = name;
     }
 
@@ -60,6 +74,7 @@ public class Category {
     }
 
     public void setMaxAbsolute(double maxAbsolute) {
+        checkNotFrozen();
         this.maxAbsolute = maxAbsolute;
     }
 
@@ -68,6 +83,7 @@ public class Category {
     }
 
     public void setMaxRelative(double maxRelative) {
+        checkNotFrozen();
         this.maxRelative = maxRelative;
     }
 
@@ -76,6 +92,7 @@ public class Category {
     }
 
     public void setMinAbsolute(double minAbsolute) {
+        checkNotFrozen();
         this.minAbsolute = minAbsolute;
     }
 
@@ -84,15 +101,55 @@ public class Category {
     }
 
     public void setMinRelative(double minRelative) {
+        checkNotFrozen();
         this.minRelative = minRelative;
     }
 
     public List<Category> getSynergies() {
-        return synergies;
+        return Collections.unmodifiableList(synergies);
     }
 
     public List<Category> getAntisynergy() {
-        return antisynergy;
+        return Collections.unmodifiableList(antisynergy);
+    }
+
+    void addSynergy(Category category) {
+        checkNotFrozen();
+        synergies.add(category);
+    }
+
+    void addAntisynergy(Category category) {
+        checkNotFrozen();
+        antisynergy.add(category);
+    }
+
+    /**
+     * @return The dense id of this category in its configuration, or <code>-1</code> if it is not part of a compiled configuration.
+     */
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        checkNotFrozen();
+        this.id = id;
+    }
+
+    public CategoryMask getSynergyMask() {
+        return synergyMask;
+    }
+
+    public CategoryMask getAntisynergyMask() {
+        return antisynergyMask;
+    }
+
+    /**
+     * Builds the synergy and antisynergy masks, requires the ids of all categories to be assigned.
+     */
+    void compileMasks() {
+        checkNotFrozen();
+        this.synergyMask = CategoryMask.of(synergies);
+        this.antisynergyMask = CategoryMask.of(antisynergy);
     }
 
     public static boolean validate(Map<String, Object> optionMap) {
@@ -131,6 +188,31 @@ public class Category {
         return knownCategories.stream().filter(c -> c.getName().equals(category)).findFirst().orElse(null);
     }
 
+    /**
+     * Called once the configuration is compiled, after which the category may no longer be modified.
+     */
+    void freeze() {
+        this.frozen = true;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Cannot modify category [" + name + "] after the configuration has been compiled");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Category)) return false;
+        return Objects.equals(name, ((Category) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name);
+    }
+
     @Override
     public String toString() {
         return name;
@@ -0,0 +1,262 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of categories, stored as a bit mask over the category ids assigned by {@link CompiledBingoConfiguration}.<br>
+ * Configurations with up to 64 categories use a single <code>long</code>, larger ones use one <code>long</code> per 64
+ * categories. Categories without an id (not part of a configuration) are ignored.
+ */
+public final class CategoryMask {
+
+    public static final CategoryMask EMPTY = new CategoryMask(new long[0]);
+
+    private final long[] words;
+
+    private CategoryMask(long[] words) {
+        this.words = words;
+    }
+
+    public static CategoryMask of(Collection<Category> categories) {
+        Builder builder = new Builder();
+        for (Category category : categories) {
+            builder.add(category);
+        }
+        return builder.build();
+    }
+
+    public boolean contains(int id) {
+        int word = id >>> 6;
+        return id >= 0 && word < words.length && (words[word] & (1L << id)) != 0;
+    }
+
+    public boolean contains(Category category) {
+        return contains(category.getId());
+    }
+
+    public boolean intersects(CategoryMask other) {
+        return intersects(words, other.words);
+    }
+
+    /**
+     * @return Whether every category of the other mask is also contained in this mask.
+     */
+    public boolean containsAll(CategoryMask other) {
+        for (int i = 0; i < other.words.length; i++) {
+            long word = i < words.length ? words[i] : 0;
+            if ((other.words[i] & ~word) != 0) return false;
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @return The amount of categories that are contained in both masks.
+     */
+    public int intersectionCount(CategoryMask other) {
+        int count = 0;
+        for (int i = Math.min(words.length, other.words.length) - 1; i >= 0; i--) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * @return The next category id that is contained in this mask, starting at the given id, or <code>-1</code>.
+     */
+    public int nextSetBit(int fromId) {
+        int wordIndex = fromId >>> 6;
+        if (wordIndex >= words.length) return -1;
+        long word = words[wordIndex] & (-1L << fromId);
+        while (true) {
+            if (word != 0) return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            if (++wordIndex == words.length) return -1;
+            word = words[wordIndex];
+        }
+    }
+
+    public CategoryMask and(CategoryMask other) {
+        int length = Math.min(words.length, other.words.length);
+        while (length > 0 && (words[length - 1] & other.words[length - 1]) == 0) length--;
+        if (length == 0) return EMPTY;
+        long[] result = Arrays.copyOf(words, length);
+        for (int i = 0; i < length; i++) {
+            result[i] &= other.words[i];
+        }
+        return new CategoryMask(result);
+    }
+
+    public CategoryMask or(CategoryMask other) {
+        if (other.words.length > words.length) return other.or(this);
+        long[] result = words.clone();
+        for (int i = 0; i < other.words.length; i++) {
+            result[i] |= other.words[i];
+        }
+        return new CategoryMask(result);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CategoryMask)) return false;
+        CategoryMask other = (CategoryMask) o;
+        int max = Math.max(words.length, other.words.length);
+        for (int i = 0; i < max; i++) {
+            long a = i < words.length ? words[i] : 0;
+            long b = i < other.words.length ? other.words[i] : 0;
+            if (a != b) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode(words);
+    }
+
+    /**
+     * @return The same hash as {@link Arrays#hashCode(long[])} of the words without the trailing empty words.
+     */
+    private static int hashCode(long[] words) {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) length--;
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + Long.hashCode(words[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int id = nextSetBit(0); id != -1; id = nextSetBit(id + 1)) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(id);
+        }
+        return sb.append("]").toString();
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+        for (int i = Math.min(a.length, b.length) - 1; i >= 0; i--) {
+            if ((a[i] & b[i]) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Mutable counterpart of {@link CategoryMask}, used to collect categories while generating a tile.
+     */
+    public static class Builder {
+        private long[] words = new long[1];
+
+        public Builder add(int id) {
+            if (id < 0) return this;
+            int word = id >>> 6;
+            if (word >= words.length) words = Arrays.copyOf(words, word + 1);
+            words[word] |= 1L << id;
+            return this;
+        }
+
+        public Builder add(Category category) {
+            return add(category.getId());
+        }
+
+        public Builder addAll(CategoryMask mask) {
+            if (mask.words.length > words.length) words = Arrays.copyOf(words, mask.words.length);
+            for (int i = 0; i < mask.words.length; i++) {
+                words[i] |= mask.words[i];
+            }
+            return this;
+        }
+
+        public boolean intersects(CategoryMask mask) {
+            return CategoryMask.intersects(words, mask.words);
+        }
+
+        public int intersectionCount(CategoryMask mask) {
+            int count = 0;
+            for (int i = Math.min(words.length, mask.words.length) - 1; i >= 0; i--) {
+                count += Long.bitCount(words[i] & mask.words[i]);
+            }
+            return count;
+        }
+
+        public boolean isEmpty() {
+            for (long word : words) {
+                if (word != 0) return false;
+            }
+            return true;
+        }
+
+        public Builder clear() {
+            Arrays.fill(words, 0);
+            return this;
+        }
+
+        /**
+         * Replaces the categories of this builder with the categories of the other builder.
+         */
+        public Builder set(Builder other) {
+            if (other.words.length > words.length) words = new long[other.words.length];
+            System.arraycopy(other.words, 0, words, 0, other.words.length);
+            Arrays.fill(words, other.words.length, words.length, 0);
+            return this;
+        }
+
+        /**
+         * @return Whether this builder contains exactly the categories of the mask.
+         */
+        public boolean matches(CategoryMask mask) {
+            int max = Math.max(words.length, mask.words.length);
+            for (int i = 0; i < max; i++) {
+                long a = i < words.length ? words[i] : 0;
+                long b = i < mask.words.length ? mask.words[i] : 0;
+                if (a != b) return false;
+            }
+            return true;
+        }
+
+        /**
+         * @see CategoryMask#nextSetBit(int)
+         */
+        public int nextSetBit(int fromId) {
+            int wordIndex = fromId >>> 6;
+            if (wordIndex >= words.length) return -1;
+            long word = words[wordIndex] & (-1L << fromId);
+            while (true) {
+                if (word != 0) return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                if (++wordIndex == words.length) return -1;
+                word = words[wordIndex];
+            }
+        }
+
+        /**
+         * @return The hash code of the mask that {@link #build()} would return, without building it.
+         */
+        int maskHashCode() {
+            return CategoryMask.hashCode(words);
+        }
+
+        public CategoryMask build() {
+            int length = words.length;
+            while (length > 0 && words[length - 1] == 0) length--;
+            return length == 0 ? EMPTY : new CategoryMask(Arrays.copyOf(words, length));
+        }
+    }
+}
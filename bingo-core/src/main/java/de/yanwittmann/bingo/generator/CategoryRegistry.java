@@ -0,0 +1,40 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns categories by name, so that all tiles that are loaded with the same registry share a single {@link Category}
+ * instance per name instead of creating a new one for every category of every tile.<br>
+ * The registry is thread safe and can be shared between several readers.
+ */
+public final class CategoryRegistry {
+
+    private final Map<String, Category> categories = new ConcurrentHashMap<>();
+
+    public CategoryRegistry() {
+    }
+
+    /**
+     * @param categories The categories to use for their names, for example the categories of a configuration.
+     */
+    public CategoryRegistry(Iterable<Category> categories) {
+        for (Category category : categories) {
+            this.categories.putIfAbsent(category.getName(), category);
+        }
+    }
+
+    /**
+     * @return The category with the name, created if there is none yet.
+     */
+    public Category intern(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Category name must not be null");
+        }
+        return categories.computeIfAbsent(name, Category::new);
+    }
+
+    public int size() {
+        return categories.size();
+    }
+}
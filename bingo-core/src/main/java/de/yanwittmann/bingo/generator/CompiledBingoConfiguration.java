@@ -0,0 +1,840 @@
+package de.yanwittmann.bingo.generator;
+
+import de.yanwittmann.bingo.BingoTile;
+import de.yanwittmann.bingo.interfaces.Weightable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Frozen snapshot of a {@link BingoConfiguration} that tiles are generated from.<br>
+ * All collections are unmodifiable copies and the contained tile generators, text snippets and categories are frozen
+ * when the snapshot is created, so a single instance can be shared between any amount of threads generating boards at
+ * the same time.<br>
+ * The weighted lists that tiles are drawn from are precomputed as {@link WeightedTable}s, the tables for the tile
+ * generator and snippet lists filtered by the category rules of a board are built on first use and kept in a
+ * {@link CandidateCache}.
+ */
+public final class CompiledBingoConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompiledBingoConfiguration.class);
+
+    /**
+     * Upper bound for the amount of filtered tables that are kept per cache, further combinations evict the least recently used.
+     */
+    private static final int MAX_CACHED_CANDIDATE_TABLES = 4096;
+    /**
+     * Tolerance for the rounding of the difficulty sums when comparing them with the estimated difficulty ranges.
+     */
+    private static final double DIFFICULTY_EPSILON = 1e-9;
+    /**
+     * Distance of the closest difficulty a tile generator can reach to the destination difficulty at which its weight is
+     * halved, see {@link #biasByDifficultyRange(WeightedTable, double)}.
+     */
+    private static final double DIFFICULTY_BIAS_DISTANCE = 0.25;
+
+    private final BingoBoardMetadata boardMetadata;
+    private final List<TileGenerator> tileGenerators;
+    private final Map<Difficulty, List<TileGenerator>> tileGeneratorsByDifficulty;
+    private final Map<String, List<TextSnippet>> textSnippets;
+    private final Map<String, ValueProvider> numberValueProviders;
+    private final List<Category> categories;
+    private final List<Difficulty> difficulties;
+    private final Map<String, Category> categoriesByName;
+    private final Candidates<TileGenerator> tileGeneratorTable;
+    private final Map<Difficulty, Candidates<TileGenerator>> tileGeneratorTablesByDifficulty;
+    private final Map<List<String>, Candidates<TextSnippet>> textSnippetTables = new ConcurrentHashMap<>();
+    private final Map<TextTemplate.SnippetNode, ConditionalSnippets> conditionalSnippets;
+    private final Map<TileGenerator, DifficultyRange> difficultyRanges;
+    private final CandidateCache<CandidateFilter, GeneratorCandidates> tileGeneratorCache = new CandidateCache<>(MAX_CACHED_CANDIDATE_TABLES);
+    private final CandidateCache<CandidateFilter, WeightedTable<TextSnippet>> textSnippetCache = new CandidateCache<>(MAX_CACHED_CANDIDATE_TABLES);
+
+    CompiledBingoConfiguration(BingoBoardMetadata boardMetadata, List<TileGenerator> tileGenerators, Map<String, List<TextSnippet>> textSnippets,
+                               Map<String, ValueProvider> numberValueProviders, List<Category> categories, List<Difficulty> difficulties) {
+        this.boardMetadata = boardMetadata;
+        this.tileGenerators = Collections.unmodifiableList(new ArrayList<>(tileGenerators));
+        this.numberValueProviders = Collections.unmodifiableMap(new HashMap<>(numberValueProviders));
+        this.categories = Collections.unmodifiableList(new ArrayList<>(categories));
+        this.difficulties = Collections.unmodifiableList(new ArrayList<>(difficulties));
+        Map<String, Category> byName = new HashMap<>();
+        for (int i = 0; i < this.categories.size(); i++) {
+            this.categories.get(i).setId(i);
+            byName.putIfAbsent(this.categories.get(i).getName(), this.categories.get(i));
+        }
+        this.categoriesByName = Collections.unmodifiableMap(byName);
+        for (Category category : this.categories) {
+            category.compileMasks();
+        }
+
+        Map<String, List<TextSnippet>> snippetsCopy = new HashMap<>();
+        for (Map.Entry<String, List<TextSnippet>> entry : textSnippets.entrySet()) {
+            snippetsCopy.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        this.textSnippets = Collections.unmodifiableMap(snippetsCopy);
+
+        Map<Difficulty, List<TileGenerator>> byDifficulty = new HashMap<>();
+        for (TileGenerator tileGenerator : this.tileGenerators) {
+            if (tileGenerator.getDifficulties().isEmpty()) {
+                for (Difficulty difficulty : this.difficulties) {
+                    byDifficulty.computeIfAbsent(difficulty, k -> new ArrayList<>()).add(tileGenerator);
+                }
+            } else {
+                for (String difficulty : tileGenerator.getDifficulties()) {
+                    byDifficulty.computeIfAbsent(getDifficulty(difficulty), k -> new ArrayList<>()).add(tileGenerator);
+                }
+            }
+        }
+        byDifficulty.replaceAll((difficulty, generators) -> Collections.unmodifiableList(generators));
+        this.tileGeneratorsByDifficulty = Collections.unmodifiableMap(byDifficulty);
+
+        for (List<TextSnippet> snippets : this.textSnippets.values()) {
+            for (TextSnippet textSnippet : snippets) {
+                textSnippet.setTemplate(TextTemplate.compile(textSnippet.getText(), this.textSnippets, this.numberValueProviders));
+                textSnippet.compileMasks();
+                textSnippet.freeze();
+            }
+        }
+        for (TileGenerator tileGenerator : this.tileGenerators) {
+            tileGenerator.setTemplate(TextTemplate.compile(tileGenerator.getText(), this.textSnippets, this.numberValueProviders));
+            tileGenerator.compileMasks();
+            tileGenerator.freeze();
+        }
+        for (Category category : this.categories) {
+            category.freeze();
+        }
+
+        this.tileGeneratorTable = Candidates.ofTileGenerators(this.tileGenerators);
+        Map<Difficulty, Candidates<TileGenerator>> tablesByDifficulty = new HashMap<>();
+        byDifficulty.forEach((difficulty, generators) -> tablesByDifficulty.put(difficulty, Candidates.ofTileGenerators(generators)));
+        this.tileGeneratorTablesByDifficulty = Collections.unmodifiableMap(tablesByDifficulty);
+        for (Map.Entry<String, List<TextSnippet>> entry : this.textSnippets.entrySet()) {
+            textSnippetTables.put(Collections.singletonList(entry.getKey()), Candidates.ofTextSnippets(entry.getValue()));
+        }
+
+        Map<TextTemplate.SnippetNode, ConditionalSnippets> conditional = new IdentityHashMap<>();
+        Map<List<Object>, ConditionalSnippets> conditionalByKey = new HashMap<>();
+        List<TextTemplate> templates = new ArrayList<>();
+        this.textSnippets.values().forEach(snippets -> snippets.forEach(snippet -> templates.add(snippet.getTemplate())));
+        this.tileGenerators.forEach(tileGenerator -> templates.add(tileGenerator.getTemplate()));
+        for (TextTemplate template : templates) {
+            for (TextTemplate.Node node : template.getNodes()) {
+                if (!(node instanceof TextTemplate.SnippetNode)) continue;
+                TextTemplate.SnippetNode snippetNode = (TextTemplate.SnippetNode) node;
+                // placeholders with the same snippet types and conditions share their tables
+                List<Object> key = Arrays.asList(snippetNode.getSnippetTypes(), snippetNode.getConditions());
+                conditional.put(snippetNode, conditionalByKey.computeIfAbsent(key, k -> createConditionalSnippets(snippetNode, template.getText())));
+            }
+        }
+        this.conditionalSnippets = Collections.unmodifiableMap(conditional);
+
+        Map<TextSnippet, DifficultyRange> snippetRanges = new IdentityHashMap<>();
+        Map<TileGenerator, DifficultyRange> generatorRanges = new IdentityHashMap<>();
+        for (TileGenerator tileGenerator : this.tileGenerators) {
+            generatorRanges.put(tileGenerator, DifficultyRange.of(tileGenerator.getDifficulty())
+                    .plus(estimateDifficultyRange(tileGenerator.getTemplate(), snippetRanges)));
+        }
+        this.difficultyRanges = Collections.unmodifiableMap(generatorRanges);
+    }
+
+    public BingoBoardMetadata getBoardMetadata() {
+        return boardMetadata;
+    }
+
+    public List<TileGenerator> getTileGenerators() {
+        return tileGenerators;
+    }
+
+    public Map<Difficulty, List<TileGenerator>> getTileGeneratorsByDifficulty() {
+        return tileGeneratorsByDifficulty;
+    }
+
+    public Map<String, List<TextSnippet>> getTextSnippets() {
+        return textSnippets;
+    }
+
+    public Map<String, ValueProvider> getValueProviders() {
+        return numberValueProviders;
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public List<Difficulty> getDifficulties() {
+        return difficulties;
+    }
+
+    /**
+     * @return The cache of tile generator tables filtered by difficulty, must-be and may-not-be categories.
+     */
+    public CandidateCache<?, ?> getTileGeneratorCache() {
+        return tileGeneratorCache;
+    }
+
+    /**
+     * @return The cache of text snippet tables filtered by must-be and may-not-be categories.
+     */
+    public CandidateCache<?, ?> getTextSnippetCache() {
+        return textSnippetCache;
+    }
+
+    /**
+     * @return The position of the category in {@link #getCategories()} or <code>-1</code> if the category is not part of this configuration.
+     */
+    public int getCategoryIndex(Category category) {
+        int id = category.getId();
+        if (id >= 0 && id < categories.size() && categories.get(id) == category) {
+            return id;
+        }
+        Category known = categoriesByName.get(category.getName());
+        return known == null ? -1 : known.getId();
+    }
+
+    /**
+     * @return The category with the given name or <code>null</code> if this configuration does not contain it.
+     */
+    public Category getCategory(String name) {
+        return categoriesByName.get(name);
+    }
+
+    public double getDifficultyForLevel(int level) {
+        if (difficulties.isEmpty()) return 1.0;
+        if (difficulties.size() < level) level = difficulties.size();
+        return difficulties.get(level - 1).getScore();
+    }
+
+    public double getDifficultyForLevel(String level) {
+        return difficulties.stream().filter(d -> d.getName().equalsIgnoreCase(level)).findFirst().map(Difficulty::getScore).orElse(1.0);
+    }
+
+    public Map<Category, Integer> countCategories(List<BingoTile> tiles) {
+        Map<Category, Integer> counts = new HashMap<>();
+        for (BingoTile tile : tiles) {
+            for (Category category : tile.getCategories()) {
+                counts.compute(category, (k, v) -> v == null ? 1 : v + 1);
+            }
+        }
+        for (Category category : categories) {
+            counts.putIfAbsent(category, 0);
+        }
+        return counts;
+    }
+
+    public BingoTile generateTile(List<BingoTile> existingTiles, int destAmount, double destinationDifficulty, Random random) {
+        GenerationState state = new GenerationState(this, destAmount, destinationDifficulty);
+        state.addAll(existingTiles);
+        return generateTile(state, random);
+    }
+
+    /**
+     * Generates a new tile for the board in the given state. The tile is not added to the state.<br>
+     * The text, tooltips and categories of the attempts are collected in the {@link GenerationScratch} of the state, only
+     * the returned tile and its strings are allocated.
+     */
+    public BingoTile generateTile(GenerationState state, Random random) {
+        TileCandidate tile = state.getScratch().candidate;
+        generateTile(state, tile, random);
+        BingoTile bingoTile = tile.toTile(categories);
+        tile.clear();
+        return bingoTile;
+    }
+
+    /**
+     * Generates a new tile for the board in the given state into the candidate, without creating a {@link BingoTile}.
+     * The tile is not added to the state.
+     */
+    void generateTile(GenerationState state, TileCandidate tile, Random random) {
+        double destinationDifficulty = state.getDestinationDifficulty();
+        GenerationListener listener = state.getListener();
+        GenerationScratch scratch = state.getScratch();
+        Candidates<TileGenerator> allowedTileGeneratorsByDifficulty = getAllowedTileGenerators(destinationDifficulty, listener);
+
+        // the state keeps track of what categories are allowed and not allowed in the existing tiles
+        CategoryMask createdMustBeCategories = state.getMustBeCategories();
+        CategoryMask createdMayNotBeCategories = state.getMayNotBeCategories();
+        int categoryMaskVersion = state.getCategoryMaskVersion();
+
+        if (scratch.generatorSource != allowedTileGeneratorsByDifficulty) {
+            scratch.generatorCandidates.clear();
+            scratch.generatorSource = allowedTileGeneratorsByDifficulty;
+        }
+        GeneratorCandidates generators = scratch.generatorCandidates.get(categoryMaskVersion);
+        if (generators == null) {
+            GeneratorCandidates filtered = getTileGenerators(allowedTileGeneratorsByDifficulty, destinationDifficulty, createdMustBeCategories, createdMayNotBeCategories);
+            // the filtered table only depends on the difficulty level, the bias on the exact destination difficulty of the state
+            generators = destinationDifficulty == -1 ? filtered : scratch.biasedGenerators.computeIfAbsent(filtered,
+                    candidates -> new GeneratorCandidates(biasByDifficultyRange(candidates.table, destinationDifficulty), candidates.categoryFallback));
+            scratch.generatorCandidates.put(categoryMaskVersion, generators);
+        }
+        if (generators.categoryFallback) {
+            listener.onEvent(GenerationEvent.CATEGORY_FALLBACK, 1);
+        }
+        TileGenerator selectedGenerator = generators.table.next(random);
+        TextTemplate template = selectedGenerator.getTemplate();
+        // no attempt can get closer to the destination difficulty than the closest difficulty the generator can reach
+        double closestReachableDistance = getDifficultyRange(selectedGenerator).distanceTo(destinationDifficulty) + DIFFICULTY_EPSILON;
+
+        boolean foundClosest = false;
+        double currentClosestDifficulty = Double.MAX_VALUE;
+        StringBuilder currentClosestText = tile.text;
+        StringBuilder currentClosestTooltips = scratch.bestTooltips;
+        CategoryMask.Builder bestTileCategories = tile.snippetCategories.clear();
+        CategoryMask.Builder currentTileCategories = scratch.tileCategories;
+        CategoryMask.Builder currentTileAntisynergies = scratch.tileAntisynergies;
+        int repeatCount = 0;
+        int maxAttempts = destinationDifficulty == -1 ? 1 : 3;
+        for (int i = 0; i < maxAttempts; i++) { // try finding a better tile 3 times
+            scratch.difficulty = selectedGenerator.getDifficulty();
+            currentTileCategories.clear();
+            currentTileAntisynergies.clear();
+            scratch.tooltips.setLength(0);
+            scratch.tooltipCount = 0;
+            CharSequence tmp = insertSnippets(template, state, scratch, createdMustBeCategories, createdMayNotBeCategories, destinationDifficulty, random);
+            listener.onEvent(GenerationEvent.TEXT_EXPANSION, 1);
+
+            if (destinationDifficulty != -1) {
+                if (repeatCount < 40) {
+                    if (hasAntisynergies(currentTileCategories, currentTileAntisynergies, selectedGenerator)) {
+                        listener.onEvent(GenerationEvent.ANTISYNERGY_RETRY, 1);
+                        repeatCount++;
+                        i--;
+                        continue;
+                    }
+                    if (state.containsText(tmp)) {
+                        listener.onEvent(GenerationEvent.DUPLICATE_RETRY, 1);
+                        repeatCount++;
+                        i--;
+                        continue;
+                    }
+                }
+            }
+            double currentDistance = Math.abs(scratch.difficulty - destinationDifficulty);
+            double currentClosestDistance = Math.abs(currentClosestDifficulty - destinationDifficulty);
+            if (currentDistance < currentClosestDistance) {
+                foundClosest = true;
+                currentClosestText.setLength(0);
+                currentClosestText.append(tmp);
+                currentClosestDifficulty = scratch.difficulty;
+                bestTileCategories.set(currentTileCategories);
+                currentClosestTooltips.setLength(0);
+                currentClosestTooltips.append(scratch.tooltips);
+                if (currentDistance <= closestReachableDistance) break;
+            }
+        }
+        if (foundClosest) {
+            currentClosestDifficulty -= selectedGenerator.getDifficulty();
+        } else {
+            currentClosestText.setLength(0);
+            currentClosestText.append(selectedGenerator.getText());
+        }
+        StringBuilder tooltips = tile.tooltip;
+        tooltips.setLength(0);
+        if (selectedGenerator.getTooltip() != null) tooltips.append(selectedGenerator.getTooltip());
+        if (foundClosest && currentClosestTooltips.length() > 0) {
+            if (selectedGenerator.getTooltip() != null) tooltips.append('\n');
+            tooltips.append(currentClosestTooltips);
+        }
+
+        tile.difficulty = currentClosestDifficulty + selectedGenerator.getDifficulty();
+        tile.generator = selectedGenerator;
+        tile.complete();
+    }
+
+    /**
+     * @return The difficulties that the tiles of the generator can have, estimated from the snippets and value providers
+     * that its text may insert.
+     */
+    public DifficultyRange getDifficultyRange(TileGenerator tileGenerator) {
+        DifficultyRange range = difficultyRanges.get(tileGenerator);
+        return range != null ? range : DifficultyRange.UNBOUNDED;
+    }
+
+    /**
+     * @param snippetRanges The ranges of the snippets including their own difficulty. Snippets that are still being
+     *                      estimated are contained with <code>null</code>, a snippet that inserts itself is unbounded.
+     * @return The range of the sum of the difficulties that the placeholders of the template add.
+     */
+    private DifficultyRange estimateDifficultyRange(TextTemplate template, Map<TextSnippet, DifficultyRange> snippetRanges) {
+        DifficultyRange range = DifficultyRange.ZERO;
+        for (TextTemplate.Node node : template.getNodes()) {
+            if (node instanceof TextTemplate.SnippetNode) {
+                TextTemplate.SnippetNode snippetNode = (TextTemplate.SnippetNode) node;
+                // the conditions and category rules only remove snippets, the snippets of the static conditions are an upper bound
+                Candidates<TextSnippet> candidates = snippetNode.getConditions().isEmpty()
+                        ? getSnippets(snippetNode.getSnippetTypes()) : getConditionalSnippets(snippetNode).candidates;
+                DifficultyRange snippetsRange = null;
+                for (TextSnippet snippet : candidates.table.getElements()) {
+                    DifficultyRange snippetRange;
+                    if (snippetRanges.containsKey(snippet)) {
+                        snippetRange = snippetRanges.get(snippet);
+                        if (snippetRange == null) return DifficultyRange.UNBOUNDED;
+                    } else {
+                        snippetRanges.put(snippet, null);
+                        snippetRange = DifficultyRange.of(snippet.getDifficulty())
+                                .plus(estimateDifficultyRange(snippet.getTemplate(), snippetRanges));
+                        snippetRanges.put(snippet, snippetRange);
+                    }
+                    snippetsRange = snippetsRange == null ? snippetRange : snippetsRange.union(snippetRange);
+                }
+                if (snippetsRange != null) range = range.plus(snippetsRange);
+            } else if (node instanceof TextTemplate.ValueProviderNode) {
+                DifficultyRange scoreRange = null;
+                for (ValueProvider.NumberProvider provider : ((TextTemplate.ValueProviderNode) node).getValueProvider().getDifficultyProviders().values()) {
+                    DifficultyRange providerRange = DifficultyRange.of(provider.getScore());
+                    scoreRange = scoreRange == null ? providerRange : scoreRange.union(providerRange);
+                }
+                if (scoreRange != null) range = range.plus(scoreRange);
+            }
+        }
+        return range;
+    }
+
+    private Candidates<TileGenerator> getAllowedTileGenerators(double destinationDifficulty, GenerationListener listener) {
+        if (destinationDifficulty == -1) {
+            return tileGeneratorTable;
+        }
+        Candidates<TileGenerator> allowedTileGeneratorsByDifficulty = tileGeneratorTablesByDifficulty.get(getDifficulty(destinationDifficulty));
+        if (allowedTileGeneratorsByDifficulty == null || allowedTileGeneratorsByDifficulty.table.isEmpty()) {
+            LOG.debug("No tile generators found for difficulty [{}], using all generators", destinationDifficulty);
+            listener.onEvent(GenerationEvent.DIFFICULTY_FALLBACK, 1);
+            return tileGeneratorTable;
+        }
+        return allowedTileGeneratorsByDifficulty;
+    }
+
+    /**
+     * Down-weights the tile generators that can not get close to the destination difficulty: the weight of a generator is
+     * divided by <code>1 + distance / {@value #DIFFICULTY_BIAS_DISTANCE}</code>, where the distance is the one of its closest
+     * reachable difficulty, see {@link #getDifficultyRange(TileGenerator)}.<br>
+     * Generators are only made less likely and never removed, as the destination is the average of the board and tiles
+     * far from it are still needed to balance it.
+     */
+    private WeightedTable<TileGenerator> biasByDifficultyRange(WeightedTable<TileGenerator> tileGenerators, double destinationDifficulty) {
+        return WeightedTable.of(tileGenerators.getElements(),
+                tileGenerator -> tileGenerator.getWeight() / (1 + getDifficultyRange(tileGenerator).distanceTo(destinationDifficulty) / DIFFICULTY_BIAS_DISTANCE));
+    }
+
+    /**
+     * @return The cached tile generators of the allowed generators that meet the category rules of the board.
+     */
+    private GeneratorCandidates getTileGenerators(Candidates<TileGenerator> allowedTileGeneratorsByDifficulty, double destinationDifficulty,
+                                                  CategoryMask createdMustBeCategories, CategoryMask createdMayNotBeCategories) {
+        Difficulty destDiff = destinationDifficulty != -1 ? getDifficulty(destinationDifficulty) : null;
+        // only the categories that the generators can contain influence the filter result, so the key is limited to those.
+        // if none of the must-be categories can be contained, the filter removes all generators and falls back to all of
+        // them, so the complete must-be categories are kept in the key for that
+        CategoryMask mustBe = createdMustBeCategories.and(allowedTileGeneratorsByDifficulty.derivedCategories);
+        CandidateFilter generatorFilter = new CandidateFilter(destDiff,
+                mustBe.isEmpty() ? createdMustBeCategories : mustBe,
+                createdMayNotBeCategories.and(allowedTileGeneratorsByDifficulty.categories));
+        return tileGeneratorCache.get(generatorFilter, filter -> filterTileGenerators(allowedTileGeneratorsByDifficulty.table, destDiff, filter));
+    }
+
+    /**
+     * Looks up the tile generators for the category rules like {@link #generateTile(GenerationState, Random)} does.
+     *
+     * @param cached Whether to look the generators up in the cache with the limited key or to filter them with the complete
+     *               category masks, for comparing the two.
+     */
+    GeneratorCandidates getTileGenerators(double destinationDifficulty, CategoryMask createdMustBeCategories, CategoryMask createdMayNotBeCategories, boolean cached) {
+        Candidates<TileGenerator> allowedTileGeneratorsByDifficulty = getAllowedTileGenerators(destinationDifficulty, GenerationListener.NONE);
+        if (cached) {
+            return getTileGenerators(allowedTileGeneratorsByDifficulty, destinationDifficulty, createdMustBeCategories, createdMayNotBeCategories);
+        }
+        Difficulty destDiff = destinationDifficulty != -1 ? getDifficulty(destinationDifficulty) : null;
+        return filterTileGenerators(allowedTileGeneratorsByDifficulty.table, destDiff, new CandidateFilter(destDiff, createdMustBeCategories, createdMayNotBeCategories));
+    }
+
+    private GeneratorCandidates filterTileGenerators(WeightedTable<TileGenerator> allowedTileGeneratorsByDifficulty, Difficulty destDiff, CandidateFilter filter) {
+        CategoryMask createdMustBeCategories = filter.mustBe;
+        CategoryMask createdMayNotBeCategories = filter.mayNotBe;
+        List<TileGenerator> filteredTileGenerators = new ArrayList<>(allowedTileGeneratorsByDifficulty.getElements());
+        // remove all tile generators that are not the right difficulty level
+        if (destDiff != null) {
+            for (int i = filteredTileGenerators.size() - 1; i >= 0; i--) {
+                List<String> difficulties = filteredTileGenerators.get(i).getDifficulties();
+                if (difficulties.size() > 0 && !difficulties.contains(destDiff.getName())) {
+                    filteredTileGenerators.remove(i);
+                }
+            }
+        }
+        // remove all tile generators that do not match the must-be categories
+        if (!createdMustBeCategories.isEmpty()) {
+            for (int i = filteredTileGenerators.size() - 1; i >= 0; i--) {
+                TileGenerator tileGenerator = filteredTileGenerators.get(i);
+                if (!tileGenerator.getDerivedCategoryMask().intersects(createdMustBeCategories)) {
+                    filteredTileGenerators.remove(i);
+                }
+            }
+        }
+        // remove all tile generators that match the may-not-be categories
+        if (!createdMayNotBeCategories.isEmpty()) {
+            for (int i = filteredTileGenerators.size() - 1; i >= 0; i--) {
+                TileGenerator tileGenerator = filteredTileGenerators.get(i);
+                if (tileGenerator.containsAnyCategory(createdMayNotBeCategories)) {
+                    filteredTileGenerators.remove(i);
+                }
+            }
+        }
+
+        if (filteredTileGenerators.isEmpty()) {
+            //LOG.warn("No generator for categories [MUST {}] [CANNOT {}], using all [{}]", createdMustBeCategories, createdMayNotBeCategories, allowedTileGeneratorsByDifficulty.size());
+            return new GeneratorCandidates(allowedTileGeneratorsByDifficulty, true);
+        }
+        if (filteredTileGenerators.size() == allowedTileGeneratorsByDifficulty.size()) {
+            return new GeneratorCandidates(allowedTileGeneratorsByDifficulty, false);
+        }
+        return new GeneratorCandidates(WeightedTable.of(filteredTileGenerators), false);
+    }
+
+    private boolean hasAntisynergies(CategoryMask.Builder tileCategories, CategoryMask.Builder tileAntisynergies, TileGenerator generator) {
+        return tileAntisynergies.intersects(generator.getCategoryMask()) || tileCategories.intersects(generator.getAntisynergyMask());
+    }
+
+    /**
+     * Expands the template and adds the difficulty, categories, antisynergies and tooltips of the inserted snippets and
+     * values to the scratch.
+     *
+     * @return The expanded text, only valid until the scratch is used again.
+     */
+    private CharSequence insertSnippets(TextTemplate template, GenerationState state, GenerationScratch scratch,
+                                        CategoryMask createdMustBeCategories, CategoryMask createdMayNotBeCategories,
+                                        double destinationDifficulty, Random random) {
+        if (!template.containsPlaceholders()) {
+            return template.getText();
+        }
+
+        TemplateExpansion expansion = scratch.expansion;
+        expansion.reset(template);
+        int placeholderCount;
+        while ((placeholderCount = expansion.beginPass()) > 0) {
+            for (int p = 0; p < placeholderCount; p++) {
+                TextTemplate.PlaceholderNode placeholder = expansion.nextPlaceholder();
+
+                if (placeholder instanceof TextTemplate.SnippetNode) {
+                    TextTemplate.SnippetNode snippetNode = (TextTemplate.SnippetNode) placeholder;
+                    TextSnippet selectedSnippet = nextTextSnippet(snippetNode, state, scratch, createdMustBeCategories, createdMayNotBeCategories, random);
+
+                    scratch.difficulty += selectedSnippet.getDifficulty();
+                    scratch.tileCategories.addAll(selectedSnippet.getCategoryMask());
+                    scratch.tileAntisynergies.addAll(selectedSnippet.getAntisynergyMask());
+                    if (selectedSnippet.getTooltip() != null) scratch.addTooltip(selectedSnippet.getTooltip());
+                    expansion.replace(selectedSnippet.getTemplate());
+
+                } else if (placeholder instanceof TextTemplate.ValueProviderNode) {
+                    Difficulty difficulty = getDifficulty(destinationDifficulty);
+                    ValueProvider.NumberProvider provider = ((TextTemplate.ValueProviderNode) placeholder).getValueProvider().getProvider(difficulty.getName());
+                    expansion.replace(provider.nextValue(random));
+                    scratch.difficulty += provider.getScore();
+
+                } else if (placeholder instanceof TextTemplate.NumberRangeNode) {
+                    TextTemplate.NumberRangeNode range = (TextTemplate.NumberRangeNode) placeholder;
+                    expansion.replace(random.nextInt(range.getMax() - range.getMin() + 1) + range.getMin());
+                }
+            }
+        }
+        return expansion.renderToBuffer();
+    }
+
+    private Candidates<TextSnippet> getSnippets(List<String> snippetTypes) {
+        Candidates<TextSnippet> table = textSnippetTables.get(snippetTypes);
+        if (table != null) return table;
+        List<TextSnippet> snippets = new ArrayList<>();
+        for (String snippetType : snippetTypes) {
+            if (textSnippets.containsKey(snippetType)) {
+                snippets.addAll(textSnippets.get(snippetType));
+            }
+        }
+        // the snippet types of a placeholder are fixed by the templates, so there is only a small amount of combinations
+        return textSnippetTables.computeIfAbsent(new ArrayList<>(snippetTypes), k -> Candidates.ofTextSnippets(snippets));
+    }
+
+    /**
+     * The snippets of a placeholder only depend on the category masks of the board, unless it has the
+     * <code>avoid_duplicates</code> condition and one of its snippets already is part of the text. The table that was last
+     * used for the placeholder is reused as long as the masks do not change.
+     */
+    private TextSnippet nextTextSnippet(TextTemplate.SnippetNode snippetNode, GenerationState state, GenerationScratch scratch,
+                                        CategoryMask createdMustBeCategories, CategoryMask createdMayNotBeCategories, Random random) {
+        ConditionalSnippets conditional = getConditionalSnippets(snippetNode);
+        if (conditional.avoidDuplicates
+            && collectRemainingSnippets(conditional, scratch.expansion.renderToBuffer(), scratch.remainingSnippets)) {
+            if (scratch.remainingSnippets.isEmpty()) {
+                // no snippet meets all conditions, which falls back to all snippets of the placeholder
+                return getTextSnippets(snippetNode.getSnippetTypes(), getSnippets(snippetNode.getSnippetTypes()), createdMustBeCategories, createdMayNotBeCategories).next(random);
+            }
+            List<TextSnippet> remaining = filterByCategories(scratch.remainingSnippets, createdMustBeCategories, createdMayNotBeCategories,
+                    scratch.mustBeSnippets, scratch.mayNotBeSnippets);
+            return WeightedTable.next(remaining, scratch.snippetWeights(remaining.size()), random);
+        }
+        GenerationScratch.Memo<WeightedTable<TextSnippet>> candidates = scratch.getSnippetCandidates(snippetNode);
+        int categoryMaskVersion = state.getCategoryMaskVersion();
+        WeightedTable<TextSnippet> table = candidates.get(categoryMaskVersion);
+        if (table == null) {
+            table = getTextSnippets(conditional.source, conditional.candidates, createdMustBeCategories, createdMayNotBeCategories);
+            candidates.put(categoryMaskVersion, table);
+        }
+        return table.next(random);
+    }
+
+    /**
+     * Collects the snippets that are not part of the text so far into the reused list.
+     *
+     * @return Whether any of the snippets is part of the text, otherwise the list is not filled.
+     */
+    private static boolean collectRemainingSnippets(ConditionalSnippets conditional, CharSequence textSoFar, List<TextSnippet> remaining) {
+        List<TextSnippet> snippets = conditional.candidates.table.getElements();
+        boolean duplicates = false;
+        for (int i = 0; i < snippets.size(); i++) {
+            boolean duplicate = SnippetCondition.contains(textSoFar, snippets.get(i).getText());
+            if (duplicate && !duplicates) {
+                duplicates = true;
+                remaining.clear();
+                for (int j = 0; j < i; j++) {
+                    remaining.add(snippets.get(j));
+                }
+            } else if (!duplicate && duplicates) {
+                remaining.add(snippets.get(i));
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * @param source The key of the candidates in the snippet cache.
+     */
+    private WeightedTable<TextSnippet> getTextSnippets(Object source, Candidates<TextSnippet> candidates, CategoryMask createdMustBeCategories, CategoryMask createdMayNotBeCategories) {
+        WeightedTable<TextSnippet> allSnippets = candidates.table;
+        if (createdMustBeCategories.isEmpty() && createdMayNotBeCategories.isEmpty()) {
+            return allSnippets;
+        }
+
+        // a must-be category that none of the snippets has removes all snippets, which falls back to not filtering
+        CandidateFilter snippetFilter = new CandidateFilter(source,
+                candidates.categories.containsAll(createdMustBeCategories) ? createdMustBeCategories : CategoryMask.EMPTY,
+                createdMayNotBeCategories.and(candidates.categories));
+        return textSnippetCache.get(snippetFilter,
+                filter -> toTable(allSnippets, filterByCategories(allSnippets.getElements(), filter.mustBe, filter.mayNotBe, null, null)));
+    }
+
+    private ConditionalSnippets getConditionalSnippets(TextTemplate.SnippetNode snippetNode) {
+        ConditionalSnippets conditional = conditionalSnippets.get(snippetNode);
+        // templates that were not compiled with this configuration are resolved on every use
+        return conditional != null ? conditional : createConditionalSnippets(snippetNode, snippetNode.getSource());
+    }
+
+    /**
+     * Parses the conditions of the placeholder and evaluates all but the dynamic ones for its snippets.
+     */
+    private ConditionalSnippets createConditionalSnippets(TextTemplate.SnippetNode snippetNode, String context) {
+        List<SnippetCondition> staticConditions = new ArrayList<>();
+        boolean avoidDuplicates = false;
+        for (String condition : snippetNode.getConditions()) {
+            SnippetCondition snippetCondition = SnippetCondition.parse(condition, context);
+            if (snippetCondition.isDynamic()) {
+                avoidDuplicates = true;
+            } else {
+                staticConditions.add(snippetCondition);
+            }
+        }
+        Candidates<TextSnippet> allSnippets = getSnippets(snippetNode.getSnippetTypes());
+        List<TextSnippet> matching = new ArrayList<>();
+        for (TextSnippet snippet : allSnippets.table.getElements()) {
+            if (staticConditions.stream().allMatch(condition -> condition.matches(snippet, null))) matching.add(snippet);
+        }
+        if (matching.isEmpty()) {
+            // no snippet meets all conditions, which falls back to all snippets of the placeholder
+            return new ConditionalSnippets(snippetNode.getSnippetTypes(), allSnippets, false);
+        }
+        if (matching.size() == allSnippets.table.getElements().size()) {
+            return new ConditionalSnippets(snippetNode.getSnippetTypes(), allSnippets, avoidDuplicates);
+        }
+        return new ConditionalSnippets(null, Candidates.ofTextSnippets(matching), avoidDuplicates);
+    }
+
+    private static WeightedTable<TextSnippet> toTable(WeightedTable<TextSnippet> allSnippets, List<TextSnippet> snippets) {
+        return snippets == allSnippets.getElements() ? allSnippets : WeightedTable.of(snippets);
+    }
+
+    /**
+     * @param mustBeBuffer   A reused list to collect the snippets with the must-be categories in or <code>null</code> to
+     *                       create a new list. Must not be the list of the snippets.
+     * @param mayNotBeBuffer A reused list to collect the snippets without the may-not-be categories in or <code>null</code>
+     *                       to create a new list. Must not be any of the other lists.
+     * @return The filtered snippets, the given snippets if none were removed.
+     */
+    private static List<TextSnippet> filterByCategories(List<TextSnippet> limitedSnippets, CategoryMask createdMustBeCategories, CategoryMask createdMayNotBeCategories,
+                                                        List<TextSnippet> mustBeBuffer, List<TextSnippet> mayNotBeBuffer) {
+        if (!createdMustBeCategories.isEmpty()) {
+            List<TextSnippet> filteredSnippets = mustBeBuffer != null ? mustBeBuffer : new ArrayList<>();
+            filteredSnippets.clear();
+            for (int i = 0; i < limitedSnippets.size(); i++) {
+                TextSnippet snippet = limitedSnippets.get(i);
+                if (snippet.getCategoryMask().containsAll(createdMustBeCategories)) filteredSnippets.add(snippet);
+            }
+            if (filteredSnippets.size() == 0) {
+                //LOG.warn("No snippets found for type {} with must-be categories {}", snippetTypes, createdMustBeCategories);
+            } else {
+                limitedSnippets = filteredSnippets;
+            }
+        }
+
+        if (!createdMayNotBeCategories.isEmpty()) {
+            List<TextSnippet> filteredSnippets = mayNotBeBuffer != null ? mayNotBeBuffer : new ArrayList<>();
+            filteredSnippets.clear();
+            for (int i = 0; i < limitedSnippets.size(); i++) {
+                TextSnippet snippet = limitedSnippets.get(i);
+                if (!snippet.getCategoryMask().intersects(createdMayNotBeCategories)) filteredSnippets.add(snippet);
+            }
+            if (filteredSnippets.size() == 0) {
+                //LOG.warn("No snippets found for type {} with may-not categories {}", snippetTypes, createdMayNotBeCategories);
+            } else {
+                limitedSnippets = filteredSnippets;
+            }
+        }
+
+        return limitedSnippets;
+    }
+
+    public Difficulty getDifficulty(double difficulty) {
+        double closestDifficulty = Double.MAX_VALUE;
+        Difficulty closestDifficultyDifficulty = null;
+        for (int i = 0; i < difficulties.size(); i++) {
+            Difficulty difficultyDifficulty = difficulties.get(i);
+            double currentDifficulty = Math.abs(difficultyDifficulty.getScore() - difficulty);
+            if (currentDifficulty < closestDifficulty) {
+                closestDifficulty = currentDifficulty;
+                closestDifficultyDifficulty = difficultyDifficulty;
+            }
+        }
+        return closestDifficultyDifficulty;
+    }
+
+    public Difficulty getDifficulty(String difficulty) {
+        for (Difficulty difficultyDifficulty : difficulties) {
+            if (difficultyDifficulty.getName().equals(difficulty)) {
+                return difficultyDifficulty;
+            }
+        }
+        return null;
+    }
+
+    public <T extends Weightable> T getRandom(Collection<T> collection, Random random) {
+        double totalWeight = collection.stream().mapToDouble(Weightable::getWeight).sum();
+        double randomValue = random.nextDouble() * totalWeight;
+        double currentWeight = 0;
+        for (T weightable : collection) {
+            currentWeight += weightable.getWeight();
+            if (currentWeight >= randomValue) {
+                return weightable;
+            }
+        }
+        return collection.stream().findAny().orElse(null);
+    }
+
+    /**
+     * A weighted table together with all categories that its elements contain.
+     */
+    private static final class Candidates<T extends Weightable> {
+        private final WeightedTable<T> table;
+        private final CategoryMask categories;
+        private final CategoryMask derivedCategories;
+
+        private Candidates(WeightedTable<T> table, CategoryMask categories, CategoryMask derivedCategories) {
+            this.table = table;
+            this.categories = categories;
+            this.derivedCategories = derivedCategories;
+        }
+
+        private static Candidates<TileGenerator> ofTileGenerators(List<TileGenerator> tileGenerators) {
+            CategoryMask.Builder categories = new CategoryMask.Builder();
+            CategoryMask.Builder derivedCategories = new CategoryMask.Builder();
+            for (TileGenerator tileGenerator : tileGenerators) {
+                categories.addAll(tileGenerator.getCategoryMask());
+                derivedCategories.addAll(tileGenerator.getDerivedCategoryMask());
+            }
+            return new Candidates<>(WeightedTable.of(tileGenerators), categories.build(), derivedCategories.build());
+        }
+
+        private static Candidates<TextSnippet> ofTextSnippets(List<TextSnippet> textSnippets) {
+            CategoryMask.Builder categories = new CategoryMask.Builder();
+            for (TextSnippet textSnippet : textSnippets) {
+                categories.addAll(textSnippet.getCategoryMask());
+            }
+            CategoryMask mask = categories.build();
+            return new Candidates<>(WeightedTable.of(textSnippets), mask, mask);
+        }
+    }
+
+    /**
+     * The tile generators to draw from and whether the filter removed all of them and fell back to all generators of the
+     * difficulty.
+     */
+    static final class GeneratorCandidates {
+        private final WeightedTable<TileGenerator> table;
+        private final boolean categoryFallback;
+
+        private GeneratorCandidates(WeightedTable<TileGenerator> table, boolean categoryFallback) {
+            this.table = table;
+            this.categoryFallback = categoryFallback;
+        }
+
+        WeightedTable<TileGenerator> getTable() {
+            return table;
+        }
+
+        boolean isCategoryFallback() {
+            return categoryFallback;
+        }
+    }
+
+    /**
+     * The snippets of a placeholder that meet its static conditions, all snippets of its types if it has no conditions.
+     */
+    private static final class ConditionalSnippets {
+        /**
+         * The key of the filtered tables in the snippet cache, the snippet types if no snippet was removed.
+         */
+        private final Object source;
+        private final Candidates<TextSnippet> candidates;
+        private final boolean avoidDuplicates;
+
+        private ConditionalSnippets(Object source, Candidates<TextSnippet> candidates, boolean avoidDuplicates) {
+            this.source = source != null ? source : this;
+            this.candidates = candidates;
+            this.avoidDuplicates = avoidDuplicates;
+        }
+    }
+
+    /**
+     * Key of a cached candidate table: the list the candidates are taken from (a difficulty for tile generators, the
+     * snippet types or the static conditions of a placeholder for snippets) and the category rules of the board they were
+     * filtered with.
+     */
+    private static final class CandidateFilter {
+        private final Object source;
+        private final CategoryMask mustBe;
+        private final CategoryMask mayNotBe;
+
+        private CandidateFilter(Object source, CategoryMask mustBe, CategoryMask mayNotBe) {
+            this.source = source;
+            this.mustBe = mustBe;
+            this.mayNotBe = mayNotBe;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CandidateFilter)) return false;
+            CandidateFilter other = (CandidateFilter) o;
+            return Objects.equals(source, other.source) && mustBe.equals(other.mustBe) && mayNotBe.equals(other.mayNotBe);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Objects.hashCode(source) + mustBe.hashCode()) + mayNotBe.hashCode();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package de.yanwittmann.bingo.generator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Binary snapshot of a loaded {@link BingoConfiguration}, so that the yaml file does not have to be parsed again as long
+ * as it does not change.<br>
+ * The snapshot contains the configuration the way it is after loading: the categories are stored once and referenced by
+ * their position in the category list, the derived categories of the snippets and tile generators are stored instead of
+ * being derived again. The lookup tables of the {@link CompiledBingoConfiguration} are built from these when reading the
+ * snapshot, just like after parsing the yaml file.<br>
+ * The header contains the SHA-256 hash of the yaml file the configuration was loaded from.
+ */
+final class ConfigurationSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigurationSnapshot.class);
+
+    private static final int MAGIC = 0x42494E47;
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_EXTENSION = ".snapshot";
+
+    private ConfigurationSnapshot() {
+    }
+
+    static BingoConfiguration load(File file, File snapshotDirectory) throws IOException {
+        byte[] yaml = Files.readAllBytes(file.toPath());
+        String hash = hash(yaml);
+        File snapshotFile = new File(snapshotDirectory, file.getName() + FILE_EXTENSION);
+
+        if (snapshotFile.isFile()) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(snapshotFile))) {
+                if (hash.equals(readHeader(new DataInputStream(in)))) {
+                    BingoConfiguration configuration = readBody(new DataInputStream(in), hash);
+                    LOG.info("Loaded configuration [{}] from snapshot [{}]", file, snapshotFile);
+                    return configuration;
+                }
+                LOG.info("Snapshot [{}] is outdated, rebuilding it", snapshotFile);
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Could not read snapshot [{}], rebuilding it: {}", snapshotFile, e.toString());
+            }
+        }
+
+        BingoConfiguration configuration = new BingoConfiguration(yaml, hash);
+        File temporaryFile = null;
+        try {
+            Files.createDirectories(snapshotDirectory.toPath());
+            temporaryFile = File.createTempFile(file.getName(), FILE_EXTENSION, snapshotDirectory);
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temporaryFile))) {
+                write(configuration, out);
+            }
+            replace(temporaryFile, snapshotFile);
+            LOG.info("Wrote snapshot [{}]", snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not write snapshot [{}]: {}", snapshotFile, e.toString());
+        } finally {
+            // the temporary file only remains if writing or moving it failed
+            if (temporaryFile != null) {
+                try {
+                    Files.deleteIfExists(temporaryFile.toPath());
+                } catch (IOException e) {
+                    LOG.warn("Could not delete temporary snapshot [{}]: {}", temporaryFile, e.toString());
+                }
+            }
+        }
+        return configuration;
+    }
+
+    /**
+     * Moves the written snapshot to its destination atomically if the file system supports it, so that a concurrent
+     * {@link #load(File, File)} never reads a partly written snapshot.
+     */
+    private static void replace(File source, File destination) throws IOException {
+        try {
+            Files.move(source.toPath(), destination.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static void write(BingoConfiguration configuration, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, configuration.getSourceHash());
+
+        BingoBoardMetadata metadata = configuration.getBoardMetadata();
+        out.writeBoolean(metadata != null);
+        if (metadata != null) {
+            writeString(out, metadata.getTitle());
+            writeString(out, metadata.getGame());
+            writeString(out, metadata.getDescription());
+            writeString(out, metadata.getVersion());
+            writeStrings(out, metadata.getAuthors());
+        }
+
+        List<Category> categories = configuration.getLoadedCategories();
+        CategoryIds categoryIds = new CategoryIds();
+        out.writeInt(categories.size());
+        for (int i = 0; i < categories.size(); i++) {
+            Category category = categories.get(i);
+            categoryIds.add(category, i);
+            writeString(out, category.getName());
+            out.writeDouble(category.getMaxAbsolute());
+            out.writeDouble(category.getMaxRelative());
+            out.writeDouble(category.getMinAbsolute());
+            out.writeDouble(category.getMinRelative());
+        }
+        for (Category category : categories) {
+            writeCategories(out, category.getSynergies(), categoryIds);
+            writeCategories(out, category.getAntisynergy(), categoryIds);
+        }
+
+        Map<String, List<TextSnippet>> textSnippets = configuration.getLoadedTextSnippets();
+        out.writeInt(textSnippets.size());
+        for (Map.Entry<String, List<TextSnippet>> entry : textSnippets.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (TextSnippet snippet : entry.getValue()) {
+                writeString(out, snippet.getText());
+                writeString(out, snippet.getTooltip());
+                out.writeDouble(snippet.getDifficulty());
+                out.writeDouble(snippet.getWeight());
+                writeCategories(out, snippet.getCategories(), categoryIds);
+                writeCategories(out, snippet.getDerivedCategories(), categoryIds);
+                writeStrings(out, snippet.getTags());
+            }
+        }
+
+        List<TileGenerator> tileGenerators = configuration.getLoadedTileGenerators();
+        out.writeInt(tileGenerators.size());
+        for (TileGenerator tileGenerator : tileGenerators) {
+            writeString(out, tileGenerator.getText());
+            writeString(out, tileGenerator.getTooltip());
+            out.writeDouble(tileGenerator.getDifficulty());
+            out.writeDouble(tileGenerator.getWeight());
+            writeCategories(out, tileGenerator.getCategories(), categoryIds);
+            writeStrings(out, tileGenerator.getDifficulties());
+            writeCategories(out, tileGenerator.getDerivedCategories(), categoryIds);
+        }
+
+        List<Difficulty> difficulties = configuration.getLoadedDifficulties();
+        out.writeInt(difficulties.size());
+        for (Difficulty difficulty : difficulties) {
+            writeString(out, difficulty.getName());
+            out.writeDouble(difficulty.getScore());
+        }
+
+        Map<String, ValueProvider> valueProviders = configuration.getLoadedValueProviders();
+        out.writeInt(valueProviders.size());
+        for (Map.Entry<String, ValueProvider> entry : valueProviders.entrySet()) {
+            writeString(out, entry.getKey());
+            Map<String, ValueProvider.NumberProvider> providers = entry.getValue().getDifficultyProviders();
+            out.writeInt(providers.size());
+            for (Map.Entry<String, ValueProvider.NumberProvider> provider : providers.entrySet()) {
+                writeString(out, provider.getKey());
+                out.writeInt(provider.getValue().getMin());
+                out.writeInt(provider.getValue().getMax());
+                out.writeDouble(provider.getValue().getScore());
+            }
+        }
+        out.flush();
+    }
+
+    static BingoConfiguration read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        String hash = readHeader(in);
+        return readBody(in, hash);
+    }
+
+    /**
+     * @return The hash of the yaml file of the snapshot.
+     */
+    private static String readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a configuration snapshot");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version [" + version + "], expected [" + FORMAT_VERSION + "]");
+        }
+        return readString(in);
+    }
+
+    private static BingoConfiguration readBody(DataInputStream in, String hash) throws IOException {
+        BingoBoardMetadata metadata = null;
+        if (in.readBoolean()) {
+            metadata = new BingoBoardMetadata(readString(in), readString(in), readString(in), readString(in), readStrings(in));
+        }
+
+        int categoryCount = in.readInt();
+        List<Category> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            categories.add(new Category(readString(in), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble()));
+        }
+        for (Category category : categories) {
+            readCategories(in, categories).forEach(category::addSynergy);
+            readCategories(in, categories).forEach(category::addAntisynergy);
+        }
+
+        int snippetTypeCount = in.readInt();
+        Map<String, List<TextSnippet>> textSnippets = new HashMap<>();
+        for (int i = 0; i < snippetTypeCount; i++) {
+            String type = readString(in);
+            int snippetCount = in.readInt();
+            List<TextSnippet> snippets = new ArrayList<>(snippetCount);
+            for (int j = 0; j < snippetCount; j++) {
+                snippets.add(new TextSnippet(readString(in), readString(in), in.readDouble(), in.readDouble(),
+                        readCategories(in, categories), readCategories(in, categories), readStrings(in)));
+            }
+            textSnippets.put(type, snippets);
+        }
+
+        int tileGeneratorCount = in.readInt();
+        List<TileGenerator> tileGenerators = new ArrayList<>(tileGeneratorCount);
+        for (int i = 0; i < tileGeneratorCount; i++) {
+            tileGenerators.add(new TileGenerator(readString(in), readString(in), in.readDouble(), in.readDouble(),
+                    readCategories(in, categories), readStrings(in), readCategories(in, categories)));
+        }
+
+        int difficultyCount = in.readInt();
+        List<Difficulty> difficulties = new ArrayList<>(difficultyCount);
+        for (int i = 0; i < difficultyCount; i++) {
+            difficulties.add(new Difficulty(readString(in), in.readDouble()));
+        }
+
+        int valueProviderCount = in.readInt();
+        Map<String, ValueProvider> valueProviders = new HashMap<>();
+        for (int i = 0; i < valueProviderCount; i++) {
+            String name = readString(in);
+            int providerCount = in.readInt();
+            ValueProvider valueProvider = new ValueProvider();
+            for (int j = 0; j < providerCount; j++) {
+                valueProvider.putProvider(readString(in), new ValueProvider.NumberProvider(in.readInt(), in.readInt(), in.readDouble()));
+            }
+            valueProviders.put(name, valueProvider);
+        }
+
+        return new BingoConfiguration(metadata, tileGenerators, textSnippets, valueProviders, categories, difficulties, hash);
+    }
+
+    private static void writeCategories(DataOutputStream out, Collection<Category> categories, CategoryIds categoryIds) throws IOException {
+        out.writeInt(categories.size());
+        for (Category category : categories) {
+            out.writeInt(categoryIds.get(category));
+        }
+    }
+
+    /**
+     * Categories are equal by name, but the category list may contain several categories with the same name.
+     * References to a category of the list use its own position, other references use the first category with the name.
+     */
+    private static class CategoryIds {
+        private final Map<Category, Integer> byIdentity = new IdentityHashMap<>();
+        private final Map<Category, Integer> byName = new HashMap<>();
+
+        private void add(Category category, int id) {
+            byIdentity.putIfAbsent(category, id);
+            byName.putIfAbsent(category, id);
+        }
+
+        private int get(Category category) {
+            Integer id = byIdentity.get(category);
+            if (id == null) id = byName.get(category);
+            if (id == null) {
+                throw new IllegalStateException("Category [" + category + "] is not part of the configuration");
+            }
+            return id;
+        }
+    }
+
+    private static List<Category> readCategories(DataInputStream in, List<Category> categories) throws IOException {
+        int count = in.readInt();
+        List<Category> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = in.readInt();
+            if (id < 0 || id >= categories.size()) {
+                throw new IOException("Invalid category id [" + id + "]");
+            }
+            result.add(categories.get(id));
+        }
+        return result;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings == null ? -1 : strings.size());
+        if (strings == null) return;
+        for (String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count == -1) return null;
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(readString(in));
+        }
+        return strings;
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,268 @@
+package de.yanwittmann.bingo.generator;
+
+import de.yanwittmann.bingo.BingoTile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Picks the tiles of the board as a constraint problem before handing the board to another tile optimizer.<br>
+ * Tiles are generated from the snippets at random, so the tiles to pick from are sampled first: the board is filled
+ * several times and every distinct tile becomes a candidate. The antisynergies within a tile are already handled while
+ * generating it and those between tiles by the layout, so only the category limits are left to the search. A
+ * backtracking search then picks the missing tiles from the candidates, so that every category reaches its minimum and
+ * no category exceeds its maximum. The candidates are tried in the order of their distance to the destination difficulty.
+ * <br>
+ * The remaining candidates are a bit mask. Picking a tile removes the candidates of all categories that reached their
+ * maximum, and a partial board is abandoned as soon as a category can no longer reach its minimum with the remaining
+ * candidates and tiles (forward checking). The search branches on the candidates of the category with the least spare
+ * candidates. If the search ends without a solution, there is no board of these candidates that meets all limits.<br>
+ * The board is then passed to the next optimizer, which should keep the category violation low, like the
+ * {@link SimulatedAnnealingTileOptimizer}. If no solution was found within the node limit, the next optimizer starts from
+ * the unchanged board.
+ */
+public class ConstraintTileOptimizer implements TileOptimizer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConstraintTileOptimizer.class);
+
+    /**
+     * The search depth is the amount of missing tiles, larger boards are passed to the next optimizer directly.
+     */
+    private static final int MAX_SEARCHED_TILES = 1024;
+
+    private final TileOptimizer optimizer;
+    private final int candidateFills;
+    private final long maxNodes;
+
+    /**
+     * @param optimizer      The optimizer that optimizes the difficulty of the board after the search.
+     * @param candidateFills How often the board is filled to collect the candidate tiles.
+     * @param maxNodes       The maximum amount of partial boards the search checks before giving up.
+     */
+    public ConstraintTileOptimizer(TileOptimizer optimizer, int candidateFills, long maxNodes) {
+        if (optimizer == null) {
+            throw new IllegalArgumentException("Optimizer must not be null");
+        }
+        if (candidateFills < 1 || maxNodes < 1) {
+            throw new IllegalArgumentException("Candidate fills and max nodes must be at least 1: " + candidateFills + ", " + maxNodes);
+        }
+        this.optimizer = optimizer;
+        this.candidateFills = candidateFills;
+        this.maxNodes = maxNodes;
+    }
+
+    @Override
+    public String getName() {
+        return "constraint";
+    }
+
+    @Override
+    public void optimize(BingoGenerationRequest request, GenerationState state, Random random, GenerationBudget budget) {
+        int missing = state.getDestAmount() - state.size();
+        if (missing > 0 && missing <= MAX_SEARCHED_TILES) {
+            List<BingoTile> candidates = collectCandidates(state, random);
+            Search search = new Search(state, candidates, missing, budget);
+            List<BingoTile> solution = search.solve();
+            state.getListener().onEvent(GenerationEvent.SOLVER_NODE, search.nodes);
+            if (solution != null) {
+                state.addAll(solution);
+                LOG.debug("Found tiles that meet all category limits after [{}] nodes", search.nodes);
+            } else {
+                state.getListener().onEvent(GenerationEvent.SOLVER_FAILURE, 1);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(search.aborted ? "Gave up searching tiles that meet all category limits after [{}] nodes"
+                            : "No [{}] of the [{}] candidate tiles meet all category limits", search.aborted ? search.nodes : missing, candidates.size());
+                }
+            }
+        }
+        optimizer.optimize(request, state, random, budget);
+    }
+
+    /**
+     * @return The distinct tiles of several fills of the board, sorted by their distance to the destination difficulty.
+     */
+    private List<BingoTile> collectCandidates(GenerationState state, Random random) {
+        GenerationState fill = state.copy();
+        Set<String> textKeys = new HashSet<>();
+        List<BingoTile> candidates = new ArrayList<>();
+        for (int i = 0; i < candidateFills; i++) {
+            fill.restore(state);
+            fill.fill(random);
+            for (int j = state.size(); j < fill.size(); j++) {
+                BingoTile tile = fill.get(j);
+                if (!state.containsText(tile.getText()) && textKeys.add(tile.getTextKey())) {
+                    candidates.add(tile);
+                }
+            }
+        }
+        double destinationDifficulty = state.getDestinationDifficulty();
+        candidates.sort(Comparator.comparingDouble(tile -> Math.abs(tile.getDifficulty() - destinationDifficulty)));
+        return candidates;
+    }
+
+    public TileOptimizer getOptimizer() {
+        return optimizer;
+    }
+
+    public int getCandidateFills() {
+        return candidateFills;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * The backtracking search over the candidates. The candidates are identified by their position in the candidate list,
+     * the sets of candidates are bit masks of those positions.
+     */
+    private final class Search {
+        private final List<BingoTile> candidates;
+        private final int slots;
+        private final GenerationBudget budget;
+        private final int words;
+        private final int[][] candidateCategories;
+        private final long[][] candidatesOfCategory;
+        private final int[] min;
+        private final int[] max;
+        private final int[] counts;
+        private final int[] picked;
+        private final long[][] remainingByDepth;
+        private final long[][] branchesByDepth;
+        private int pickedSize = 0;
+        private long nodes = 0;
+        private boolean aborted = false;
+
+        private Search(GenerationState state, List<BingoTile> candidates, int slots, GenerationBudget budget) {
+            this.candidates = candidates;
+            this.slots = slots;
+            this.budget = budget;
+            this.words = (candidates.size() + 63) >>> 6;
+            CompiledBingoConfiguration configuration = state.getConfiguration();
+            int categoryCount = configuration.getCategories().size();
+            this.min = new int[categoryCount];
+            this.max = new int[categoryCount];
+            this.counts = new int[categoryCount];
+            this.candidatesOfCategory = new long[categoryCount][words];
+            for (int i = 0; i < categoryCount; i++) {
+                min[i] = state.getCategoryMinCount(i);
+                max[i] = state.getCategoryMaxCount(i);
+                counts[i] = state.getCategoryCount(i);
+            }
+            this.candidateCategories = new int[candidates.size()][];
+            for (int c = 0; c < candidates.size(); c++) {
+                candidateCategories[c] = candidates.get(c).getCategories().stream()
+                        .mapToInt(configuration::getCategoryIndex).filter(index -> index != -1).toArray();
+                for (int index : candidateCategories[c]) {
+                    candidatesOfCategory[index][c >>> 6] |= 1L << c;
+                }
+            }
+            this.picked = new int[slots];
+            this.remainingByDepth = new long[slots + 1][];
+            this.branchesByDepth = new long[slots + 1][];
+        }
+
+        /**
+         * @return The picked tiles or <code>null</code> if there is no solution or the search gave up.
+         */
+        private List<BingoTile> solve() {
+            long[] remaining = new long[words];
+            for (int c = 0; c < candidates.size(); c++) {
+                remaining[c >>> 6] |= 1L << c;
+            }
+            for (int i = 0; i < counts.length; i++) {
+                if (min[i] > max[i] || counts[i] > max[i]) return null;
+                if (counts[i] >= max[i]) andNot(remaining, candidatesOfCategory[i]);
+            }
+            if (!search(0, remaining)) return null;
+            List<BingoTile> tiles = new ArrayList<>(slots);
+            for (int i = 0; i < pickedSize; i++) {
+                tiles.add(candidates.get(picked[i]));
+            }
+            return tiles;
+        }
+
+        private boolean search(int depth, long[] remaining) {
+            if (++nodes > maxNodes || budget.isExpired()) {
+                aborted = true;
+                return false;
+            }
+            int missing = slots - pickedSize;
+            if (missing == 0) {
+                // the maximum of every category is kept by removing its candidates once it is reached
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] < min[i]) return false;
+                }
+                return true;
+            }
+            if (cardinality(remaining, null) < missing) return false;
+
+            // forward checking: every category must still be able to reach its minimum
+            int branchCategory = -1;
+            int leastSpare = Integer.MAX_VALUE;
+            for (int i = 0; i < counts.length; i++) {
+                int needed = min[i] - counts[i];
+                if (needed <= 0) continue;
+                if (needed > missing) return false;
+                int available = cardinality(remaining, candidatesOfCategory[i]);
+                if (available < needed) return false;
+                if (available - needed < leastSpare) {
+                    leastSpare = available - needed;
+                    branchCategory = i;
+                }
+            }
+
+            long[] branches = buffer(branchesByDepth, depth);
+            for (int w = 0; w < words; w++) {
+                branches[w] = branchCategory == -1 ? remaining[w] : remaining[w] & candidatesOfCategory[branchCategory][w];
+            }
+            long[] next = buffer(remainingByDepth, depth + 1);
+            for (int w = 0; w < words; w++) {
+                long bits = branches[w];
+                while (bits != 0) {
+                    int candidate = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    // a tried candidate is not part of any later branch, so every set of tiles is only checked once
+                    remaining[w] &= ~(1L << candidate);
+
+                    System.arraycopy(remaining, 0, next, 0, words);
+                    boolean exceeded = false;
+                    for (int index : candidateCategories[candidate]) {
+                        if (++counts[index] >= max[index]) {
+                            andNot(next, candidatesOfCategory[index]);
+                            exceeded |= counts[index] > max[index];
+                        }
+                    }
+                    picked[pickedSize++] = candidate;
+                    if (!exceeded && search(depth + 1, next)) return true;
+                    pickedSize--;
+                    for (int index : candidateCategories[candidate]) {
+                        counts[index]--;
+                    }
+                    if (aborted) return false;
+                }
+            }
+            return false;
+        }
+
+        private long[] buffer(long[][] buffers, int depth) {
+            if (buffers[depth] == null) buffers[depth] = new long[words];
+            return buffers[depth];
+        }
+
+        private int cardinality(long[] set, long[] filter) {
+            int count = 0;
+            for (int w = 0; w < words; w++) {
+                count += Long.bitCount(filter == null ? set[w] : set[w] & filter[w]);
+            }
+            return count;
+        }
+
+        private void andNot(long[] set, long[] removed) {
+            for (int w = 0; w < words; w++) {
+                set[w] &= ~removed[w];
+            }
+        }
+    }
+}
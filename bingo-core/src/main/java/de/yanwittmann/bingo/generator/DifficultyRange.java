@@ -0,0 +1,138 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.Arrays;
+
+/**
+ * The difficulties that the expansion of a text can reach, see
+ * {@link CompiledBingoConfiguration#getDifficultyRange(TileGenerator)}.<br>
+ * Most texts only insert a few snippets with a few different difficulties, so the reachable difficulties are kept as a
+ * sorted set of values as long as there are at most {@link #MAX_VALUES} of them. Beyond that, only the lowest and highest
+ * difficulty are known and every difficulty in between is considered reachable. Texts whose snippets reference each
+ * other in a cycle are unbounded.
+ */
+public final class DifficultyRange {
+
+    /**
+     * The maximum amount of distinct difficulties that are kept before falling back to the bounds only.
+     */
+    public static final int MAX_VALUES = 64;
+
+    public static final DifficultyRange ZERO = of(0);
+    public static final DifficultyRange UNBOUNDED = new DifficultyRange(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, null);
+
+    private final double min;
+    private final double max;
+    /**
+     * The sorted distinct reachable difficulties or <code>null</code> if there are too many of them.
+     */
+    private final double[] values;
+
+    private DifficultyRange(double min, double max, double[] values) {
+        this.min = min;
+        this.max = max;
+        this.values = values;
+    }
+
+    public static DifficultyRange of(double difficulty) {
+        return new DifficultyRange(difficulty, difficulty, new double[]{difficulty});
+    }
+
+    public static DifficultyRange between(double min, double max) {
+        if (!(min <= max)) {
+            throw new IllegalArgumentException("Minimum difficulty must not be larger than the maximum: " + min + " > " + max);
+        }
+        return min == max ? of(min) : new DifficultyRange(min, max, null);
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public boolean isConstant() {
+        return min == max;
+    }
+
+    /**
+     * @return Whether every reachable difficulty is known, see {@link #getValues()}.
+     */
+    public boolean isDiscrete() {
+        return values != null;
+    }
+
+    /**
+     * @return A copy of the sorted reachable difficulties or <code>null</code> if only the bounds are known.
+     */
+    public double[] getValues() {
+        return values == null ? null : values.clone();
+    }
+
+    public boolean contains(double difficulty) {
+        return values == null ? difficulty >= min && difficulty <= max : Arrays.binarySearch(values, difficulty) >= 0;
+    }
+
+    /**
+     * @return The distance of the closest reachable difficulty to the given difficulty.
+     */
+    public double distanceTo(double difficulty) {
+        if (difficulty <= min) return min - difficulty;
+        if (difficulty >= max) return difficulty - max;
+        if (values == null) return 0;
+        int index = Arrays.binarySearch(values, difficulty);
+        if (index >= 0) return 0;
+        int above = -index - 1;
+        return Math.min(values[above] - difficulty, difficulty - values[above - 1]);
+    }
+
+    /**
+     * @return The difficulties of the sum of a difficulty of this range and a difficulty of the other range.
+     */
+    public DifficultyRange plus(DifficultyRange other) {
+        double[] sums = null;
+        if (values != null && other.values != null && (long) values.length * other.values.length <= MAX_VALUES * MAX_VALUES) {
+            double[] all = new double[values.length * other.values.length];
+            for (int i = 0; i < values.length; i++) {
+                for (int j = 0; j < other.values.length; j++) {
+                    all[i * other.values.length + j] = values[i] + other.values[j];
+                }
+            }
+            sums = distinct(all, all.length);
+        }
+        return create(min + other.min, max + other.max, sums);
+    }
+
+    /**
+     * @return The difficulties that are reachable in either range.
+     */
+    public DifficultyRange union(DifficultyRange other) {
+        double[] merged = null;
+        if (values != null && other.values != null) {
+            double[] all = Arrays.copyOf(values, values.length + other.values.length);
+            System.arraycopy(other.values, 0, all, values.length, other.values.length);
+            merged = distinct(all, all.length);
+        }
+        return create(Math.min(min, other.min), Math.max(max, other.max), merged);
+    }
+
+    private static DifficultyRange create(double min, double max, double[] values) {
+        if (values != null && values.length > MAX_VALUES) values = null;
+        return new DifficultyRange(min, max, values);
+    }
+
+    private static double[] distinct(double[] values, int length) {
+        Arrays.sort(values, 0, length);
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            if (size == 0 || values[i] != values[size - 1]) values[size++] = values[i];
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public String toString() {
+        return values != null && values.length <= 8 ? Arrays.toString(values) : "[" + min + " .. " + max + "]";
+    }
+}
@@ -0,0 +1,146 @@
+package de.yanwittmann.bingo.generator;
+
+import de.yanwittmann.bingo.LayoutOptimizer;
+
+import java.time.Duration;
+
+/**
+ * Time budget for generating a single board.<br>
+ * With a budget, the {@link TileOptimizer} ignores the generation attempts of the request and keeps improving the board
+ * until the budget runs out or the board reaches the destination difficulty (within the tolerance) while meeting all
+ * category limits, whichever comes first. The board found so far is always used, so the result depends on the speed of
+ * the machine and is not reproducible from the seed alone.<br>
+ * The budget covers picking the tiles and laying them out on the board: the {@link LayoutOptimizer} gets what is left of
+ * the budget once the tiles are picked, see {@link LayoutOptimizer#withTimeBudget(Duration)}. After generating, the budget
+ * reports how much of it was used. An instance can only be used for a single board.
+ */
+public final class GenerationBudget {
+
+    public static final double DEFAULT_TOLERANCE = 0.01;
+
+    private final long budgetNanos;
+    private final double tolerance;
+    private long startNanos = -1;
+    private long endNanos = -1;
+    private boolean targetReached = false;
+
+    private GenerationBudget(long budgetNanos, double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("Tolerance must not be negative: " + tolerance);
+        }
+        this.budgetNanos = budgetNanos;
+        this.tolerance = tolerance;
+    }
+
+    public GenerationBudget(Duration budget, double tolerance) {
+        this(budget.toNanos(), tolerance);
+        if (budget.isNegative()) {
+            throw new IllegalArgumentException("Budget must not be negative: " + budget);
+        }
+    }
+
+    public GenerationBudget(Duration budget) {
+        this(budget, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * @return A budget without a time limit, the optimizers use the generation attempts of the request.
+     */
+    public static GenerationBudget unlimited() {
+        return new GenerationBudget(-1, DEFAULT_TOLERANCE);
+    }
+
+    void start() {
+        if (startNanos != -1) {
+            throw new IllegalStateException("Generation budget has already been used");
+        }
+        startNanos = System.nanoTime();
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    public boolean isUnlimited() {
+        return budgetNanos == -1;
+    }
+
+    /**
+     * @return Whether the time of the budget is used up. Always false for unlimited budgets.
+     */
+    public boolean isExpired() {
+        return !isUnlimited() && elapsedNanos() >= budgetNanos;
+    }
+
+    /**
+     * @return The used fraction of the budget between <code>0</code> and <code>1</code>, <code>0</code> for unlimited budgets.
+     */
+    public double getProgress() {
+        if (isUnlimited()) return 0;
+        if (budgetNanos == 0) return 1;
+        return Math.min(1.0, elapsedNanos() / (double) budgetNanos);
+    }
+
+    /**
+     * Checks whether the board reached its destination difficulty within the tolerance and meets all category limits.
+     * The result is remembered and reported by {@link #isTargetReached()}.
+     */
+    public boolean checkTargetReached(GenerationState state) {
+        return state.isFull() ? checkTargetReached(state.getDistanceToDestinationDifficulty(), state.getCategoryViolation()) : targetReached;
+    }
+
+    /**
+     * Checks a full board by its distance to the destination difficulty and its category violation.
+     *
+     * @see #checkTargetReached(GenerationState)
+     */
+    boolean checkTargetReached(double distanceToDestinationDifficulty, int categoryViolation) {
+        if (categoryViolation == 0 && distanceToDestinationDifficulty <= tolerance) {
+            targetReached = true;
+        }
+        return targetReached;
+    }
+
+    /**
+     * @return Whether generation stopped early because the board reached its target.
+     */
+    public boolean isTargetReached() {
+        return targetReached;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * @return The budget or <code>null</code> if it is unlimited.
+     */
+    public Duration getBudget() {
+        return isUnlimited() ? null : Duration.ofNanos(budgetNanos);
+    }
+
+    /**
+     * @return The time that is left of the budget, never negative, or <code>null</code> if it is unlimited.
+     */
+    public Duration getRemaining() {
+        return isUnlimited() ? null : Duration.ofNanos(Math.max(0, budgetNanos - elapsedNanos()));
+    }
+
+    /**
+     * @return The time spent between starting and finishing the board, or until now if the board is not finished yet.
+     */
+    public Duration getUsed() {
+        return Duration.ofNanos(elapsedNanos());
+    }
+
+    private long elapsedNanos() {
+        if (startNanos == -1) return 0;
+        return (endNanos == -1 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "used [" + getUsed().toMillis() + "] ms of [" + (isUnlimited() ? "unlimited" : getBudget().toMillis() + " ms") + "]" +
+               (targetReached ? " target reached" : "");
+    }
+}
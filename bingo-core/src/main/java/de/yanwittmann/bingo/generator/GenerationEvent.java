@@ -0,0 +1,53 @@
+package de.yanwittmann.bingo.generator;
+
+/**
+ * The events that are counted while a board is generated, see {@link GenerationListener}.
+ */
+public enum GenerationEvent {
+    /**
+     * A single step of the tile optimizer: a legacy remove and refill round or a simulated annealing swap.
+     */
+    ATTEMPT,
+    /**
+     * The tile optimizer kept the tiles it changed in an attempt.
+     */
+    MOVE_ACCEPTED,
+    /**
+     * The tile optimizer reverted the tiles it changed in an attempt.
+     */
+    MOVE_REJECTED,
+    /**
+     * No tile generator has the destination difficulty level, all tile generators were used instead.
+     */
+    DIFFICULTY_FALLBACK,
+    /**
+     * No tile generator matches the must-be and may-not-be categories of the board, all tile generators of the difficulty
+     * were used instead.
+     */
+    CATEGORY_FALLBACK,
+    /**
+     * The text of a tile generator was expanded, once per attempt of a tile including the retried and the discarded ones.
+     */
+    TEXT_EXPANSION,
+    /**
+     * The text of a tile was generated again, because its categories have an antisynergy with the tile generator.
+     */
+    ANTISYNERGY_RETRY,
+    /**
+     * The text of a tile was generated again, because a tile with the same text already is on the board.
+     */
+    DUPLICATE_RETRY,
+    /**
+     * A layout was scored while arranging the tiles on the board.
+     */
+    LAYOUT_EVALUATION,
+    /**
+     * A partial board was checked by the {@link ConstraintTileOptimizer}.
+     */
+    SOLVER_NODE,
+    /**
+     * The {@link ConstraintTileOptimizer} found no tiles that meet all category limits, either because there are none
+     * among the candidate tiles or because it reached its node limit.
+     */
+    SOLVER_FAILURE
+}
@@ -0,0 +1,32 @@
+package de.yanwittmann.bingo.generator;
+
+/**
+ * Receives the counters and timings of board generation, instead of logging them from within the generation loops.<br>
+ * A listener is set on a {@link BingoGenerationRequest} and shared by all boards generated with it, which includes all
+ * boards of a batch. Implementations must therefore be thread safe. The listener is called from the hot loops of the
+ * generator and should only count, like {@link GenerationMetrics} does.
+ */
+public interface GenerationListener {
+
+    /**
+     * @param event The event that happened.
+     * @param count How many times it happened.
+     */
+    void onEvent(GenerationEvent event, long count);
+
+    /**
+     * @param phase The phase of a single board that finished.
+     * @param nanos The time the phase took in nanoseconds.
+     */
+    void onPhaseFinished(GenerationPhase phase, long nanos);
+
+    GenerationListener NONE = new GenerationListener() {
+        @Override
+        public void onEvent(GenerationEvent event, long count) {
+        }
+
+        @Override
+        public void onPhaseFinished(GenerationPhase phase, long nanos) {
+        }
+    };
+}
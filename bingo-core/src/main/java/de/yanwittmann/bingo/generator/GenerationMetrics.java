@@ -0,0 +1,71 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe {@link GenerationListener} that sums up all events and phase durations it receives.
+ */
+public class GenerationMetrics implements GenerationListener {
+
+    private final LongAdder[] events = newAdders(GenerationEvent.values().length);
+    private final LongAdder[] phaseNanos = newAdders(GenerationPhase.values().length);
+    private final LongAdder[] phaseCounts = newAdders(GenerationPhase.values().length);
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    @Override
+    public void onEvent(GenerationEvent event, long count) {
+        events[event.ordinal()].add(count);
+    }
+
+    @Override
+    public void onPhaseFinished(GenerationPhase phase, long nanos) {
+        phaseNanos[phase.ordinal()].add(nanos);
+        phaseCounts[phase.ordinal()].increment();
+    }
+
+    public long getCount(GenerationEvent event) {
+        return events[event.ordinal()].sum();
+    }
+
+    /**
+     * @return The summed up duration of all finished phases of this type in nanoseconds.
+     */
+    public long getTotalNanos(GenerationPhase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    /**
+     * @return How many phases of this type have finished.
+     */
+    public long getPhaseCount(GenerationPhase phase) {
+        return phaseCounts[phase.ordinal()].sum();
+    }
+
+    public void reset() {
+        for (LongAdder adder : events) adder.reset();
+        for (LongAdder adder : phaseNanos) adder.reset();
+        for (LongAdder adder : phaseCounts) adder.reset();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (GenerationEvent event : GenerationEvent.values()) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(event.name().toLowerCase()).append(" [").append(getCount(event)).append(']');
+        }
+        for (GenerationPhase phase : GenerationPhase.values()) {
+            sb.append(' ').append(phase.name().toLowerCase()).append(" [").append(getPhaseCount(phase)).append("x ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(getTotalNanos(phase))).append(" ms]");
+        }
+        return sb.toString();
+    }
+}
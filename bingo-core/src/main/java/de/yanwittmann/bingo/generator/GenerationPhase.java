@@ -0,0 +1,19 @@
+package de.yanwittmann.bingo.generator;
+
+/**
+ * The timed phases of generating a board, see {@link GenerationListener}.
+ */
+public enum GenerationPhase {
+    /**
+     * Picking the tiles of the board using the tile optimizer.
+     */
+    TILES,
+    /**
+     * Arranging the tiles on the board using the layout optimizer.
+     */
+    LAYOUT,
+    /**
+     * The whole generation of a board.
+     */
+    BOARD
+}
@@ -0,0 +1,110 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The working buffers of {@link CompiledBingoConfiguration#generateTile(GenerationState, java.util.Random)} for a single
+ * {@link GenerationState}, so that generating a tile into a {@link TileCandidate} does not allocate anything.<br>
+ * The candidate tables that were drawn from are remembered per
+ * {@link GenerationState#getCategoryMaskVersion() category mask version} they were filtered with, so they are only looked
+ * up again when the board gets a combination of must-be and may-not-be categories it did not have before.<br>
+ * A scratch is owned by one state and is never copied or shared, just like the state it is not thread safe.
+ */
+final class GenerationScratch {
+
+    final TemplateExpansion expansion = new TemplateExpansion();
+    final CategoryMask.Builder tileCategories = new CategoryMask.Builder();
+    final CategoryMask.Builder tileAntisynergies = new CategoryMask.Builder();
+    final StringBuilder tooltips = new StringBuilder();
+    final StringBuilder bestTooltips = new StringBuilder();
+    /**
+     * The candidate that the public {@link CompiledBingoConfiguration#generateTile(GenerationState, java.util.Random)}
+     * generates into before creating the tile.
+     */
+    final TileCandidate candidate = new TileCandidate();
+    /**
+     * The snippets of a placeholder with the <code>avoid_duplicates</code> condition that are not part of the text yet,
+     * and the same snippets filtered by the must-be and may-not-be categories.
+     */
+    final List<TextSnippet> remainingSnippets = new ArrayList<>();
+    final List<TextSnippet> mustBeSnippets = new ArrayList<>();
+    final List<TextSnippet> mayNotBeSnippets = new ArrayList<>();
+    private double[] snippetWeights = new double[32];
+    /**
+     * The amount of snippet tooltips in {@link #tooltips}, empty tooltips are separated just like non-empty ones.
+     */
+    int tooltipCount;
+    /**
+     * The difficulty of the tile that is currently being expanded.
+     */
+    double difficulty;
+
+    Object generatorSource;
+    final Memo<CompiledBingoConfiguration.GeneratorCandidates> generatorCandidates = new Memo<>();
+    /**
+     * The filtered generators of the allowed generators, biased by the destination difficulty of the state. As the
+     * destination difficulty never changes, every table is biased at most once per state.
+     */
+    final Map<CompiledBingoConfiguration.GeneratorCandidates, CompiledBingoConfiguration.GeneratorCandidates> biasedGenerators = new IdentityHashMap<>();
+
+    private final Map<TextTemplate.SnippetNode, Memo<WeightedTable<TextSnippet>>> snippetCandidates = new IdentityHashMap<>();
+
+    void addTooltip(String tooltip) {
+        if (tooltipCount++ > 0) tooltips.append('\n');
+        tooltips.append(tooltip);
+    }
+
+    /**
+     * @return The buffer to draw from the given amount of snippets with, see {@link WeightedTable#next(List, double[], java.util.Random)}.
+     */
+    double[] snippetWeights(int snippets) {
+        if (snippetWeights.length < snippets * 2) snippetWeights = new double[snippets * 2];
+        return snippetWeights;
+    }
+
+    /**
+     * @return The snippet tables the placeholder was filled from.
+     */
+    Memo<WeightedTable<TextSnippet>> getSnippetCandidates(TextTemplate.SnippetNode node) {
+        Memo<WeightedTable<TextSnippet>> candidates = snippetCandidates.get(node);
+        if (candidates == null) {
+            candidates = new Memo<>();
+            snippetCandidates.put(node, candidates);
+        }
+        return candidates;
+    }
+
+    /**
+     * The values computed for the latest category mask versions of the state, in a direct mapped cache: a value replaces
+     * the value of any other version in its slot.
+     */
+    static final class Memo<V> {
+        private static final int SIZE = 64;
+        private final int[] versions = new int[SIZE];
+        private final Object[] values = new Object[SIZE];
+
+        /**
+         * @return The value of the version or <code>null</code> if none is stored for it.
+         */
+        @SuppressWarnings("unchecked")
+        V get(int version) {
+            int slot = version & (SIZE - 1);
+            return versions[slot] == version ? (V) values[slot] : null;
+        }
+
+        void put(int version, V value) {
+            int slot = version & (SIZE - 1);
+            versions[slot] = version;
+            values[slot] = value;
+        }
+
+        void clear() {
+            Arrays.fill(versions, 0);
+            Arrays.fill(values, null);
+        }
+    }
+}
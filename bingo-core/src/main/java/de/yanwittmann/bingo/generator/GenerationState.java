@@ -0,0 +1,598 @@
+package de.yanwittmann.bingo.generator;
+
+import de.yanwittmann.bingo.BingoTile;
+
+import java.util.*;
+
+/**
+ * The tiles of a board that is currently being generated, together with running totals that are kept up to date on every
+ * change: the amount of tiles per category and the sum of the tile difficulties.<br>
+ * The category limits only depend on the size of the board, so they are calculated once when the state is created.
+ * Adding or removing a tile only touches the categories of that tile, the must-be and may-not-be categories for the next
+ * tile no longer require counting the categories of the whole board.<br>
+ * The same applies to the category violation, the amount of tiles that are missing or too many for the category limits.<br>
+ * The text keys of the tiles (see {@link BingoTile#toTextKey(String)}) are counted in a {@link TextKeyTable}, so checking
+ * whether a text already exists on the board does not compare it with every tile.<br>
+ * The {@link GenerationListener} of the state receives the events of the tile generation, it is shared by all copies.<br>
+ * The tiles are held as {@link TileCandidate}s that the state reuses. Generated tiles stay in the buffers they were
+ * generated into and only become a {@link BingoTile} once they are read from the state, so the tiles that the optimizers
+ * generate and reject are never created. The optimizers move candidates around with the package private methods, the
+ * public methods work with tiles.<br>
+ * Changing the candidates and checking texts do not allocate, the buffers of the tile generation are kept in a
+ * {@link GenerationScratch} that belongs to the state.
+ */
+public class GenerationState {
+
+    /**
+     * The difficulty sum is stored as a fixed point number, so that adding and removing tiles does not accumulate
+     * rounding errors and two boards with the same tiles always have exactly the same difficulty.
+     */
+    private static final double DIFFICULTY_SCALE = 1_000_000.0;
+    /**
+     * The size of the hash table of the combinations of must-be and may-not-be categories that keep their version, see
+     * {@link #getCategoryMaskVersion()}. The table is cleared once it is half full.
+     */
+    private static final int INTERNED_CATEGORY_MASKS = 512;
+    private static final Comparator<TileCandidate> BY_DIFFICULTY_DESCENDING = (a, b) -> Double.compare(b.difficulty, a.difficulty);
+
+    private final CompiledBingoConfiguration configuration;
+    private final int destAmount;
+    private final double destinationDifficulty;
+    private TileCandidate[] tiles;
+    private int size = 0;
+    private TileCandidate[] released;
+    private int releasedSize = 0;
+    private List<BingoTile> tilesView;
+    private final int[] categoryCounts;
+    private final double[] categoryMin;
+    private final double[] categoryMax;
+    private final TextKeyTable textKeys;
+    private final StringBuilder textKey = new StringBuilder();
+    private long difficultySum = 0;
+    private int categoryViolation = 0;
+    private GenerationListener listener = GenerationListener.NONE;
+
+    private final CategoryMask.Builder mustBeBuilder = new CategoryMask.Builder();
+    private final CategoryMask.Builder mayNotBeBuilder = new CategoryMask.Builder();
+    private CategoryMask mustBeCategories = CategoryMask.EMPTY;
+    private CategoryMask mayNotBeCategories = CategoryMask.EMPTY;
+    private int categoryMaskVersion = 0;
+    private boolean categoryMasksDirty = true;
+    private CategoryMask[] internedMustBeCategories;
+    private CategoryMask[] internedMayNotBeCategories;
+    private int[] internedCategoryMaskVersions;
+    private int internedCategoryMasks = 0;
+    private int nextCategoryMaskVersion = 1;
+    private GenerationScratch scratch;
+
+    public GenerationState(CompiledBingoConfiguration configuration, int destAmount, double destinationDifficulty) {
+        this.configuration = configuration;
+        this.destAmount = destAmount;
+        this.destinationDifficulty = destinationDifficulty;
+        this.tiles = new TileCandidate[Math.max(destAmount, 1)];
+        this.released = new TileCandidate[tiles.length];
+        this.textKeys = new TextKeyTable(destAmount);
+
+        List<Category> categories = configuration.getCategories();
+        this.categoryCounts = new int[categories.size()];
+        this.categoryMin = new double[categories.size()];
+        this.categoryMax = new double[categories.size()];
+        for (int i = 0; i < categories.size(); i++) {
+            Category category = categories.get(i);
+            categoryMin[i] = Math.max(category.getMinAbsolute(), category.getMinRelative() * 0.01 * destAmount);
+            categoryMax[i] = Math.ceil(Math.min(category.getMaxAbsolute(), category.getMaxRelative() * 0.01 * destAmount));
+            categoryViolation += getCategoryViolation(i);
+        }
+    }
+
+    private GenerationState(GenerationState other) {
+        this.configuration = other.configuration;
+        this.destAmount = other.destAmount;
+        this.destinationDifficulty = other.destinationDifficulty;
+        this.tiles = new TileCandidate[other.tiles.length];
+        this.released = new TileCandidate[other.tiles.length];
+        this.textKeys = new TextKeyTable(destAmount);
+        copyTiles(other);
+        this.categoryCounts = other.categoryCounts.clone();
+        this.categoryMin = other.categoryMin;
+        this.categoryMax = other.categoryMax;
+        this.difficultySum = other.difficultySum;
+        this.categoryViolation = other.categoryViolation;
+        this.listener = other.listener;
+        this.mustBeCategories = other.mustBeCategories;
+        this.mayNotBeCategories = other.mayNotBeCategories;
+        this.categoryMaskVersion = other.categoryMaskVersion;
+        this.categoryMasksDirty = other.categoryMasksDirty;
+        if (other.internedCategoryMaskVersions != null) {
+            this.internedMustBeCategories = other.internedMustBeCategories.clone();
+            this.internedMayNotBeCategories = other.internedMayNotBeCategories.clone();
+            this.internedCategoryMaskVersions = other.internedCategoryMaskVersions.clone();
+        }
+        this.internedCategoryMasks = other.internedCategoryMasks;
+        this.nextCategoryMaskVersion = other.nextCategoryMaskVersion;
+    }
+
+    public CompiledBingoConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public GenerationListener getListener() {
+        return listener;
+    }
+
+    public void setListener(GenerationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        this.listener = listener;
+    }
+
+    public int getDestAmount() {
+        return destAmount;
+    }
+
+    public double getDestinationDifficulty() {
+        return destinationDifficulty;
+    }
+
+    /**
+     * @return An unmodifiable view of the current tiles. Use the methods of the state to modify them.
+     */
+    public List<BingoTile> getTiles() {
+        if (tilesView == null) {
+            tilesView = new AbstractList<BingoTile>() {
+                @Override
+                public BingoTile get(int index) {
+                    return GenerationState.this.get(index);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return tilesView;
+    }
+
+    /**
+     * @return The tile at the index, a generated tile is created on the first call.
+     */
+    public BingoTile get(int index) {
+        checkIndex(index, size);
+        return tiles[index].toTile(configuration.getCategories());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size >= destAmount;
+    }
+
+    public void add(BingoTile tile) {
+        add(size, tile);
+    }
+
+    public void add(int index, BingoTile tile) {
+        checkIndex(index, size + 1);
+        attachTile(index, wrap(tile));
+    }
+
+    public BingoTile remove(int index) {
+        return toTileAndRelease(detachTile(index));
+    }
+
+    /**
+     * Replaces the tile at the index without moving the other tiles.
+     *
+     * @return The previous tile at the index.
+     */
+    public BingoTile set(int index, BingoTile tile) {
+        checkIndex(index, size);
+        return toTileAndRelease(replaceTile(index, wrap(tile)));
+    }
+
+    /**
+     * Replaces the tile at the index with a newly generated tile. The new tile is generated as if the previous tile had
+     * already been removed from the board, just like removing and adding the tile at the index would, but without moving
+     * the other tiles.
+     *
+     * @return The previous tile at the index.
+     */
+    public BingoTile regenerate(int index, Random random) {
+        return toTileAndRelease(regenerateTile(index, random));
+    }
+
+    /**
+     * Generates tiles for the board until it is full.
+     */
+    public void fill(Random random) {
+        while (!isFull()) {
+            TileCandidate tile = acquire();
+            try {
+                configuration.generateTile(this, tile, random);
+            } catch (RuntimeException e) {
+                releaseTile(tile);
+                throw e;
+            }
+            attachTile(size, tile);
+        }
+    }
+
+    /**
+     * Inserts the candidate at the index, the state owns the candidate from now on.
+     */
+    void attachTile(int index, TileCandidate tile) {
+        checkIndex(index, size + 1);
+        if (size == tiles.length) tiles = Arrays.copyOf(tiles, size * 2);
+        System.arraycopy(tiles, index, tiles, index + 1, size - index);
+        tiles[index] = tile;
+        size++;
+        update(tile, 1);
+    }
+
+    /**
+     * Removes the candidate at the index. It can be attached again or has to be passed to {@link #releaseTile(TileCandidate)}
+     * once it is no longer needed.
+     */
+    TileCandidate detachTile(int index) {
+        checkIndex(index, size);
+        TileCandidate tile = tiles[index];
+        System.arraycopy(tiles, index + 1, tiles, index, size - index - 1);
+        tiles[--size] = null;
+        update(tile, -1);
+        return tile;
+    }
+
+    /**
+     * Replaces the candidate at the index without moving the other tiles.
+     *
+     * @return The previous candidate at the index, see {@link #detachTile(int)}.
+     */
+    TileCandidate replaceTile(int index, TileCandidate tile) {
+        checkIndex(index, size);
+        TileCandidate previous = tiles[index];
+        tiles[index] = tile;
+        update(previous, -1);
+        update(tile, 1);
+        return previous;
+    }
+
+    /**
+     * Replaces the candidate at the index with a newly generated one, see {@link #regenerate(int, Random)}.
+     *
+     * @return The previous candidate at the index, see {@link #detachTile(int)}.
+     */
+    TileCandidate regenerateTile(int index, Random random) {
+        checkIndex(index, size);
+        TileCandidate previous = tiles[index];
+        update(previous, -1);
+        TileCandidate tile = acquire();
+        try {
+            configuration.generateTile(this, tile, random);
+        } catch (RuntimeException e) {
+            releaseTile(tile);
+            update(previous, 1);
+            throw e;
+        }
+        tiles[index] = tile;
+        update(tile, 1);
+        return previous;
+    }
+
+    /**
+     * Hands a detached candidate back to the state, which reuses it for the next generated tile.
+     */
+    void releaseTile(TileCandidate tile) {
+        tile.clear();
+        if (releasedSize == released.length) released = Arrays.copyOf(released, releasedSize * 2);
+        released[releasedSize++] = tile;
+    }
+
+    private TileCandidate acquire() {
+        if (releasedSize == 0) return new TileCandidate();
+        TileCandidate tile = released[--releasedSize];
+        released[releasedSize] = null;
+        return tile;
+    }
+
+    private TileCandidate wrap(BingoTile tile) {
+        TileCandidate candidate = acquire();
+        candidate.wrap(tile, configuration);
+        return candidate;
+    }
+
+    private BingoTile toTileAndRelease(TileCandidate candidate) {
+        BingoTile tile = candidate.toTile(configuration.getCategories());
+        releaseTile(candidate);
+        return tile;
+    }
+
+    public void addAll(Collection<BingoTile> tiles) {
+        for (BingoTile tile : tiles) {
+            add(tile);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            releaseTile(tiles[i]);
+            tiles[i] = null;
+        }
+        size = 0;
+        textKeys.clear();
+        Arrays.fill(categoryCounts, 0);
+        categoryMasksDirty = true;
+        difficultySum = 0;
+        categoryViolation = 0;
+        for (int i = 0; i < categoryCounts.length; i++) {
+            categoryViolation += getCategoryViolation(i);
+        }
+    }
+
+    /**
+     * Sorts the tiles, the totals are not affected by the order of the tiles. Creates all generated tiles.
+     */
+    public void sort(Comparator<BingoTile> comparator) {
+        List<Category> categories = configuration.getCategories();
+        Arrays.sort(tiles, 0, size, (a, b) -> comparator.compare(a.toTile(categories), b.toTile(categories)));
+    }
+
+    /**
+     * Sorts the candidates by their difficulty, from the most difficult to the least difficult one.
+     */
+    void sortByDifficultyDescending() {
+        Arrays.sort(tiles, 0, size, BY_DIFFICULTY_DESCENDING);
+    }
+
+    /**
+     * Copies the current order of the candidates into the array, see {@link #restoreOrder(TileCandidate[])}.
+     */
+    void saveOrder(TileCandidate[] order) {
+        System.arraycopy(tiles, 0, order, 0, size);
+    }
+
+    /**
+     * Puts the candidates back into an order saved with {@link #saveOrder(TileCandidate[])}. The board must contain the
+     * same candidates as when the order was saved, so the totals stay the same.
+     */
+    void restoreOrder(TileCandidate[] order) {
+        System.arraycopy(order, 0, tiles, 0, size);
+    }
+
+    private void update(TileCandidate tile, int direction) {
+        if (direction > 0) {
+            textKeys.add(tile.getTextKey());
+        } else {
+            textKeys.remove(tile.getTextKey());
+        }
+        difficultySum += direction * toFixedPoint(tile.difficulty);
+        CategoryMask.Builder categories = tile.categories;
+        for (int index = categories.nextSetBit(0); index != -1; index = categories.nextSetBit(index + 1)) {
+            categoryViolation -= getCategoryViolation(index);
+            categoryCounts[index] += direction;
+            categoryViolation += getCategoryViolation(index);
+            categoryMasksDirty = true;
+        }
+    }
+
+    /**
+     * @return The average difficulty of the current tiles or <code>0</code> if there are no tiles.
+     */
+    public double getDifficulty() {
+        if (size == 0) return 0.0;
+        return difficultySum / DIFFICULTY_SCALE / size;
+    }
+
+    public double getDistanceToDestinationDifficulty() {
+        return Math.abs(getDifficulty() - destinationDifficulty);
+    }
+
+    /**
+     * @return Whether a tile with a text that is equal to the text according to {@link BingoTile#isTextEqual(String)}
+     * already is on the board.
+     */
+    public boolean containsText(CharSequence text) {
+        textKey.setLength(0);
+        return textKeys.contains(BingoTile.appendTextKey(text, textKey));
+    }
+
+    public int getCategoryCount(int categoryIndex) {
+        return categoryCounts[categoryIndex];
+    }
+
+    /**
+     * @return Whether the board still needs more tiles of the category to reach the minimum amount.
+     */
+    public boolean isMustBeCategory(int categoryIndex) {
+        return categoryCounts[categoryIndex] < categoryMin[categoryIndex];
+    }
+
+    /**
+     * @return Whether the board has reached the maximum amount of tiles of the category.
+     */
+    public boolean isMayNotBeCategory(int categoryIndex) {
+        return !isMustBeCategory(categoryIndex) && categoryCounts[categoryIndex] >= categoryMax[categoryIndex];
+    }
+
+    /**
+     * @return The least amount of tiles of the category that meets its minimum.
+     */
+    int getCategoryMinCount(int categoryIndex) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(categoryMin[categoryIndex]));
+    }
+
+    /**
+     * @return The largest amount of tiles of the category that meets its maximum.
+     */
+    int getCategoryMaxCount(int categoryIndex) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, Math.floor(categoryMax[categoryIndex])));
+    }
+
+    /**
+     * @return The categories that the board still needs more tiles of, see {@link #isMustBeCategory(int)}.
+     */
+    public CategoryMask getMustBeCategories() {
+        updateCategoryMasks();
+        return mustBeCategories;
+    }
+
+    /**
+     * @return The categories that the board may not get more tiles of, see {@link #isMayNotBeCategory(int)}.
+     */
+    public CategoryMask getMayNotBeCategories() {
+        updateCategoryMasks();
+        return mayNotBeCategories;
+    }
+
+    /**
+     * @return A number that changes whenever the must-be or may-not-be categories of the board change. A version is
+     * never used for different categories, and a board that returns to categories it recently had gets their version
+     * again, so values computed for a version can be kept and reused, see {@link GenerationScratch.Memo}.
+     */
+    public int getCategoryMaskVersion() {
+        updateCategoryMasks();
+        return categoryMaskVersion;
+    }
+
+    private void updateCategoryMasks() {
+        if (!categoryMasksDirty) return;
+        categoryMasksDirty = false;
+        mustBeBuilder.clear();
+        mayNotBeBuilder.clear();
+        for (int i = 0; i < categoryCounts.length; i++) {
+            if (isMustBeCategory(i)) {
+                mustBeBuilder.add(i);
+            } else if (isMayNotBeCategory(i)) {
+                mayNotBeBuilder.add(i);
+            }
+        }
+        // most changes to the counts do not change the status of any category, the masks are only rebuilt if they did
+        if (!mustBeBuilder.matches(mustBeCategories) || !mayNotBeBuilder.matches(mayNotBeCategories)) {
+            internCategoryMasks();
+        }
+    }
+
+    /**
+     * Switches to the masks and version of the current categories if the board had them before, otherwise builds and
+     * interns them with a new version.
+     */
+    private void internCategoryMasks() {
+        if (internedCategoryMaskVersions == null) {
+            internedMustBeCategories = new CategoryMask[INTERNED_CATEGORY_MASKS];
+            internedMayNotBeCategories = new CategoryMask[INTERNED_CATEGORY_MASKS];
+            internedCategoryMaskVersions = new int[INTERNED_CATEGORY_MASKS];
+        }
+        int hash = 31 * mustBeBuilder.maskHashCode() + mayNotBeBuilder.maskHashCode();
+        int mask = INTERNED_CATEGORY_MASKS - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (internedMustBeCategories[slot] != null) {
+            if (mustBeBuilder.matches(internedMustBeCategories[slot]) && mayNotBeBuilder.matches(internedMayNotBeCategories[slot])) {
+                mustBeCategories = internedMustBeCategories[slot];
+                mayNotBeCategories = internedMayNotBeCategories[slot];
+                categoryMaskVersion = internedCategoryMaskVersions[slot];
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mustBeCategories = mustBeBuilder.build();
+        mayNotBeCategories = mayNotBeBuilder.build();
+        categoryMaskVersion = nextCategoryMaskVersion++;
+        if (internedCategoryMasks * 2 >= INTERNED_CATEGORY_MASKS) {
+            Arrays.fill(internedMustBeCategories, null);
+            Arrays.fill(internedMayNotBeCategories, null);
+            internedCategoryMasks = 0;
+            slot = (hash ^ (hash >>> 16)) & mask;
+        }
+        internedMustBeCategories[slot] = mustBeCategories;
+        internedMayNotBeCategories[slot] = mayNotBeCategories;
+        internedCategoryMaskVersions[slot] = categoryMaskVersion;
+        internedCategoryMasks++;
+    }
+
+    GenerationScratch getScratch() {
+        if (scratch == null) scratch = new GenerationScratch();
+        return scratch;
+    }
+
+    /**
+     * @return The amount of tiles that the category is missing to reach its minimum or has above its maximum.
+     */
+    private int getCategoryViolation(int categoryIndex) {
+        int count = categoryCounts[categoryIndex];
+        if (count < categoryMin[categoryIndex]) return (int) Math.ceil(categoryMin[categoryIndex] - count);
+        if (count > categoryMax[categoryIndex]) return (int) Math.min(Integer.MAX_VALUE, count - categoryMax[categoryIndex]);
+        return 0;
+    }
+
+    /**
+     * @return The sum of the violations of all category limits, <code>0</code> if all limits are met.
+     */
+    public int getCategoryViolation() {
+        return categoryViolation;
+    }
+
+    public Map<Category, Integer> getCategoryCounts() {
+        Map<Category, Integer> counts = new HashMap<>();
+        List<Category> categories = configuration.getCategories();
+        for (int i = 0; i < categories.size(); i++) {
+            counts.put(categories.get(i), categoryCounts[i]);
+        }
+        return counts;
+    }
+
+    /**
+     * @return An independent copy of this state that can later be passed to {@link #restore(GenerationState)}. The copy
+     * can also be kept as a backup that is overwritten with {@link #restore(GenerationState)} again and again. Both states
+     * share the same tiles, so all generated tiles of this state are created.
+     */
+    public GenerationState copy() {
+        return new GenerationState(this);
+    }
+
+    /**
+     * Replaces the tiles and totals of this state with those of the other state of the same board. Both states share the
+     * same tiles afterwards, so all generated tiles of the other state are created.
+     */
+    public void restore(GenerationState other) {
+        if (other.configuration != configuration || other.destAmount != destAmount) {
+            throw new IllegalArgumentException("Cannot restore a state of a different board");
+        }
+        if (other == this) return;
+        copyTiles(other);
+        System.arraycopy(other.categoryCounts, 0, categoryCounts, 0, categoryCounts.length);
+        difficultySum = other.difficultySum;
+        categoryViolation = other.categoryViolation;
+        categoryMasksDirty = true;
+    }
+
+    /**
+     * Replaces the candidates of this state with candidates of the same tiles as the other state and counts their text keys.
+     */
+    private void copyTiles(GenerationState other) {
+        for (int i = 0; i < size; i++) {
+            releaseTile(tiles[i]);
+            tiles[i] = null;
+        }
+        if (other.size > tiles.length) tiles = new TileCandidate[other.tiles.length];
+        textKeys.clear();
+        List<Category> categories = configuration.getCategories();
+        for (int i = 0; i < other.size; i++) {
+            tiles[i] = wrap(other.tiles[i].toTile(categories));
+            textKeys.add(tiles[i].getTextKey());
+        }
+        size = other.size;
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static long toFixedPoint(double difficulty) {
+        return Math.round(difficulty * DIFFICULTY_SCALE);
+    }
+}
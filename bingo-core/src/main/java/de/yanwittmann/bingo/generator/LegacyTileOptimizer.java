@@ -0,0 +1,160 @@
+package de.yanwittmann.bingo.generator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+/**
+ * The original hill climbing strategy: repeatedly removes about half a row of tiles, refills the board and keeps the
+ * result only if the difficulty got closer to the destination.<br>
+ * An attempt only changes the removed and the refilled tiles, so instead of backing up the whole board, the removed tiles
+ * and their positions are logged. Rejecting an attempt removes the refilled tiles and puts the removed tiles back in
+ * reverse order. Removing by difficulty sorts the board first, the order before sorting is kept in a reused array and put
+ * back as well, so the board is restored exactly as it was.<br>
+ * The attempts are scored from the {@link TileCandidate}s of the state, the refilled tiles of a rejected attempt go back to
+ * the state for reuse, so only the tiles that end up on the board are created.
+ */
+public class LegacyTileOptimizer implements TileOptimizer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LegacyTileOptimizer.class);
+
+    @Override
+    public String getName() {
+        return "legacy";
+    }
+
+    @Override
+    public void optimize(BingoGenerationRequest request, GenerationState state, Random random, GenerationBudget budget) {
+        UndoLog log = new UndoLog(state.getDestAmount(), (request.getWidth() + request.getHeight()) / 2);
+        if (budget.isUnlimited()) {
+            int maxAttempts = request.getGenerationAttempts();
+            for (int i = 0; i < maxAttempts; i++) {
+                createAndRemoveTiles(request, state, log, state.getDestAmount(), random, budget);
+            }
+        } else {
+            while (!budget.isExpired() && !budget.checkTargetReached(state)) {
+                createAndRemoveTiles(request, state, log, state.getDestAmount(), random, budget);
+            }
+        }
+        state.fill(random);
+    }
+
+    private void createAndRemoveTiles(BingoGenerationRequest request, GenerationState state, UndoLog log, int maxTileCount, Random random, GenerationBudget budget) {
+        int width = request.getWidth(), height = request.getHeight();
+        for (int i = 0; i < maxTileCount; i++) {
+            if (!budget.isUnlimited() && (budget.isExpired() || budget.checkTargetReached(state))) return;
+            state.fill(random);
+            double oldDifficultyDistance = state.getDistanceToDestinationDifficulty();
+            log.clear(state);
+            if (request.getDifficulty() != -1) {
+                removeByDifficulty(state, log, (width + height) / 2);
+            } else {
+                removeRandom(state, log, (width + height) / 2, random);
+            }
+            fill(state, log, random);
+            state.getListener().onEvent(GenerationEvent.ATTEMPT, 1);
+            double newDifficultyDistance = state.getDistanceToDestinationDifficulty();
+            if (newDifficultyDistance > oldDifficultyDistance) {
+                log.undo(state);
+                removeRandom(state, log, 2, random);
+                fill(state, log, random);
+                newDifficultyDistance = state.getDistanceToDestinationDifficulty();
+                if (newDifficultyDistance > oldDifficultyDistance) {
+                    log.undo(state);
+                    state.getListener().onEvent(GenerationEvent.MOVE_REJECTED, 1);
+                    continue;
+                }
+            }
+            state.getListener().onEvent(GenerationEvent.MOVE_ACCEPTED, 1);
+            if (newDifficultyDistance < oldDifficultyDistance && LOG.isDebugEnabled()) {
+                LOG.debug("Found better board [{}] -> [{}] [{}]", oldDifficultyDistance, newDifficultyDistance, state.getDifficulty());
+            }
+        }
+    }
+
+    private void removeByDifficulty(GenerationState state, UndoLog log, int amount) {
+        log.saveOrder(state);
+        state.sortByDifficultyDescending();
+        for (int i = 0; i < amount && state.size() > 0; i++) {
+            if (state.getDifficulty() > state.getDestinationDifficulty()) {
+                log.remove(state, 0);
+            } else {
+                log.remove(state, state.size() - 1);
+            }
+        }
+    }
+
+    private void removeRandom(GenerationState state, UndoLog log, int amount, Random random) {
+        for (int i = 0; i < amount && state.size() > 0; i++) {
+            log.remove(state, random.nextInt(state.size()));
+        }
+    }
+
+    private void fill(GenerationState state, UndoLog log, Random random) {
+        int size = state.size();
+        state.fill(random);
+        log.added += state.size() - size;
+    }
+
+    /**
+     * The changes of a single attempt. Holds one attempt at a time and is reused for every attempt.
+     */
+    private static final class UndoLog {
+        private final int[] removedIndices;
+        private final TileCandidate[] removedTiles;
+        private final TileCandidate[] order;
+        private int removed = 0;
+        private int added = 0;
+        private boolean reordered = false;
+
+        private UndoLog(int tiles, int removals) {
+            this.removedIndices = new int[Math.max(removals, 2)];
+            this.removedTiles = new TileCandidate[removedIndices.length];
+            this.order = new TileCandidate[tiles];
+        }
+
+        /**
+         * Keeps the changes of the attempt, the removed tiles are handed back to the state.
+         */
+        private void clear(GenerationState state) {
+            for (int i = 0; i < removed; i++) {
+                state.releaseTile(removedTiles[i]);
+                removedTiles[i] = null;
+            }
+            reset();
+        }
+
+        private void reset() {
+            removed = 0;
+            added = 0;
+            reordered = false;
+        }
+
+        private void saveOrder(GenerationState state) {
+            state.saveOrder(order);
+            reordered = true;
+        }
+
+        private void remove(GenerationState state, int index) {
+            removedIndices[removed] = index;
+            removedTiles[removed] = state.detachTile(index);
+            removed++;
+        }
+
+        /**
+         * Reverts the board to the state before the attempt and clears the log.
+         */
+        private void undo(GenerationState state) {
+            for (int i = 0; i < added; i++) {
+                state.releaseTile(state.detachTile(state.size() - 1));
+            }
+            for (int i = removed - 1; i >= 0; i--) {
+                state.attachTile(removedIndices[i], removedTiles[i]);
+                removedTiles[i] = null;
+            }
+            if (reordered) state.restoreOrder(order);
+            reset();
+        }
+    }
+}
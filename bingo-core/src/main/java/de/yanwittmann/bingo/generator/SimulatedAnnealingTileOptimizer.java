@@ -0,0 +1,161 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.Random;
+
+/**
+ * Simulated annealing over single tile swaps.<br>
+ * Every step replaces one random tile of the full board with a newly generated one. The energy of a board is the distance
+ * of its difficulty to the destination difficulty plus the weighted category violation, both are kept up to date by the
+ * {@link GenerationState}, so evaluating a swap does not depend on the size of the board. Worse boards are accepted with
+ * a chance of <code>exp(-delta / temperature)</code>, the temperature cools down geometrically from the initial to the
+ * final temperature over all steps. The best board seen is the result, it is restored by undoing the tiles replaced since
+ * then instead of copying the board on every improvement, so a step only replaces a single tile in place. The steps work
+ * on the {@link TileCandidate}s of the state, a replaced tile goes back to the state for reuse once it can no longer be
+ * part of the best board, so only the tiles of the result are created.<br>
+ * With a time budget, the amount of steps is not limited and the temperature cools down over the time of the budget.
+ */
+public class SimulatedAnnealingTileOptimizer implements TileOptimizer {
+
+    private final double initialTemperature;
+    private final double finalTemperature;
+    private final double stepsPerAttempt;
+    private final double violationWeight;
+
+    public SimulatedAnnealingTileOptimizer() {
+        this(0.05, 0.0005, 1.0, 1.0);
+    }
+
+    /**
+     * @param initialTemperature The temperature of the first step.
+     * @param finalTemperature   The temperature of the last step.
+     * @param stepsPerAttempt    The amount of swaps per tile and generation attempt of the request.
+     * @param violationWeight    The energy of a single tile that is missing or too many for the category limits.
+     */
+    public SimulatedAnnealingTileOptimizer(double initialTemperature, double finalTemperature, double stepsPerAttempt, double violationWeight) {
+        if (initialTemperature <= 0 || finalTemperature <= 0 || finalTemperature > initialTemperature) {
+            throw new IllegalArgumentException("Temperatures must be positive and cool down: " + initialTemperature + " -> " + finalTemperature);
+        }
+        if (stepsPerAttempt < 0 || violationWeight < 0) {
+            throw new IllegalArgumentException("Steps per attempt and violation weight must not be negative");
+        }
+        this.initialTemperature = initialTemperature;
+        this.finalTemperature = finalTemperature;
+        this.stepsPerAttempt = stepsPerAttempt;
+        this.violationWeight = violationWeight;
+    }
+
+    @Override
+    public String getName() {
+        return "annealing";
+    }
+
+    @Override
+    public void optimize(BingoGenerationRequest request, GenerationState state, Random random, GenerationBudget budget) {
+        state.fill(random);
+        boolean timed = !budget.isUnlimited();
+        int steps = timed ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, (long) (request.getGenerationAttempts() * (double) state.getDestAmount() * stepsPerAttempt));
+        if (steps == 0 || state.size() == 0) return;
+
+        double energy = energy(state);
+        double bestEnergy = energy;
+        // the tiles that were replaced since the best board, undoing them in reverse order restores the best board
+        int[] undoIndices = new int[state.size()];
+        TileCandidate[] undoTiles = new TileCandidate[state.size()];
+        int undoSize = 0;
+        // the best board, only taken once more tiles have been replaced since then than the board has
+        GenerationState best = null;
+        double cooling = steps > 1 ? Math.pow(finalTemperature / initialTemperature, 1.0 / (steps - 1)) : 1.0;
+        double temperature = initialTemperature;
+        GenerationListener listener = state.getListener();
+        double bestDistance = state.getDistanceToDestinationDifficulty();
+        int bestViolation = state.getCategoryViolation();
+
+        for (int step = 0; step < steps; step++, temperature *= cooling) {
+            if (timed) {
+                if (budget.isExpired() || budget.checkTargetReached(bestDistance, bestViolation)) break;
+                temperature = initialTemperature * Math.pow(finalTemperature / initialTemperature, budget.getProgress());
+            }
+            // checked after the budget, so that a board on the destination is also reported as target reached
+            if (bestEnergy <= 0) break;
+            int index = random.nextInt(state.size());
+            TileCandidate previous = state.regenerateTile(index, random);
+            listener.onEvent(GenerationEvent.ATTEMPT, 1);
+
+            double newEnergy = energy(state);
+            double delta = newEnergy - energy;
+            if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                energy = newEnergy;
+                listener.onEvent(GenerationEvent.MOVE_ACCEPTED, 1);
+                if (energy < bestEnergy) {
+                    bestEnergy = energy;
+                    bestDistance = state.getDistanceToDestinationDifficulty();
+                    bestViolation = state.getCategoryViolation();
+                    release(state, undoTiles, undoSize);
+                    undoSize = 0;
+                    best = null;
+                    state.releaseTile(previous);
+                } else if (best == null) {
+                    if (undoSize == undoIndices.length) {
+                        // the log is full, so the current move is not logged and has to be undone in the copy as well
+                        best = state.copy();
+                        best.releaseTile(best.replaceTile(index, previous));
+                        undo(best, undoIndices, undoTiles, undoSize);
+                        undoSize = 0;
+                    } else {
+                        undoIndices[undoSize] = index;
+                        undoTiles[undoSize] = previous;
+                        undoSize++;
+                    }
+                } else {
+                    state.releaseTile(previous);
+                }
+            } else {
+                state.releaseTile(state.replaceTile(index, previous));
+                listener.onEvent(GenerationEvent.MOVE_REJECTED, 1);
+            }
+        }
+
+        if (best != null) {
+            state.restore(best);
+        } else {
+            undo(state, undoIndices, undoTiles, undoSize);
+        }
+    }
+
+    /**
+     * Puts the logged tiles back in reverse order, the replaced tiles go back to the state.
+     */
+    private static void undo(GenerationState state, int[] undoIndices, TileCandidate[] undoTiles, int undoSize) {
+        for (int i = undoSize - 1; i >= 0; i--) {
+            state.releaseTile(state.replaceTile(undoIndices[i], undoTiles[i]));
+            undoTiles[i] = null;
+        }
+    }
+
+    private static void release(GenerationState state, TileCandidate[] undoTiles, int undoSize) {
+        for (int i = 0; i < undoSize; i++) {
+            state.releaseTile(undoTiles[i]);
+            undoTiles[i] = null;
+        }
+    }
+
+    private double energy(GenerationState state) {
+        return state.getDistanceToDestinationDifficulty() + violationWeight * state.getCategoryViolation();
+    }
+
+    public double getInitialTemperature() {
+        return initialTemperature;
+    }
+
+    public double getFinalTemperature() {
+        return finalTemperature;
+    }
+
+    public double getStepsPerAttempt() {
+        return stepsPerAttempt;
+    }
+
+    public double getViolationWeight() {
+        return violationWeight;
+    }
+}
@@ -0,0 +1,124 @@
+package de.yanwittmann.bingo.generator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed form of a single condition of a snippet placeholder, like <code>tag(campfire)</code> in
+ * <code>[PLANET:tag(campfire)]</code>.<br>
+ * All conditions but <code>avoid_duplicates</code> only depend on the snippet, so their result never changes once the
+ * configuration is compiled. Invalid conditions and unknown functions are reported when parsing and match every snippet.
+ */
+final class SnippetCondition {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnippetCondition.class);
+
+    private static final Pattern CONDITION_PATTERN = Pattern.compile("^([a-zA-Z0-9!]+)(?:\\((.*)\\))?$");
+
+    enum Type {
+        ANY, AVOID_DUPLICATES, TAG, CATEGORY, DERIVED_CATEGORY
+    }
+
+    private final String source;
+    private final Type type;
+    private final boolean negated;
+    private final String argument;
+
+    private SnippetCondition(String source, Type type, boolean negated, String argument) {
+        this.source = source;
+        this.type = type;
+        this.negated = negated;
+        this.argument = argument;
+    }
+
+    /**
+     * @param context The text the condition is part of, only used for the warnings.
+     */
+    static SnippetCondition parse(String condition, String context) {
+        if ("avoid_duplicates".equals(condition)) {
+            return new SnippetCondition(condition, Type.AVOID_DUPLICATES, false, null);
+        }
+        Matcher matcher = CONDITION_PATTERN.matcher(condition);
+        if (!matcher.matches()) {
+            LOG.warn("Invalid condition [{}] on [{}]", condition, context);
+            return new SnippetCondition(condition, Type.ANY, false, null);
+        }
+        String function = matcher.group(1);
+        String argument = matcher.group(2);
+        boolean negated = function.startsWith("!");
+        switch (negated ? function.substring(1) : function) {
+            case "tag":
+                return new SnippetCondition(condition, Type.TAG, negated, argument);
+            case "category":
+                return new SnippetCondition(condition, Type.CATEGORY, negated, argument);
+            case "derivedCategory":
+                return new SnippetCondition(condition, Type.DERIVED_CATEGORY, negated, argument);
+        }
+        LOG.warn("Unknown condition function [{}] on [{}]", function, context);
+        return new SnippetCondition(condition, Type.ANY, false, null);
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    /**
+     * @return Whether the result of the condition depends on the text that was generated so far.
+     */
+    boolean isDynamic() {
+        return type == Type.AVOID_DUPLICATES;
+    }
+
+    /**
+     * @param textSoFar The text generated so far, only used by dynamic conditions.
+     */
+    boolean matches(TextSnippet snippet, CharSequence textSoFar) {
+        switch (type) {
+            case AVOID_DUPLICATES:
+                return !contains(textSoFar, snippet.getText());
+            case TAG:
+                return snippet.getTags().contains(argument) != negated;
+            case CATEGORY:
+                return containsName(snippet.getCategories(), argument) != negated;
+            case DERIVED_CATEGORY:
+                return containsName(snippet.getDerivedCategories(), argument) != negated;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean containsName(Collection<Category> categories, String name) {
+        for (Category category : categories) {
+            if (category.getName().equals(name)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Same as {@link String#contains(CharSequence)}, without copying the text into a string first.
+     */
+    static boolean contains(CharSequence text, String part) {
+        int last = text.length() - part.length();
+        outer:
+        for (int start = 0; start <= last; start++) {
+            for (int i = 0; i < part.length(); i++) {
+                if (text.charAt(start + i) != part.charAt(i)) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
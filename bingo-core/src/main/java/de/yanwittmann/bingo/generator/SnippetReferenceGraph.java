@@ -0,0 +1,147 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.*;
+
+/**
+ * The snippet types of a configuration as a graph, where every type points to the types that the texts of its snippets
+ * reference (see {@link TextTemplate#getReferencedSnippetTypes(String, Map)}).<br>
+ * Snippets may reference each other in cycles, so the graph is condensed into its strongly connected components first.
+ * All types of a component can insert the snippets of each other and therefore derive the same categories. The components
+ * are found by Tarjan's algorithm in reverse topological order, so the derived categories of every component are
+ * completed in a single pass from the categories of its own snippets and those of the components it references.<br>
+ * The derived categories of a text are the union of the derived categories of the types it references. Texts that
+ * reference the same single type share the same set.
+ */
+final class SnippetReferenceGraph {
+
+    private final Map<String, List<TextSnippet>> textSnippets;
+    private final Map<String, Integer> typeIndices = new HashMap<>();
+    private final int[][] references;
+    private final List<Set<Category>> typeCategories = new ArrayList<>();
+
+    private SnippetReferenceGraph(Map<String, List<TextSnippet>> textSnippets) {
+        this.textSnippets = textSnippets;
+        List<String> types = new ArrayList<>(textSnippets.keySet());
+        for (int i = 0; i < types.size(); i++) {
+            typeIndices.put(types.get(i), i);
+        }
+        this.references = new int[types.size()][];
+        for (int i = 0; i < types.size(); i++) {
+            Set<Integer> referenced = new LinkedHashSet<>();
+            for (TextSnippet snippet : textSnippets.get(types.get(i))) {
+                for (String type : TextTemplate.getReferencedSnippetTypes(snippet.getText(), textSnippets)) {
+                    referenced.add(typeIndices.get(type));
+                }
+            }
+            references[i] = referenced.stream().mapToInt(Integer::intValue).toArray();
+        }
+        deriveTypeCategories(types);
+    }
+
+    /**
+     * Derives the categories of all snippets and tile generators and assigns them, replacing the previously derived ones.
+     */
+    static void assign(Map<String, List<TextSnippet>> textSnippets, List<TileGenerator> tileGenerators) {
+        SnippetReferenceGraph graph = new SnippetReferenceGraph(textSnippets);
+        for (List<TextSnippet> snippets : textSnippets.values()) {
+            for (TextSnippet snippet : snippets) {
+                snippet.setDerivedCategories(graph.getDerivedCategories(snippet.getText()));
+            }
+        }
+        for (TileGenerator tileGenerator : tileGenerators) {
+            tileGenerator.setDerivedCategories(graph.getDerivedCategories(tileGenerator.getText()));
+        }
+    }
+
+    /**
+     * @return The categories of all snippets that the text may insert, directly or through other snippets.
+     */
+    Set<Category> getDerivedCategories(String text) {
+        List<String> types = TextTemplate.getReferencedSnippetTypes(text, textSnippets);
+        if (types.isEmpty()) return Collections.emptySet();
+        Set<Category> first = typeCategories.get(typeIndices.get(types.get(0)));
+        Set<Category> categories = null;
+        for (int i = 1; i < types.size(); i++) {
+            Set<Category> other = typeCategories.get(typeIndices.get(types.get(i)));
+            if (other == first || (categories != null && categories.containsAll(other))) continue;
+            if (categories == null) categories = new HashSet<>(first);
+            categories.addAll(other);
+        }
+        return categories == null ? first : Collections.unmodifiableSet(categories);
+    }
+
+    private void deriveTypeCategories(List<String> types) {
+        int count = types.size();
+        int[] index = new int[count];
+        int[] lowLink = new int[count];
+        boolean[] onStack = new boolean[count];
+        Arrays.fill(index, -1);
+        int[] stack = new int[count];
+        int stackSize = 0;
+        // the depth first search is iterative, the nesting depth of the snippets is only limited by the configuration
+        int[] callStack = new int[count];
+        int[] callEdge = new int[count];
+        int nextIndex = 0;
+        List<Set<Category>> componentCategories = new ArrayList<>();
+        int[] component = new int[count];
+
+        for (int root = 0; root < count; root++) {
+            if (index[root] != -1) continue;
+            int depth = 0;
+            callStack[0] = root;
+            callEdge[0] = 0;
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int node = callStack[depth];
+                if (callEdge[depth] < references[node].length) {
+                    int next = references[node][callEdge[depth]++];
+                    if (index[next] == -1) {
+                        index[next] = lowLink[next] = nextIndex++;
+                        stack[stackSize++] = next;
+                        onStack[next] = true;
+                        callStack[++depth] = next;
+                        callEdge[depth] = 0;
+                    } else if (onStack[next]) {
+                        lowLink[node] = Math.min(lowLink[node], index[next]);
+                    }
+                    continue;
+                }
+                if (lowLink[node] == index[node]) {
+                    int componentIndex = componentCategories.size();
+                    int firstMember = stackSize;
+                    do {
+                        firstMember--;
+                        onStack[stack[firstMember]] = false;
+                        component[stack[firstMember]] = componentIndex;
+                    } while (stack[firstMember] != node);
+                    Set<Category> categories = new HashSet<>();
+                    for (int i = firstMember; i < stackSize; i++) {
+                        int member = stack[i];
+                        for (TextSnippet snippet : textSnippets.get(types.get(member))) {
+                            categories.addAll(snippet.getCategories());
+                        }
+                        // every other component that the member references has been completed before this one
+                        for (int referenced : references[member]) {
+                            if (component[referenced] != componentIndex) {
+                                categories.addAll(componentCategories.get(component[referenced]));
+                            }
+                        }
+                    }
+                    stackSize = firstMember;
+                    componentCategories.add(categories);
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callStack[depth];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+            }
+        }
+        componentCategories.replaceAll(Collections::unmodifiableSet);
+        for (int i = 0; i < count; i++) {
+            typeCategories.add(componentCategories.get(component[i]));
+        }
+    }
+}
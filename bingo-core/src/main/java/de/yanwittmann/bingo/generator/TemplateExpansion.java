@@ -0,0 +1,232 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable working buffer for expanding a {@link TextTemplate}.<br>
+ * The text is held as a flat sequence of resolved strings and pending placeholders. Placeholders are replaced pass by
+ * pass in text order, so that the random values are drawn in the same order as they used to be when the text was
+ * rescanned after every replacement.<br>
+ * A pass streams the text once from one buffer into the other: everything in front of the current placeholder is
+ * already copied to the output, the rest is still in the input. A replacement goes to the first pending placeholder
+ * with the same source text, which is usually the current one. It can only be an earlier one if a replacement of this
+ * pass inserted the same placeholder, so the positions of the placeholders pending in the output are tracked and only
+ * those are compared.<br>
+ * Numbers are stored as <code>int</code>s next to the parts and only appended to the text when it is rendered, so
+ * expanding a template does not create any strings.
+ */
+class TemplateExpansion {
+
+    /**
+     * Marks a part whose text is the number at the same index in the numbers of its buffer.
+     */
+    private static final Object NUMBER = new Object();
+
+    private Object[] parts = new Object[16];
+    private int[] numbers = new int[16];
+    private int size = 0;
+    /**
+     * The index of the next part of the input to process.
+     */
+    private int cursor = 0;
+
+    private Object[] outParts = new Object[16];
+    private int[] outNumbers = new int[16];
+    private int outSize = 0;
+    /**
+     * The positions of the placeholders that are still pending in the output.
+     */
+    private int[] pending = new int[8];
+    private int pendingSize = 0;
+
+    private final StringBuilder builder = new StringBuilder();
+
+    void reset(TextTemplate template) {
+        Arrays.fill(parts, 0, size, null);
+        Arrays.fill(outParts, 0, outSize, null);
+        size = 0;
+        cursor = 0;
+        outSize = 0;
+        pendingSize = 0;
+        List<TextTemplate.Node> nodes = template.getNodes();
+        ensureInputCapacity(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            parts[size++] = part(nodes.get(i));
+        }
+    }
+
+    /**
+     * Finishes the previous pass and counts the currently pending placeholders for the next one.
+     *
+     * @return The amount of placeholders to process in this pass, see {@link #nextPlaceholder()}.
+     */
+    int beginPass() {
+        if (cursor > 0) {
+            while (cursor < size) copyToOutput();
+            Object[] swapParts = parts;
+            int[] swapNumbers = numbers;
+            parts = outParts;
+            numbers = outNumbers;
+            outParts = swapParts;
+            outNumbers = swapNumbers;
+            Arrays.fill(outParts, 0, cursor, null);
+            size = outSize;
+            outSize = 0;
+            cursor = 0;
+            pendingSize = 0;
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (parts[i] instanceof TextTemplate.PlaceholderNode) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Moves on to the next placeholder of the pass, which has to be replaced before calling this again.
+     */
+    TextTemplate.PlaceholderNode nextPlaceholder() {
+        while (!(parts[cursor] instanceof TextTemplate.PlaceholderNode)) copyToOutput();
+        return (TextTemplate.PlaceholderNode) parts[cursor];
+    }
+
+    void replace(int value) {
+        int target = findPendingInOutput();
+        if (target == -1) {
+            ensureOutputCapacity(1);
+            outNumbers[outSize] = value;
+            outParts[outSize++] = NUMBER;
+        } else {
+            outParts[target] = NUMBER;
+            outNumbers[target] = value;
+            removePending(target);
+        }
+        skipOrKeepCurrent(target);
+    }
+
+    void replace(TextTemplate template) {
+        List<TextTemplate.Node> nodes = template.getNodes();
+        int count = nodes.size();
+        int target = findPendingInOutput();
+        ensureOutputCapacity(count + 1);
+        int index;
+        if (target == -1) {
+            index = outSize;
+        } else {
+            removePending(target);
+            // the replaced placeholder is removed, the inserted parts move everything behind it
+            System.arraycopy(outParts, target + 1, outParts, target + count, outSize - target - 1);
+            System.arraycopy(outNumbers, target + 1, outNumbers, target + count, outSize - target - 1);
+            for (int i = 0; i < pendingSize; i++) {
+                if (pending[i] > target) pending[i] += count - 1;
+            }
+            index = target;
+            outSize--;
+        }
+        for (int i = 0; i < count; i++) {
+            Object part = part(nodes.get(i));
+            if (part instanceof TextTemplate.PlaceholderNode) addPending(index + i);
+            outParts[index + i] = part;
+        }
+        outSize += count;
+        skipOrKeepCurrent(target);
+    }
+
+    private void skipOrKeepCurrent(int target) {
+        if (target == -1) {
+            cursor++;
+        } else {
+            // an earlier placeholder was replaced instead, the current one stays pending for the next pass
+            copyToOutput();
+        }
+    }
+
+    /**
+     * @return The position of the first placeholder in the output with the same source as the current placeholder or
+     * <code>-1</code> if the current placeholder itself is the first one.
+     */
+    private int findPendingInOutput() {
+        String source = ((TextTemplate.PlaceholderNode) parts[cursor]).getSource();
+        int first = -1;
+        for (int i = 0; i < pendingSize; i++) {
+            int position = pending[i];
+            if ((first == -1 || position < first) && ((TextTemplate.PlaceholderNode) outParts[position]).getSource().equals(source)) {
+                first = position;
+            }
+        }
+        return first;
+    }
+
+    private void copyToOutput() {
+        ensureOutputCapacity(1);
+        Object part = parts[cursor];
+        if (part instanceof TextTemplate.PlaceholderNode) addPending(outSize);
+        outNumbers[outSize] = numbers[cursor];
+        outParts[outSize++] = part;
+        cursor++;
+    }
+
+    private void addPending(int position) {
+        if (pendingSize == pending.length) pending = Arrays.copyOf(pending, pendingSize * 2);
+        pending[pendingSize++] = position;
+    }
+
+    private void removePending(int position) {
+        for (int i = 0; i < pendingSize; i++) {
+            if (pending[i] == position) {
+                pending[i] = pending[--pendingSize];
+                return;
+            }
+        }
+    }
+
+    private static Object part(TextTemplate.Node node) {
+        return node instanceof TextTemplate.LiteralNode ? ((TextTemplate.LiteralNode) node).getText() : node;
+    }
+
+    private void ensureInputCapacity(int count) {
+        if (size + count > parts.length) {
+            parts = Arrays.copyOf(parts, Math.max(parts.length * 2, size + count));
+            numbers = Arrays.copyOf(numbers, parts.length);
+        }
+    }
+
+    private void ensureOutputCapacity(int count) {
+        if (outSize + count > outParts.length) {
+            outParts = Arrays.copyOf(outParts, Math.max(outParts.length * 2, outSize + count));
+            outNumbers = Arrays.copyOf(outNumbers, outParts.length);
+        }
+    }
+
+    /**
+     * @return The current text, with pending placeholders in their source form.
+     */
+    String render() {
+        return renderToBuffer().toString();
+    }
+
+    /**
+     * Renders the current text like {@link #render()} into a buffer of this expansion.
+     *
+     * @return The buffer, only valid until this expansion is used again.
+     */
+    CharSequence renderToBuffer() {
+        builder.setLength(0);
+        for (int i = 0; i < outSize; i++) {
+            append(outParts[i], outNumbers[i]);
+        }
+        for (int i = cursor; i < size; i++) {
+            append(parts[i], numbers[i]);
+        }
+        return builder;
+    }
+
+    private void append(Object part, int number) {
+        if (part == NUMBER) {
+            builder.append(number);
+        } else {
+            builder.append(part);
+        }
+    }
+}
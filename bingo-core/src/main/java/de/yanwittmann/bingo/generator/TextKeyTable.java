@@ -0,0 +1,141 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.Arrays;
+
+/**
+ * Counts the text keys of the tiles of a board (see {@link de.yanwittmann.bingo.BingoTile#toTextKey(String)}) in an open
+ * addressing hash table with linear probing.<br>
+ * Unlike a {@link java.util.HashMap}, adding and removing keys does not allocate entries or boxed counts, and keys can be
+ * looked up by any {@link CharSequence}, so a text does not have to be turned into a string to check whether it is on the
+ * board already.<br>
+ * Keys that are not strings are stored by reference, their content must not change while they are in the table. If such a
+ * key is removed while an equal key is still counted, the stored key is replaced with a string copy.
+ */
+class TextKeyTable {
+
+    private CharSequence[] keys;
+    private int[] hashes;
+    private int[] counts;
+    private int size = 0;
+
+    TextKeyTable(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedKeys * 2 + 1) - 1) << 1;
+        this.keys = new CharSequence[capacity];
+        this.hashes = new int[capacity];
+        this.counts = new int[capacity];
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    void add(CharSequence key) {
+        int hash = spread(hash(key));
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && contentEquals(keys[slot], key)) {
+                counts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        hashes[slot] = hash;
+        counts[slot] = 1;
+        if (++size * 2 > keys.length) grow();
+    }
+
+    void remove(CharSequence key) {
+        int slot = find(key, spread(hash(key)));
+        if (slot == -1) return;
+        if (--counts[slot] > 0) {
+            // the removed key may be reused for a different text, while the equal keys that are left are still counted
+            if (keys[slot] == key) keys[slot] = key.toString();
+            return;
+        }
+        size--;
+        // shift the following keys of the probe sequence back, so that no key ends up behind an empty slot
+        int mask = keys.length - 1;
+        int empty = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != null) {
+            int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - empty) & mask)) {
+                keys[empty] = keys[next];
+                hashes[empty] = hashes[next];
+                counts[empty] = counts[next];
+                empty = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[empty] = null;
+        counts[empty] = 0;
+    }
+
+    boolean contains(CharSequence key) {
+        return find(key, spread(hash(key))) != -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int find(CharSequence key, int hash) {
+        int mask = keys.length - 1;
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && contentEquals(keys[slot], key)) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        CharSequence[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldCounts = counts;
+        keys = new CharSequence[oldKeys.length * 2];
+        hashes = new int[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) continue;
+            int hash = oldHashes[i];
+            int slot = hash & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            hashes[slot] = hash;
+            counts[slot] = oldCounts[i];
+        }
+    }
+
+    /**
+     * The same hash as {@link String#hashCode()}, so that strings can use their cached hash.
+     */
+    private static int hash(CharSequence key) {
+        if (key instanceof String) return key.hashCode();
+        int hash = 0;
+        for (int i = 0; i < key.length(); i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        return hash;
+    }
+
+    private static boolean contentEquals(CharSequence a, CharSequence b) {
+        if (a instanceof String) return ((String) a).contentEquals(b);
+        if (b instanceof String) return ((String) b).contentEquals(a);
+        int length = a.length();
+        if (length != b.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(i) != b.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
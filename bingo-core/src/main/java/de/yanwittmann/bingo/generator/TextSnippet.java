@@ -1,24 +1,23 @@
 package de.yanwittmann.bingo.generator;
 
 import de.yanwittmann.bingo.interfaces.Weightable;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class TextSnippet implements Weightable {
 
-    private final Logger LOG = LoggerFactory.getLogger(getClass());
-
     private String text;
     private String tooltip;
     private double difficulty;
     private double weight;
     private final List<Category> categories;
-    private final Set<Category> derivedCategories;
+    private Set<Category> derivedCategories;
     private final List<String> tags;
+    private TextTemplate template;
+    private CategoryMask categoryMask = CategoryMask.EMPTY;
+    private CategoryMask antisynergyMask = CategoryMask.EMPTY;
+    private boolean frozen = false;
 
     public TextSnippet(Map<String, Object> optionMap, List<Category> categories) {
         this.text = (String) optionMap.get(BingoConfiguration.KEY_TEXT_SNIPPETS_TEXT);
@@ -27,31 +26,18 @@ public class TextSnippet implements Weightable {
         this.weight = Double.parseDouble(String.valueOf(optionMap.getOrDefault(BingoConfiguration.KEY_TEXT_SNIPPETS_WEIGHT, 1)));
         this.categories = new ArrayList<>();
         Category.createCategories((List<String>) optionMap.getOrDefault(BingoConfiguration.KEY_TEXT_SNIPPETS_CATEGORIES, Collections.emptyList()), categories, this.categories, text);
-        this.derivedCategories = new HashSet<>();
+        this.derivedCategories = Collections.emptySet();
         this.tags = (List<String>) optionMap.getOrDefault(BingoConfiguration.KEY_TEXT_SNIPPETS_TAGS, Collections.emptyList());
     }
 
-    public void deriveSnippetCategories(String text, Map<String, List<TextSnippet>> textSnippets) {
-        boolean found;
-        do {
-            found = false;
-            Matcher snippetsMatcher = TextSnippet.SNIPPET_PATTERN.matcher(text);
-            while (snippetsMatcher.find()) {
-                String snippetType = snippetsMatcher.group(1);
-                List<TextSnippet> snippets = textSnippets.get(snippetType);
-                if (snippets != null && snippets.size() > 0) {
-                    for (TextSnippet snippet : snippets) {
-                        for (Category category : snippet.getCategories()) {
-                            if (derivedCategories.add(category)) {
-                                deriveSnippetCategories(snippet.getText(), textSnippets);
-                            }
-                        }
-                    }
-                    found = true;
-                }
-                text = text.replace(snippetType, "");
-            }
-        } while (found);
+    TextSnippet(String text, String tooltip, double difficulty, double weight, List<Category> categories, Collection<Category> derivedCategories, List<String> tags) {
+        this.text = text;
+        this.tooltip = tooltip;
+        this.difficulty = difficulty;
+        this.weight = weight;
+        this.categories = new ArrayList<>(categories);
+        this.derivedCategories = new HashSet<>(derivedCategories);
+        this.tags = tags;
     }
 
     public String getText() {
@@ -63,14 +49,26 @@ public class TextSnippet implements Weightable {
     }
 
     public void setText(String text) {
+        checkNotFrozen();
         this.text = text;
+        this.template = null;
+    }
+
+    public TextTemplate getTemplate() {
+        return template;
+    }
+
+    void setTemplate(TextTemplate template) {
+        this.template = template;
     }
 
     public void setDifficulty(double difficulty) {
+        checkNotFrozen();
         this.difficulty = difficulty;
     }
 
     public void setWeight(double weight) {
+        checkNotFrozen();
         this.weight = weight;
     }
 
@@ -79,56 +77,83 @@ public class TextSnippet implements Weightable {
     }
 
     public List<Category> getCategories() {
-        return categories;
+        return Collections.unmodifiableList(categories);
     }
 
     public void addCategory(Category category) {
+        checkNotFrozen();
         categories.add(category);
     }
 
     public void removeCategory(Category category) {
+        checkNotFrozen();
         categories.remove(category);
     }
 
+    /**
+     * @return The categories of the snippets that the text of this snippet may contain.
+     */
+    public Set<Category> getDerivedCategories() {
+        return Collections.unmodifiableSet(derivedCategories);
+    }
+
+    /**
+     * @param derivedCategories The derived categories, see {@link SnippetReferenceGraph}. The set is not copied, it may be
+     *                          shared with other snippets and generators.
+     */
+    void setDerivedCategories(Set<Category> derivedCategories) {
+        checkNotFrozen();
+        this.derivedCategories = derivedCategories;
+    }
+
+    public CategoryMask getCategoryMask() {
+        return categoryMask;
+    }
+
+    /**
+     * @return All categories that have an antisynergy with at least one of the categories of this snippet.
+     */
+    public CategoryMask getAntisynergyMask() {
+        return antisynergyMask;
+    }
+
+    /**
+     * Builds the category masks, requires the ids of all categories to be assigned.
+     */
+    void compileMasks() {
+        checkNotFrozen();
+        this.categoryMask = CategoryMask.of(categories);
+        CategoryMask.Builder antisynergies = new CategoryMask.Builder();
+        for (Category category : categories) {
+            antisynergies.addAll(category.getAntisynergyMask());
+        }
+        this.antisynergyMask = antisynergies.build();
+    }
+
     public String getTooltip() {
         return tooltip;
     }
 
     public List<String> getTags() {
-        return tags;
+        return Collections.unmodifiableList(tags);
     }
 
     public boolean matchesCondition(String condition, String textSoFar) {
         if (condition == null) return true;
+        return SnippetCondition.parse(condition, text).matches(this, textSoFar);
+    }
 
-        switch (condition) {
-            case "avoid_duplicates":
-                return !textSoFar.contains(text);
-        }
+    /**
+     * Called once the configuration is compiled, after which the snippet may no longer be modified.
+     */
+    void freeze() {
+        this.frozen = true;
+    }
 
-        Matcher matcher = Pattern.compile("^([a-zA-Z0-9!]+)(?:\\((.*)\\))?$").matcher(condition);
-        if (!matcher.matches()) {
-            LOG.warn("Invalid condition [{}] on [{}]", condition, text);
-            return true;
-        }
-        String function = matcher.group(1);
-        String args = matcher.group(2);
-        switch (function) {
-            case "tag":
-                return tags.contains(args);
-            case "category":
-                return categories.stream().anyMatch(category -> category.getName().equals(args));
-            case "derivedCategory":
-                return derivedCategories.stream().anyMatch(category -> category.getName().equals(args));
-            case "!tag":
-                return !tags.contains(args);
-            case "!category":
-                return categories.stream().noneMatch(category -> category.getName().equals(args));
-            case "!derivedCategory":
-                return derivedCategories.stream().noneMatch(category -> category.getName().equals(args));
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Cannot modify snippet [" + text + "] after the configuration has been compiled");
         }
-        LOG.warn("Unknown condition function [{}] on [{}]", function, text);
-        return true;
     }
 
     @Override
@@ -0,0 +1,231 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.*;
+import java.util.regex.Matcher;
+
+/**
+ * Parsed form of a tile generator or text snippet text.<br>
+ * The text is split once when the configuration is loaded into literal parts and placeholder parts, where every
+ * placeholder is already resolved to a snippet reference, a value provider or a numeric range. Placeholders that do not
+ * resolve to any of those are kept as literal text, just like they would be left untouched in the raw text.
+ */
+public class TextTemplate {
+
+    private final String text;
+    private final List<Node> nodes;
+    private final boolean containsPlaceholders;
+
+    private TextTemplate(String text, List<Node> nodes) {
+        this.text = text;
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.containsPlaceholders = nodes.stream().anyMatch(node -> node instanceof PlaceholderNode);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public boolean containsPlaceholders() {
+        return containsPlaceholders;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    public static TextTemplate compile(String text, Map<String, List<TextSnippet>> textSnippets, Map<String, ValueProvider> valueProviders) {
+        List<Node> nodes = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        Matcher snippetsMatcher = TextSnippet.SNIPPET_PATTERN.matcher(text);
+        int lastEnd = 0;
+        while (snippetsMatcher.find()) {
+            literal.append(text, lastEnd, snippetsMatcher.start());
+            lastEnd = snippetsMatcher.end();
+
+            PlaceholderNode placeholder = resolvePlaceholder(snippetsMatcher.group(), snippetsMatcher.group(1), textSnippets, valueProviders);
+            if (placeholder == null) {
+                literal.append(snippetsMatcher.group());
+                continue;
+            }
+            if (literal.length() > 0) {
+                nodes.add(new LiteralNode(literal.toString()));
+                literal.setLength(0);
+            }
+            nodes.add(placeholder);
+        }
+        literal.append(text, lastEnd, text.length());
+        if (literal.length() > 0) {
+            nodes.add(new LiteralNode(literal.toString()));
+        }
+        return new TextTemplate(text, nodes);
+    }
+
+    /**
+     * @return The snippet types that the placeholders of the text insert snippets of, in the order of the placeholders.
+     * Types that are referenced by several placeholders are contained several times.
+     */
+    static List<String> getReferencedSnippetTypes(String text, Map<String, List<TextSnippet>> textSnippets) {
+        List<String> snippetTypes = new ArrayList<>();
+        Matcher snippetsMatcher = TextSnippet.SNIPPET_PATTERN.matcher(text);
+        while (snippetsMatcher.find()) {
+            List<String> placeholderTypes = parseSnippetTypes(snippetsMatcher.group(1), textSnippets, new ArrayList<>());
+            if (placeholderTypes != null) snippetTypes.addAll(placeholderTypes);
+        }
+        return snippetTypes;
+    }
+
+    /**
+     * Splits a placeholder into the snippet types it inserts snippets of and its conditions.
+     *
+     * @param conditions Receives the conditions of the placeholder.
+     * @return The snippet types or <code>null</code> if the placeholder does not reference a snippet type.
+     */
+    private static List<String> parseSnippetTypes(String placeholder, Map<String, List<TextSnippet>> textSnippets, List<String> conditions) {
+        // check if there are conditions or extra snippet types to be extracted
+        String snippetType = placeholder;
+        if (placeholder.contains(":")) {
+            Arrays.stream(placeholder.split(":")).skip(1).forEach(conditions::add);
+            snippetType = placeholder.split(":")[0];
+        }
+        if (!textSnippets.containsKey(snippetType)) return null;
+
+        // check if some conditions are actually snippet types
+        List<String> snippetTypes = new ArrayList<>();
+        snippetTypes.add(snippetType);
+        for (int i = conditions.size() - 1; i >= 0; i--) {
+            String condition = conditions.get(i);
+            if (!condition.contains("(") && textSnippets.containsKey(condition)) {
+                snippetTypes.add(condition);
+                conditions.remove(i);
+            }
+        }
+        return snippetTypes;
+    }
+
+    private static PlaceholderNode resolvePlaceholder(String source, String snippetType,
+                                                      Map<String, List<TextSnippet>> textSnippets, Map<String, ValueProvider> valueProviders) {
+        List<String> conditions = new ArrayList<>();
+        List<String> snippetTypes = parseSnippetTypes(snippetType, textSnippets, conditions);
+        if (snippetTypes != null) {
+            return new SnippetNode(source, snippetTypes, conditions);
+        }
+        if (snippetType.contains(":")) {
+            snippetType = snippetType.split(":")[0];
+        }
+
+        // check if it is a value provider or a random number generator
+        ValueProvider valueProvider = valueProviders.get(snippetType);
+        if (valueProvider != null) {
+            return new ValueProviderNode(source, snippetType, valueProvider);
+        } else if (snippetType.matches("-?\\d+-?\\d+")) {
+            String[] bounds = snippetType.split("-");
+            if (bounds.length != 2 || bounds[0].isEmpty()) {
+                throw new IllegalArgumentException("Invalid number range [" + snippetType + "] in " + source);
+            }
+            return new NumberRangeNode(source, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]));
+        }
+        return null;
+    }
+
+    public abstract static class Node {
+    }
+
+    public static class LiteralNode extends Node {
+        private final String text;
+
+        private LiteralNode(String text) {
+            this.text = text;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * A part of the text that is replaced during generation.<br>
+     * The source is the full placeholder text including the brackets.
+     */
+    public abstract static class PlaceholderNode extends Node {
+        private final String source;
+
+        private PlaceholderNode(String source) {
+            this.source = source;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        @Override
+        public String toString() {
+            return source;
+        }
+    }
+
+    public static class SnippetNode extends PlaceholderNode {
+        private final List<String> snippetTypes;
+        private final List<String> conditions;
+
+        private SnippetNode(String source, List<String> snippetTypes, List<String> conditions) {
+            super(source);
+            this.snippetTypes = Collections.unmodifiableList(snippetTypes);
+            this.conditions = Collections.unmodifiableList(conditions);
+        }
+
+        public List<String> getSnippetTypes() {
+            return snippetTypes;
+        }
+
+        public List<String> getConditions() {
+            return conditions;
+        }
+    }
+
+    public static class ValueProviderNode extends PlaceholderNode {
+        private final String name;
+        private final ValueProvider valueProvider;
+
+        private ValueProviderNode(String source, String name, ValueProvider valueProvider) {
+            super(source);
+            this.name = name;
+            this.valueProvider = valueProvider;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ValueProvider getValueProvider() {
+            return valueProvider;
+        }
+    }
+
+    public static class NumberRangeNode extends PlaceholderNode {
+        private final int min, max;
+
+        private NumberRangeNode(String source, int min, int max) {
+            super(source);
+            this.min = min;
+            this.max = max;
+        }
+
+        public int getMin() {
+            return min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.yanwittmann.bingo.generator;
+
+import de.yanwittmann.bingo.BingoTile;
+
+import java.util.List;
+
+/**
+ * A tile on a {@link GenerationState}, either an existing {@link BingoTile} or a generated tile that is only stored in the
+ * reused buffers it was generated into.<br>
+ * The optimizers try and reject most of the tiles they generate. The state only needs the difficulty, the categories and
+ * the text key of a tile to keep its totals, so a generated tile only becomes a {@link BingoTile} once it is read from the
+ * state with {@link #toTile(List)}. Candidates are owned and reused by a single state, see
+ * {@link GenerationState#releaseTile(TileCandidate)}.
+ */
+final class TileCandidate {
+
+    final StringBuilder text = new StringBuilder();
+    final StringBuilder tooltip = new StringBuilder();
+    /**
+     * The categories of the inserted snippets, in addition to those of the generator.
+     */
+    final CategoryMask.Builder snippetCategories = new CategoryMask.Builder();
+    /**
+     * All categories of the tile that are part of the configuration, these are counted by the state.
+     */
+    final CategoryMask.Builder categories = new CategoryMask.Builder();
+    private final StringBuilder textKeyBuffer = new StringBuilder();
+    TileGenerator generator;
+    double difficulty;
+    private CharSequence textKey;
+    private BingoTile tile;
+
+    /**
+     * Computes the text key and the categories once the text, the generator and the snippet categories are complete.
+     */
+    void complete() {
+        textKeyBuffer.setLength(0);
+        textKey = BingoTile.appendTextKey(text, textKeyBuffer);
+        categories.clear().addAll(generator.getCategoryMask());
+        for (int id = snippetCategories.nextSetBit(0); id != -1; id = snippetCategories.nextSetBit(id + 1)) {
+            categories.add(id);
+        }
+    }
+
+    /**
+     * Makes this candidate hold the existing tile.
+     */
+    void wrap(BingoTile tile, CompiledBingoConfiguration configuration) {
+        clear();
+        this.tile = tile;
+        this.difficulty = tile.getDifficulty();
+        this.textKey = tile.getTextKey();
+        List<Category> tileCategories = tile.getCategories();
+        for (int i = 0; i < tileCategories.size(); i++) {
+            categories.add(configuration.getCategoryIndex(tileCategories.get(i)));
+        }
+    }
+
+    /**
+     * The key does not change once the candidate is complete, even when the tile is created later, so that it can be
+     * removed from the {@link TextKeyTable} it was added to.
+     */
+    CharSequence getTextKey() {
+        return textKey;
+    }
+
+    /**
+     * @param configurationCategories The categories of the configuration, which the snippet category ids refer to.
+     * @return The tile, created on the first call.
+     */
+    BingoTile toTile(List<Category> configurationCategories) {
+        if (tile == null) {
+            tile = new BingoTile(text.toString(), tooltip.toString(), difficulty);
+            List<Category> generatorCategories = generator.getCategories();
+            for (int i = 0; i < generatorCategories.size(); i++) {
+                tile.addCategory(generatorCategories.get(i));
+            }
+            for (int id = snippetCategories.nextSetBit(0); id != -1; id = snippetCategories.nextSetBit(id + 1)) {
+                tile.addCategory(configurationCategories.get(id));
+            }
+        }
+        return tile;
+    }
+
+    void clear() {
+        text.setLength(0);
+        tooltip.setLength(0);
+        snippetCategories.clear();
+        categories.clear();
+        generator = null;
+        difficulty = 0;
+        textKey = null;
+        tile = null;
+    }
+}
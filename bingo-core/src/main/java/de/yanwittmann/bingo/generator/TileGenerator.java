@@ -3,7 +3,6 @@ package de.yanwittmann.bingo.generator;
 import de.yanwittmann.bingo.interfaces.Weightable;
 
 import java.util.*;
-import java.util.regex.Matcher;
 
 public class TileGenerator implements Weightable {
 
@@ -13,9 +12,17 @@ public class TileGenerator implements Weightable {
     private double weight;
     private final List<Category> categories;
     private final List<String> difficulties;
-    private final Set<Category> derivedCategories;
-
-    public TileGenerator(Map<String, Object> optionMap, List<Category> categories, Map<String, List<TextSnippet>> textSnippets) {
+    private Set<Category> derivedCategories;
+    private TextTemplate template;
+    private CategoryMask categoryMask = CategoryMask.EMPTY;
+    private CategoryMask derivedCategoryMask = CategoryMask.EMPTY;
+    private CategoryMask antisynergyMask = CategoryMask.EMPTY;
+    private boolean frozen = false;
+
+    /**
+     * The derived categories are assigned once all snippets and tile generators of the configuration are loaded.
+     */
+    public TileGenerator(Map<String, Object> optionMap, List<Category> categories) {
         this.text = (String) optionMap.get(BingoConfiguration.KEY_TILE_GENERATOR_TEXT);
         this.tooltip = (String) optionMap.getOrDefault(BingoConfiguration.KEY_TILE_GENERATOR_TOOLTIP, null);
         this.difficulty = Double.parseDouble(String.valueOf(optionMap.getOrDefault(BingoConfiguration.KEY_TILE_GENERATOR_DIFFICULTY, 0)));
@@ -23,43 +30,75 @@ public class TileGenerator implements Weightable {
         this.weight = Double.parseDouble(String.valueOf(optionMap.getOrDefault(BingoConfiguration.KEY_TILE_GENERATOR_WEIGHT, 1)));
         this.categories = new ArrayList<>();
         Category.createCategories((List<String>) optionMap.getOrDefault(BingoConfiguration.KEY_TILE_GENERATOR_CATEGORIES, Collections.emptyList()), categories, this.categories, text);
-        this.derivedCategories = new HashSet<>();
-        deriveSnippetCategories(text, textSnippets);
-    }
-
-    private void deriveSnippetCategories(String text, Map<String, List<TextSnippet>> textSnippets) {
-        boolean found;
-        do {
-            found = false;
-            Matcher snippetsMatcher = TextSnippet.SNIPPET_PATTERN.matcher(text);
-            while (snippetsMatcher.find()) {
-                String snippetType = snippetsMatcher.group(1);
-                List<TextSnippet> snippets = textSnippets.get(snippetType);
-                if (snippets != null && snippets.size() > 0) {
-                    for (TextSnippet snippet : snippets) {
-                        for (Category category : snippet.getCategories()) {
-                            if (derivedCategories.add(category)) {
-                                deriveSnippetCategories(snippet.getText(), textSnippets);
-                            }
-                        }
-                    }
-                    found = true;
-                }
-                text = text.replace(snippetType, "");
-            }
-        } while (found);
+        this.derivedCategories = Collections.emptySet();
+    }
+
+    TileGenerator(String text, String tooltip, double difficulty, double weight, List<Category> categories, List<String> difficulties, Collection<Category> derivedCategories) {
+        this.text = text;
+        this.tooltip = tooltip;
+        this.difficulty = difficulty;
+        this.weight = weight;
+        this.categories = new ArrayList<>(categories);
+        this.difficulties = difficulties;
+        this.derivedCategories = new HashSet<>(derivedCategories);
     }
 
     public boolean containsAnyCategory(Collection<Category> categories) {
         return this.categories.stream().anyMatch(categories::contains);
     }
 
+    public boolean containsAnyCategory(CategoryMask categories) {
+        return categoryMask.intersects(categories);
+    }
+
+    public CategoryMask getCategoryMask() {
+        return categoryMask;
+    }
+
+    /**
+     * @return The categories of this generator combined with the categories that its snippets may add.
+     */
+    public CategoryMask getDerivedCategoryMask() {
+        return derivedCategoryMask;
+    }
+
+    /**
+     * @return All categories that have an antisynergy with at least one of the categories of this generator.
+     */
+    public CategoryMask getAntisynergyMask() {
+        return antisynergyMask;
+    }
+
+    /**
+     * Builds the category masks, requires the ids of all categories to be assigned.
+     */
+    void compileMasks() {
+        checkNotFrozen();
+        this.categoryMask = CategoryMask.of(categories);
+        this.derivedCategoryMask = categoryMask.or(CategoryMask.of(derivedCategories));
+        CategoryMask.Builder antisynergies = new CategoryMask.Builder();
+        for (Category category : categories) {
+            antisynergies.addAll(category.getAntisynergyMask());
+        }
+        this.antisynergyMask = antisynergies.build();
+    }
+
     public String getText() {
         return text;
     }
 
     public void setText(String text) {
+        checkNotFrozen();
         this.text = text;
+        this.template = null;
+    }
+
+    public TextTemplate getTemplate() {
+        return template;
+    }
+
+    void setTemplate(TextTemplate template) {
+        this.template = template;
     }
 
     public double getDifficulty() {
@@ -67,6 +106,7 @@ public class TileGenerator implements Weightable {
     }
 
     public void setDifficulty(double difficulty) {
+        checkNotFrozen();
         this.difficulty = difficulty;
     }
 
@@ -75,33 +115,61 @@ public class TileGenerator implements Weightable {
     }
 
     public void setWeight(double weight) {
+        checkNotFrozen();
         this.weight = weight;
     }
 
     public List<Category> getCategories() {
-        return categories;
+        return Collections.unmodifiableList(categories);
     }
 
     public void addCategory(Category category) {
+        checkNotFrozen();
         this.categories.add(category);
     }
 
     public void addCategory(String category) {
+        checkNotFrozen();
         this.categories.add(new Category(category));
     }
 
+    /**
+     * @return The categories of the snippets that the text of this generator may contain, directly or through other snippets.
+     */
     public Set<Category> getDerivedCategories() {
-        return derivedCategories;
+        return Collections.unmodifiableSet(derivedCategories);
+    }
+
+    /**
+     * @param derivedCategories The derived categories, see {@link SnippetReferenceGraph}. The set is not copied, it may be
+     *                          shared with other generators and snippets.
+     */
+    void setDerivedCategories(Set<Category> derivedCategories) {
+        checkNotFrozen();
+        this.derivedCategories = derivedCategories;
     }
 
     public List<String> getDifficulties() {
-        return difficulties;
+        return Collections.unmodifiableList(difficulties);
     }
 
     public String getTooltip() {
         return tooltip;
     }
 
+    /**
+     * Called once the configuration is compiled, after which the tile generator may no longer be modified.
+     */
+    void freeze() {
+        this.frozen = true;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Cannot modify tile generator [" + text + "] after the configuration has been compiled");
+        }
+    }
+
     @Override
     public String toString() {
         return text;
@@ -0,0 +1,42 @@
+package de.yanwittmann.bingo.generator;
+
+import java.util.Random;
+
+/**
+ * Strategy that picks the tiles of a board so that the board reaches the requested difficulty.<br>
+ * Implementations must not keep any state between calls, a single instance is shared between all boards of a batch.
+ */
+public interface TileOptimizer {
+
+    /**
+     * @return The name the strategy can be selected with using {@link #forName(String)}.
+     */
+    String getName();
+
+    /**
+     * Replaces the tiles in the state until the board is as close to the destination difficulty of the state as the
+     * strategy can get. The state is full after this method returns.
+     *
+     * @param request The parameters of the board.
+     * @param state   The board to optimize, may be empty or already contain tiles.
+     * @param random  The only source of randomness the strategy may use.
+     * @param budget  The time budget. If it is not unlimited, the generation attempts of the request are ignored and the
+     *                strategy stops once the budget expires or the target is reached.
+     */
+    void optimize(BingoGenerationRequest request, GenerationState state, Random random, GenerationBudget budget);
+
+    default void optimize(BingoGenerationRequest request, GenerationState state, Random random) {
+        optimize(request, state, random, GenerationBudget.unlimited());
+    }
+
+    TileOptimizer LEGACY = new LegacyTileOptimizer();
+    TileOptimizer SIMULATED_ANNEALING = new SimulatedAnnealingTileOptimizer();
+    TileOptimizer CONSTRAINT = new ConstraintTileOptimizer(SIMULATED_ANNEALING, 4, 100_000);
+
+    static TileOptimizer forName(String name) {
+        if (LEGACY.getName().equalsIgnoreCase(name)) return LEGACY;
+        if (SIMULATED_ANNEALING.getName().equalsIgnoreCase(name)) return SIMULATED_ANNEALING;
+        if (CONSTRAINT.getName().equalsIgnoreCase(name)) return CONSTRAINT;
+        throw new IllegalArgumentException("Unknown tile optimizer: " + name);
+    }
+}
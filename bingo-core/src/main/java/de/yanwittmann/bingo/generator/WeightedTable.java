@@ -0,0 +1,155 @@
+package de.yanwittmann.bingo.generator;
+
+import de.yanwittmann.bingo.interfaces.Weightable;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Immutable list of {@link Weightable}s with precomputed cumulative weights, so that drawing a random element only takes a
+ * binary search instead of summing up all weights on every draw.<br>
+ * Draws consume exactly one <code>nextDouble()</code> of the random and return the same element as the linear scan in
+ * {@link CompiledBingoConfiguration#getRandom(Collection, Random)} does for the same value.
+ */
+public final class WeightedTable<T extends Weightable> {
+
+    private static final WeightedTable<?> EMPTY = new WeightedTable<>(Collections.emptyList(), Weightable::getWeight);
+
+    private final List<T> elements;
+    private final double[] cumulativeWeights;
+    private final double totalWeight;
+    private final boolean monotonic;
+
+    private WeightedTable(List<T> elements, ToDoubleFunction<? super T> weight) {
+        this.elements = elements;
+        this.cumulativeWeights = new double[elements.size()];
+        double[] weights = new double[elements.size()];
+        double currentWeight = 0;
+        boolean monotonic = true;
+        for (int i = 0; i < elements.size(); i++) {
+            weights[i] = weight.applyAsDouble(elements.get(i));
+            if (!(weights[i] >= 0)) monotonic = false;
+            currentWeight += weights[i];
+            cumulativeWeights[i] = currentWeight;
+        }
+        this.totalWeight = sum(weights, 0, weights.length);
+        this.monotonic = monotonic;
+    }
+
+    public static <T extends Weightable> WeightedTable<T> of(Collection<T> elements) {
+        return of(elements, Weightable::getWeight);
+    }
+
+    /**
+     * @param weight The weight to draw each element with instead of its own weight.
+     */
+    public static <T extends Weightable> WeightedTable<T> of(Collection<T> elements, ToDoubleFunction<? super T> weight) {
+        if (elements.isEmpty()) return empty();
+        return new WeightedTable<>(Collections.unmodifiableList(new ArrayList<>(elements)), weight);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends Weightable> WeightedTable<T> empty() {
+        return (WeightedTable<T>) EMPTY;
+    }
+
+    /**
+     * @return A random element, the chance of every element is proportional to its weight. <code>null</code> if the table is empty.
+     */
+    public T next(Random random) {
+        double randomValue = random.nextDouble() * totalWeight;
+        int index = monotonic ? search(cumulativeWeights, 0, cumulativeWeights.length, randomValue) : scan(cumulativeWeights, 0, cumulativeWeights.length, randomValue);
+        if (index == -1) {
+            return elements.isEmpty() ? null : elements.get(0);
+        }
+        return elements.get(index);
+    }
+
+    /**
+     * Draws an element of the list with the same result as a table of the list would, without creating the table. Used
+     * for lists that change on every draw.
+     *
+     * @param buffer A reused buffer with room for twice the amount of elements.
+     */
+    static <T extends Weightable> T next(List<T> elements, double[] buffer, Random random) {
+        int size = elements.size();
+        double currentWeight = 0;
+        boolean monotonic = true;
+        for (int i = 0; i < size; i++) {
+            double weight = elements.get(i).getWeight();
+            if (!(weight >= 0)) monotonic = false;
+            buffer[i] = weight;
+            currentWeight += weight;
+            buffer[size + i] = currentWeight;
+        }
+        double totalWeight = sum(buffer, 0, size);
+        double randomValue = random.nextDouble() * totalWeight;
+        int index = monotonic ? search(buffer, size, 2 * size, randomValue) : scan(buffer, size, 2 * size, randomValue);
+        if (index == -1) {
+            return elements.isEmpty() ? null : elements.get(0);
+        }
+        return elements.get(index - size);
+    }
+
+    /**
+     * The compensated summation of {@link java.util.stream.DoubleStream#sum()} (as of Java 17), which the random value of
+     * {@link CompiledBingoConfiguration#getRandom(Collection, Random)} is scaled with, without creating a stream.
+     */
+    private static double sum(double[] values, int from, int to) {
+        double sum = 0, compensation = 0, simpleSum = 0;
+        for (int i = from; i < to; i++) {
+            double value = values[i] - compensation;
+            double next = sum + value;
+            compensation = (next - sum) - value;
+            sum = next;
+            simpleSum += values[i];
+        }
+        double result = sum - compensation;
+        // a spurious NaN from adding infinite values of the same sign
+        return Double.isNaN(result) && Double.isInfinite(simpleSum) ? simpleSum : result;
+    }
+
+    /**
+     * @return The first index between from and to with a cumulative weight of at least the given value or <code>-1</code>.
+     */
+    private static int search(double[] cumulativeWeights, int from, int to, double value) {
+        int low = from, high = to - 1;
+        int result = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeWeights[middle] >= value) {
+                result = middle;
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fallback for tables with negative weights, where the cumulative weights are not sorted.
+     */
+    private static int scan(double[] cumulativeWeights, int from, int to, double value) {
+        for (int i = from; i < to; i++) {
+            if (cumulativeWeights[i] >= value) return i;
+        }
+        return -1;
+    }
+
+    public List<T> getElements() {
+        return elements;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public boolean isEmpty() {
+        return elements.isEmpty();
+    }
+}
@@ -0,0 +1,87 @@
+package de.yanwittmann.bingo;
+
+import de.yanwittmann.bingo.generator.Category;
+import de.yanwittmann.bingo.generator.CategoryRegistry;
+import org.apache.commons.io.FileUtils;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BingoBoardReaderTest {
+
+    private static String json;
+
+    @BeforeAll
+    static void loadBoard() throws IOException {
+        json = FileUtils.readFileToString(new File("src/test/resources/bingo/load/outer_wilds.json"), StandardCharsets.UTF_8).trim();
+    }
+
+    @Test
+    void readNdjsonInternsCategoriesTest() throws IOException {
+        CategoryRegistry registry = new CategoryRegistry();
+        try (BingoBoardReader reader = new BingoBoardReader(new StringReader(json.replace("\n", "") + "\n\n" + json.replace("\n", "") + "\n"), registry)) {
+            BingoBoard first = reader.read();
+            BingoBoard second = reader.read();
+            assertTrue(new BingoBoard(new JSONObject(json)).toJson().similar(first.toJson()));
+            assertTrue(first.toJson().similar(second.toJson()));
+            // the boards share the category instances of the registry instead of creating their own
+            Category category = first.get(0, 0).getCategories().get(0);
+            assertSame(category, second.get(0, 0).getCategories().get(0));
+            assertSame(category, registry.intern(category.getName()));
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    void readArrayTest() throws IOException {
+        try (BingoBoardReader reader = reader("[" + json + ",\n" + json + "]\n[]")) {
+            BingoBoard first = reader.read();
+            BingoBoard second = reader.read();
+            assertTrue(new BingoBoard(new JSONObject(json)).toJson().similar(second.toJson()));
+            assertSame(first.get(0, 0).getCategories().get(0), second.get(0, 0).getCategories().get(0));
+            assertNull(reader.read());
+        }
+        List<BingoBoard> boards = new ArrayList<>();
+        try (BingoBoardReader reader = reader("[" + json + "," + json + "," + json + "]")) {
+            reader.forEach(boards::add);
+            assertThrows(IllegalStateException.class, reader::iterator);
+        }
+        assertEquals(3, boards.size());
+    }
+
+    @Test
+    void malformedInputTest() throws IOException {
+        assertMalformed("[" + json);
+        assertMalformed(json.substring(0, json.length() / 2));
+        assertMalformed("{\"width\": 2, \"board\": []}");
+        assertMalformed("{\"width\": \"five\"}");
+        assertMalformed("{\"difficulty\": 1.x}");
+        assertMalformed("{\"text\": \"\\q\"}");
+        assertMalformed("{\"text\": \"unterminated}");
+    }
+
+    private static void assertMalformed(String input) throws IOException {
+        try (BingoBoardReader reader = reader(input)) {
+            assertThrows(IOException.class, () -> {
+                while (reader.read() != null) ;
+            }, input);
+        }
+    }
+
+    private static BingoBoardReader reader(String input) {
+        return new BingoBoardReader(new StringReader(input), new CategoryRegistry());
+    }
+}
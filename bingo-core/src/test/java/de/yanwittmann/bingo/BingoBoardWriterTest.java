@@ -0,0 +1,58 @@
+package de.yanwittmann.bingo;
+
+import org.apache.commons.io.FileUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BingoBoardWriterTest {
+
+    private static BingoBoard board;
+
+    @BeforeAll
+    static void loadBoard() throws IOException {
+        board = new BingoBoard(new JSONObject(FileUtils.readFileToString(new File("src/test/resources/bingo/load/outer_wilds.json"), StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void writeNdjsonTest() throws IOException {
+        StringWriter ndjson = new StringWriter();
+        try (BingoBoardWriter writer = new BingoBoardWriter(ndjson, BingoBoardWriter.Format.NDJSON)) {
+            writer.write(board);
+            writer.write(board);
+            assertEquals(2, writer.getCount());
+        }
+        String[] lines = ndjson.toString().split("\n");
+        assertEquals(2, lines.length);
+        for (String line : lines) {
+            assertTrue(board.toJson().similar(new JSONObject(line)));
+        }
+    }
+
+    @Test
+    void writeJsonArrayTest() throws IOException {
+        StringWriter json = new StringWriter();
+        BingoBoardWriter writer = new BingoBoardWriter(json, BingoBoardWriter.Format.JSON_ARRAY);
+        writer.write(board);
+        writer.write(board);
+        writer.close();
+        JSONArray boards = new JSONArray(json.toString());
+        assertEquals(2, boards.length());
+        assertTrue(board.toJson().similar(boards.getJSONObject(1)));
+        assertThrows(IllegalStateException.class, () -> writer.write(board));
+
+        StringWriter empty = new StringWriter();
+        new BingoBoardWriter(empty, BingoBoardWriter.Format.JSON_ARRAY).close();
+        assertEquals("[]", empty.toString());
+    }
+}
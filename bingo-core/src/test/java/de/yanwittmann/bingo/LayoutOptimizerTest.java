@@ -0,0 +1,98 @@
+package de.yanwittmann.bingo;
+
+import de.yanwittmann.bingo.generator.BingoConfiguration;
+import de.yanwittmann.bingo.generator.BingoGenerationRequest;
+import de.yanwittmann.bingo.generator.BingoGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayoutOptimizerTest {
+
+    private static BingoConfiguration configuration;
+    private static List<BingoTile> tiles;
+
+    @BeforeAll
+    static void generateTiles() throws FileNotFoundException {
+        configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        BingoBoard board = new BingoGenerator(configuration).generateBingoBoard(new BingoGenerationRequest(5, 5, configuration.getDifficultyForLevel("Normal"), 2, 3));
+        tiles = new ArrayList<>();
+        for (int x = 0; x < 5; x++) {
+            for (int y = 0; y < 5; y++) {
+                tiles.add(board.get(x, y));
+            }
+        }
+    }
+
+    @Test
+    void incrementalSwapMatchesFullScoreTest() {
+        LayoutScorer scorer = new LayoutScorer(5, 5, configuration.getCategories(), tiles);
+        BingoTile[] layout = tiles.toArray(new BingoTile[0]);
+        assertEquals(scorer.score(layout.clone()), scorer.reset(layout));
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            int score = scorer.swap(random.nextInt(layout.length), random.nextInt(layout.length));
+            assertEquals(scorer.score(layout.clone()), score);
+        }
+    }
+
+    @Test
+    void swapKeepsOrImprovesScoreTest() {
+        LayoutScorer scorer = new LayoutScorer(5, 5, configuration.getCategories(), tiles);
+        for (long seed = 0; seed < 20; seed++) {
+            // without iterations the search returns the shuffled layout it starts from
+            int start = scorer.score(SwapLayoutOptimizer.hillClimb(0).optimize(scorer, tiles, new Random(seed)));
+            BingoTile[] layout = LayoutOptimizer.SWAP.optimize(scorer, tiles, new Random(seed));
+            assertTrue(scorer.score(layout) >= start);
+            assertEquals(tiles.size(), layout.length);
+        }
+    }
+
+    @Test
+    void parallelLayoutIsDeterministicTest() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            LayoutScorer scorer = new LayoutScorer(5, 5, configuration.getCategories(), tiles);
+            BingoTile[] parallel = new ParallelLayoutOptimizer(LayoutOptimizer.SWAP, 4, executor).optimize(scorer, tiles, new Random(9));
+            BingoTile[] sequential = new ParallelLayoutOptimizer(LayoutOptimizer.SWAP, 4, Runnable::run).optimize(scorer, tiles, new Random(9));
+            assertEquals(Arrays.asList(sequential), Arrays.asList(parallel));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void parallelRestartsShareWorkTest() {
+        LayoutScorer scorer = new LayoutScorer(5, 5, configuration.getCategories(), tiles);
+        new ParallelLayoutOptimizer(new ShuffleLayoutOptimizer(1000), 4, Runnable::run).optimize(scorer, tiles, new Random(9));
+        // 250 trials per restart and a final score of each restart layout
+        assertEquals(1000 + 4, scorer.getEvaluations());
+        assertEquals(250, ((ShuffleLayoutOptimizer) new ShuffleLayoutOptimizer(1000).split(4)).getTrials());
+        assertEquals(7, ((SwapLayoutOptimizer) new SwapLayoutOptimizer().split(3)).getIterationsPerCell());
+    }
+
+    @Test
+    void timeBudgetStopsSearchTest() {
+        LayoutScorer scorer = new LayoutScorer(5, 5, configuration.getCategories(), tiles);
+        // a used up budget still returns a complete layout after the first trial
+        BingoTile[] shuffled = new ShuffleLayoutOptimizer(Integer.MAX_VALUE).withTimeBudget(Duration.ZERO).optimize(scorer, tiles, new Random(4));
+        assertEquals(16, scorer.getEvaluations());
+        assertEquals(new HashSet<>(tiles), new HashSet<>(Arrays.asList(shuffled)));
+        BingoTile[] swapped = new SwapLayoutOptimizer(Integer.MAX_VALUE, 8, 0.1, null).withTimeBudget(Duration.ZERO).optimize(scorer, tiles, new Random(4));
+        assertEquals(new HashSet<>(tiles), new HashSet<>(Arrays.asList(swapped)));
+        assertEquals(Duration.ofMillis(5), ((ShuffleLayoutOptimizer) new ShuffleLayoutOptimizer(10, Duration.ofMillis(5)).withTimeBudget(Duration.ofSeconds(1))).getTimeBudget());
+    }
+}
@@ -1,14 +1,32 @@
 package de.yanwittmann.bingo.generator;
 
 import de.yanwittmann.bingo.BingoBoard;
+import de.yanwittmann.bingo.BingoTile;
+import de.yanwittmann.bingo.CompactBingoBoard;
+import de.yanwittmann.bingo.CompactBoardPool;
+import de.yanwittmann.bingo.LayoutOptimizer;
+import de.yanwittmann.bingo.ShuffleLayoutOptimizer;
 import org.apache.commons.io.FileUtils;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class BingoGeneratorTest {
 
@@ -24,6 +42,158 @@ class BingoGeneratorTest {
         System.out.println(bingoBoard.toJson());
     }
 
+    @Test
+    void batchGenerateTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        BingoGenerator generator = new BingoGenerator(configuration);
+        generator.setWidth(3);
+        generator.setHeight(3);
+        generator.setMaxGenerationAttempts(2);
+        generator.setDifficultyLevel("Normal");
+        List<BingoBoard> sequential = generator.generateBingoBoards(6, 42, 1);
+        List<BingoBoard> parallel = generator.generateBingoBoards(6, 42, 4);
+        BingoBoard single = generator.generateBingoBoard(new Random(BingoGenerator.deriveBoardSeed(42, 5)));
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).toString(), parallel.get(i).toString());
+        }
+        assertEquals(single.toString(), parallel.get(5).toString());
+
+        CompactBoardPool pool = new CompactBoardPool(configuration.getCategories());
+        BingoGenerationRequest request = new BingoGenerationRequest(3, 3, generator.getDifficulty(), 2, 42);
+        List<CompactBingoBoard> compact = generator.generateCompactBingoBoards(request, 6, 4, () -> false, pool);
+        for (int i = 0; i < compact.size(); i++) {
+            BingoBoard board = compact.get(i).toBingoBoard();
+            assertEquals(sequential.get(i).toString(), board.toString());
+            assertEquals(sequential.get(i).getCategoryCount(), board.getCategoryCount());
+            BingoTile tile = sequential.get(i).get(1, 2);
+            assertEquals(tile.getTooltip(), compact.get(i).getTooltip(1, 2));
+            assertEquals(tile.getDifficulty(), compact.get(i).getDifficulty(1, 2));
+            assertEquals(new HashSet<>(tile.getCategories()), new HashSet<>(board.get(1, 2).getCategories()));
+            assertEquals(compact.get(i).getCategories(1, 2), board.get(1, 2).getCategories());
+            assertEquals(tile.getTextKey(), board.get(1, 2).getTextKey());
+            assertThrows(UnsupportedOperationException.class, () -> board.get(1, 2).addCategory(configuration.getCategories().get(0)));
+            for (Category category : configuration.getCategories()) {
+                assertEquals(tile.getCategories().contains(category), compact.get(i).hasCategory(1, 2, category));
+            }
+        }
+    }
+
+    @Test
+    void batchCancellationTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        BingoGenerator generator = new BingoGenerator(configuration);
+        generator.setWidth(3);
+        generator.setHeight(3);
+        generator.setMaxGenerationAttempts(2);
+        generator.setDifficultyLevel("Normal");
+        // the check runs before every board, so it trips after three boards were started
+        AtomicInteger checks = new AtomicInteger();
+        assertThrows(CancellationException.class, () -> generator.generateBingoBoards(8, 42, 1, () -> checks.incrementAndGet() > 3));
+        assertTrue(checks.get() >= 4);
+        assertThrows(CancellationException.class, () -> generator.generateBingoBoards(8, 42, 4, () -> true));
+
+        assertThrows(IllegalArgumentException.class, () -> generator.generateBingoBoards(-1, 42, 1));
+        assertThrows(IllegalArgumentException.class, () -> generator.generateBingoBoards(2, 42, 0));
+        assertThrows(IllegalArgumentException.class, () -> generator.generateBingoBoards(2, 42, 1, null));
+        BingoGenerationRequest request = new BingoGenerationRequest(3, 3, generator.getDifficulty(), 2, 42);
+        assertThrows(IllegalArgumentException.class, () -> generator.generateCompactBingoBoards(request, 2, 1, () -> false, null));
+        assertEquals(0, generator.generateBingoBoards(0, 42, 1).size());
+    }
+
+    @Test
+    void requestGenerateTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        BingoGenerator generator = new BingoGenerator(configuration);
+        BingoGenerationRequest request = new BingoGenerationRequest(3, 3, configuration.getDifficultyForLevel("Hard"), 2, 7);
+        assertEquals(generator.generateBingoBoard(request).toString(), generator.generateBingoBoard(request).toString());
+        BingoGenerationRequest annealing = request.withOptimizer(TileOptimizer.forName("annealing")).withLayoutOptimizer(LayoutOptimizer.forName("swap"));
+        assertEquals(generator.generateBingoBoard(annealing).toString(), generator.generateBingoBoard(annealing).toString());
+    }
+
+    @Test
+    void listenerTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        BingoGenerator generator = new BingoGenerator(configuration);
+        BingoGenerationRequest annealing = new BingoGenerationRequest(3, 3, configuration.getDifficultyForLevel("Hard"), 2, 7)
+                .withOptimizer(TileOptimizer.SIMULATED_ANNEALING).withLayoutOptimizer(LayoutOptimizer.SWAP);
+        GenerationMetrics metrics = new GenerationMetrics();
+        assertEquals(generator.generateBingoBoard(annealing).toString(), generator.generateBingoBoard(annealing.withListener(metrics)).toString());
+        assertEquals(metrics.getCount(GenerationEvent.ATTEMPT), metrics.getCount(GenerationEvent.MOVE_ACCEPTED) + metrics.getCount(GenerationEvent.MOVE_REJECTED));
+        assertTrue(metrics.getCount(GenerationEvent.ATTEMPT) > 0);
+        assertTrue(metrics.getCount(GenerationEvent.LAYOUT_EVALUATION) > 0);
+        assertEquals(1, metrics.getPhaseCount(GenerationPhase.BOARD));
+    }
+
+    @Test
+    void largeBoardGenerateTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        BingoGenerationRequest request = new BingoGenerationRequest(20, 20, configuration.getDifficultyForLevel("Hard"), 1, 7).withLargeBoardMode();
+        BingoBoard large = new BingoGenerator(configuration).generateBingoBoard(request);
+        assertNotNull(large.get(19, 19));
+    }
+
+    @Test
+    void configurationImmutableTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        assertThrows(IllegalStateException.class, () -> configuration.getTileGenerators().get(0).setWeight(2));
+        assertThrows(UnsupportedOperationException.class, () -> configuration.getCategories().clear());
+    }
+
+    @Test
+    void snapshotTest(@TempDir File snapshotDirectory) throws IOException {
+        File file = new File("src/test/resources/bingo/generate/outer_wilds.yaml");
+        BingoConfiguration parsed = BingoConfiguration.load(file, snapshotDirectory);
+        BingoConfiguration snapshot = BingoConfiguration.load(file, snapshotDirectory);
+        assertEquals(parsed.getSourceHash(), snapshot.getSourceHash());
+        for (int i = 0; i < parsed.getTileGenerators().size(); i++) {
+            assertEquals(parsed.getTileGenerators().get(i).getDerivedCategories(), snapshot.getTileGenerators().get(i).getDerivedCategories());
+        }
+        BingoGenerationRequest request = new BingoGenerationRequest(4, 4, parsed.getDifficultyForLevel("Normal"), 2, 11);
+        assertEquals(new BingoGenerator(parsed).generateBingoBoard(request).toString(), new BingoGenerator(snapshot).generateBingoBoard(request).toString());
+    }
+
+    @Test
+    void snapshotWriteFailureTest(@TempDir File snapshotDirectory) throws IOException {
+        File file = new File("src/test/resources/bingo/generate/outer_wilds.yaml");
+        // a non-empty directory in place of the snapshot cannot be replaced
+        File blocked = new File(snapshotDirectory, file.getName() + ".snapshot");
+        assertTrue(new File(blocked, "content").mkdirs());
+        assertNotNull(BingoConfiguration.load(file, snapshotDirectory));
+        assertArrayEquals(new String[]{blocked.getName()}, snapshotDirectory.list());
+    }
+
+    @Test
+    void budgetGenerateTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        BingoGenerator generator = new BingoGenerator(configuration);
+        generator.setDifficultyLevel("Normal");
+        generator.setTileOptimizer(TileOptimizer.SIMULATED_ANNEALING);
+        GenerationBudget budget = new GenerationBudget(Duration.ofMillis(300));
+        BingoBoard bingoBoard = generator.generateBingoBoard(new Random(3), budget);
+        assertNotNull(bingoBoard.get(4, 4));
+        assertTrue(budget.isTargetReached() || budget.getUsed().compareTo(budget.getBudget()) >= 0);
+        assertThrows(IllegalStateException.class, () -> generator.generateBingoBoard(new Random(3), budget));
+    }
+
+    @Test
+    void budgetBoundsLayoutTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        BingoGenerator generator = new BingoGenerator(configuration);
+        generator.setWidth(10);
+        generator.setHeight(10);
+        generator.setDifficultyLevel("Normal");
+        generator.setTileOptimizer(TileOptimizer.SIMULATED_ANNEALING);
+        // without the budget, the layout search alone would take hours
+        generator.setLayoutOptimizer(new ShuffleLayoutOptimizer(Integer.MAX_VALUE));
+        GenerationBudget budget = new GenerationBudget(Duration.ofMillis(200));
+        long start = System.nanoTime();
+        BingoBoard bingoBoard = generator.generateBingoBoard(new Random(3), budget);
+        long elapsed = System.nanoTime() - start;
+        assertNotNull(bingoBoard.get(9, 9));
+        assertTrue(elapsed < Duration.ofSeconds(5).toNanos(), "took " + Duration.ofNanos(elapsed));
+        assertEquals(Duration.ZERO, budget.getRemaining());
+    }
+
     @Test
     public void loadTest() throws IOException {
         BingoBoard bingoBoard = new BingoBoard(new JSONObject(String.join("", FileUtils.readLines(new File("src/test/resources/bingo/load/outer_wilds.json"), StandardCharsets.UTF_8))));
@@ -0,0 +1,53 @@
+package de.yanwittmann.bingo.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CandidateCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedTest() {
+        CandidateCache<Integer, String> cache = new CandidateCache<>(2);
+        AtomicInteger computed = new AtomicInteger();
+        cache.get(1, key -> "one" + computed.incrementAndGet());
+        cache.get(2, key -> "two" + computed.incrementAndGet());
+        // using 1 again makes 2 the least recently used entry
+        assertEquals("one1", cache.get(1, key -> "one" + computed.incrementAndGet()));
+        cache.get(3, key -> "three" + computed.incrementAndGet());
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals("one1", cache.get(1, key -> "one" + computed.incrementAndGet()));
+        assertEquals("two4", cache.get(2, key -> "two" + computed.incrementAndGet()));
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void limitedGeneratorKeyMatchesFullFilterTest() throws FileNotFoundException {
+        CompiledBingoConfiguration compiled = new BingoConfiguration(new File("src/test/resources/bingo/generate/test_outer_wilds.yaml")).compile();
+        int otherLevelOnly = 0;
+        for (Difficulty difficulty : compiled.getDifficulties()) {
+            double destinationDifficulty = difficulty.getScore();
+            for (Category category : compiled.getCategories()) {
+                CategoryMask mustBe = new CategoryMask.Builder().add(category).build();
+                CompiledBingoConfiguration.GeneratorCandidates cached = compiled.getTileGenerators(destinationDifficulty, mustBe, CategoryMask.EMPTY, true);
+                CompiledBingoConfiguration.GeneratorCandidates full = compiled.getTileGenerators(destinationDifficulty, mustBe, CategoryMask.EMPTY, false);
+                assertEquals(full.getTable().getElements(), cached.getTable().getElements(), category.getName());
+                assertEquals(full.isCategoryFallback(), cached.isCategoryFallback(), category.getName());
+                if (compiled.getTileGenerators().stream().anyMatch(generator -> generator.getDerivedCategoryMask().contains(category))
+                    && cached.isCategoryFallback()) {
+                    otherLevelOnly++;
+                }
+            }
+        }
+        // must-be categories that only generators of another difficulty level can contain fall back to all generators
+        assertTrue(otherLevelOnly > 0);
+    }
+}
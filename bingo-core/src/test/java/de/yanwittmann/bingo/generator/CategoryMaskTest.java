@@ -0,0 +1,67 @@
+package de.yanwittmann.bingo.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CategoryMaskTest {
+
+    @Test
+    void idsAbove64Test() {
+        CategoryMask mask = new CategoryMask.Builder().add(3).add(70).add(130).build();
+        CategoryMask other = new CategoryMask.Builder().add(70).add(200).build();
+
+        assertTrue(mask.contains(70));
+        assertTrue(mask.contains(130));
+        assertFalse(mask.contains(6));
+        assertFalse(mask.contains(66));
+        assertFalse(mask.contains(200));
+        assertEquals(3, mask.cardinality());
+        assertEquals(70, mask.nextSetBit(4));
+        assertEquals(130, mask.nextSetBit(71));
+        assertEquals(-1, mask.nextSetBit(131));
+
+        assertTrue(mask.intersects(other));
+        assertEquals(1, mask.intersectionCount(other));
+        assertEquals(new CategoryMask.Builder().add(70).build(), mask.and(other));
+        assertEquals(4, mask.or(other).cardinality());
+        assertTrue(mask.or(other).containsAll(mask));
+        assertFalse(mask.containsAll(other));
+        assertFalse(mask.intersects(new CategoryMask.Builder().add(6).add(194).build()));
+    }
+
+    @Test
+    void masksWithTrailingEmptyWordsAreEqualTest() {
+        // and() keeps the length of the shorter mask, so the same ids can be stored with a different amount of words
+        CategoryMask wide = new CategoryMask.Builder().add(5).add(130).build().and(new CategoryMask.Builder().add(5).add(129).build());
+        CategoryMask narrow = new CategoryMask.Builder().add(5).build();
+        assertEquals(narrow, wide);
+        assertEquals(narrow.hashCode(), wide.hashCode());
+        assertEquals(CategoryMask.EMPTY, new CategoryMask.Builder().add(130).build().and(wide));
+
+        CategoryMask.Builder builder = new CategoryMask.Builder().add(130).clear().add(5);
+        assertTrue(builder.matches(narrow));
+        assertTrue(builder.matches(wide));
+        assertEquals(narrow.hashCode(), builder.maskHashCode());
+        assertFalse(builder.add(64).matches(narrow));
+    }
+
+    @Test
+    void compiledCategoriesHaveDenseIdsTest() throws FileNotFoundException {
+        CompiledBingoConfiguration compiled = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml")).compile();
+        List<Category> categories = compiled.getCategories();
+        for (int i = 0; i < categories.size(); i++) {
+            assertEquals(i, categories.get(i).getId());
+            assertEquals(i, compiled.getCategoryIndex(categories.get(i)));
+        }
+        CategoryMask all = CategoryMask.of(categories);
+        assertEquals(categories.size(), all.cardinality());
+        assertEquals(categories.size() - 1, all.nextSetBit(categories.size() - 1));
+    }
+}
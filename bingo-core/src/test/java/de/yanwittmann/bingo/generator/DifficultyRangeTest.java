@@ -0,0 +1,81 @@
+package de.yanwittmann.bingo.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DifficultyRangeTest {
+
+    @Test
+    void plusAndUnionTest() {
+        DifficultyRange choice = DifficultyRange.of(1).union(DifficultyRange.of(3));
+        DifficultyRange sum = choice.plus(DifficultyRange.of(0.5).union(DifficultyRange.of(1)));
+        assertArrayEquals(new double[]{1.5, 2, 3.5, 4}, sum.getValues());
+        assertEquals(1.5, sum.getMin());
+        assertEquals(4, sum.getMax());
+        assertTrue(sum.contains(3.5));
+        assertFalse(sum.contains(3));
+        assertEquals(0.5, sum.distanceTo(3), 1e-9);
+        assertEquals(1, sum.distanceTo(5), 1e-9);
+        assertEquals(0, DifficultyRange.ZERO.plus(sum).distanceTo(2));
+
+        DifficultyRange between = sum.union(DifficultyRange.between(10, 12));
+        assertFalse(between.isDiscrete());
+        assertTrue(between.contains(7));
+        assertEquals(0, between.distanceTo(11));
+        assertEquals(1.5, between.plus(DifficultyRange.of(1)).distanceTo(1));
+        assertFalse(DifficultyRange.UNBOUNDED.plus(sum).isDiscrete());
+        assertEquals(0, DifficultyRange.UNBOUNDED.distanceTo(-1000));
+
+        assertThrows(IllegalArgumentException.class, () -> DifficultyRange.between(2, 1));
+    }
+
+    @Test
+    void tooManyValuesFallBackToBoundsTest() {
+        DifficultyRange range = DifficultyRange.ZERO;
+        for (int i = 1; i <= DifficultyRange.MAX_VALUES; i++) {
+            range = range.union(DifficultyRange.of(i));
+        }
+        assertFalse(range.isDiscrete());
+        assertEquals(0, range.getMin());
+        assertEquals(DifficultyRange.MAX_VALUES, range.getMax());
+        assertTrue(range.contains(0.5));
+
+        DifficultyRange steps = DifficultyRange.ZERO.union(DifficultyRange.of(1));
+        DifficultyRange sum = steps;
+        for (int i = 2; i < DifficultyRange.MAX_VALUES; i++) {
+            sum = sum.plus(steps);
+        }
+        assertEquals(DifficultyRange.MAX_VALUES, sum.getValues().length);
+        assertFalse(sum.plus(steps).isDiscrete());
+    }
+
+    @Test
+    void compiledRangesTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        CompiledBingoConfiguration compiled = configuration.compile();
+        for (TileGenerator tileGenerator : configuration.getTileGenerators()) {
+            DifficultyRange range = compiled.getDifficultyRange(tileGenerator);
+            if (!tileGenerator.getTemplate().containsPlaceholders()) {
+                assertTrue(range.isConstant());
+                assertEquals(tileGenerator.getDifficulty(), range.getMin());
+            }
+            assertTrue(range.getMin() <= range.getMax());
+        }
+        // every snippet that the placeholder can insert adds its difficulty to that of the generator
+        TileGenerator campfire = configuration.getTileGenerators().stream().filter(generator -> generator.getText().contains("[PLANET:tag(campfire)]")).findFirst().get();
+        DifficultyRange campfireRange = compiled.getDifficultyRange(campfire);
+        for (TextSnippet planet : configuration.getTextSnippets().get("PLANET")) {
+            if (planet.getTags().contains("campfire")) {
+                assertTrue(campfireRange.contains(campfire.getDifficulty() + planet.getDifficulty()));
+            }
+        }
+    }
+}
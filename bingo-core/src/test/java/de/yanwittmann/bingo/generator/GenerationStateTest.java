@@ -0,0 +1,74 @@
+package de.yanwittmann.bingo.generator;
+
+import de.yanwittmann.bingo.BingoTile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationStateTest {
+
+    @Test
+    void removeAndRestoreTest() throws FileNotFoundException {
+        CompiledBingoConfiguration compiled = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml")).compile();
+        GenerationState state = new GenerationState(compiled, 9, compiled.getDifficultyForLevel("Hard"));
+        state.fill(new Random(1));
+        GenerationState backup = state.copy();
+        BingoTile removed = state.remove(4);
+        assertTrue(!state.containsText(new StringBuilder(removed.getText())) || state.getTiles().stream().anyMatch(tile -> tile.isTextEqual(removed.getText())));
+        state.fill(new Random(2));
+        state.restore(backup);
+        assertEquals(backup.getTiles(), state.getTiles());
+        assertTrue(state.containsText(new StringBuilder(removed.getText())));
+        for (int i = 0; i < compiled.getCategories().size(); i++) {
+            assertEquals(state.isMustBeCategory(i), state.getMustBeCategories().contains(i));
+            assertEquals(state.isMayNotBeCategory(i), state.getMayNotBeCategories().contains(i));
+        }
+    }
+
+    @Test
+    void incrementalTotalsMatchRecountTest() throws FileNotFoundException {
+        CompiledBingoConfiguration compiled = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml")).compile();
+        GenerationState state = new GenerationState(compiled, 16, compiled.getDifficultyForLevel("Normal"));
+        Random random = new Random(8);
+        state.fill(random);
+        for (int i = 0; i < 200; i++) {
+            switch (state.size() < 4 ? 3 : random.nextInt(4)) {
+                case 0:
+                    state.remove(random.nextInt(state.size()));
+                    break;
+                case 1:
+                    state.regenerate(random.nextInt(state.size()), random);
+                    break;
+                case 2:
+                    state.set(random.nextInt(state.size()), compiled.generateTile(state, random));
+                    break;
+                default:
+                    state.fill(random);
+            }
+            assertTotals(compiled, state);
+        }
+    }
+
+    private static void assertTotals(CompiledBingoConfiguration compiled, GenerationState state) {
+        double difficulty = 0;
+        Map<Category, Integer> counts = new HashMap<>();
+        for (Category category : compiled.getCategories()) {
+            counts.put(category, 0);
+        }
+        for (BingoTile tile : state.getTiles()) {
+            difficulty += tile.getDifficulty();
+            for (Category category : tile.getCategories()) {
+                counts.merge(category, 1, Integer::sum);
+            }
+        }
+        assertEquals(difficulty / state.size(), state.getDifficulty(), 1e-9);
+        assertEquals(counts, state.getCategoryCounts());
+    }
+}
@@ -0,0 +1,66 @@
+package de.yanwittmann.bingo.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnippetConditionTest {
+
+    private final Category rocky = new Category("rocky");
+    private final Category water = new Category("water");
+    private final TextSnippet snippet = new TextSnippet("Giant's Deep", null, 0, 1, Collections.singletonList(rocky),
+            Collections.singleton(water), Arrays.asList("campfire", "ocean"));
+
+    @Test
+    void staticConditionsTest() {
+        assertTrue(matches("tag(campfire)"));
+        assertFalse(matches("!tag(campfire)"));
+        assertFalse(matches("tag(moon)"));
+        assertTrue(matches("!tag(moon)"));
+        assertTrue(matches("category(rocky)"));
+        assertFalse(matches("category(water)"));
+        assertTrue(matches("derivedCategory(water)"));
+        assertTrue(matches("!derivedCategory(rocky)"));
+        assertFalse(SnippetCondition.parse("tag(campfire)", "").isDynamic());
+        assertEquals(SnippetCondition.Type.DERIVED_CATEGORY, SnippetCondition.parse("!derivedCategory(water)", "").getType());
+    }
+
+    @Test
+    void avoidDuplicatesTest() {
+        SnippetCondition condition = SnippetCondition.parse("avoid_duplicates", "");
+        assertTrue(condition.isDynamic());
+        assertFalse(condition.matches(snippet, new StringBuilder("Visit Giant's Deep")));
+        assertTrue(condition.matches(snippet, new StringBuilder("Visit Giant's")));
+        assertTrue(condition.matches(snippet, ""));
+    }
+
+    @Test
+    void invalidConditionsMatchEverySnippetTest() {
+        assertEquals(SnippetCondition.Type.ANY, SnippetCondition.parse("unknown(campfire)", "").getType());
+        assertEquals(SnippetCondition.Type.ANY, SnippetCondition.parse("tag(", "").getType());
+        assertTrue(matches("unknown(campfire)"));
+        assertTrue(snippet.matchesCondition(null, ""));
+    }
+
+    @Test
+    void configurationSnippetsTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        for (TextSnippet planet : configuration.getTextSnippets().get("PLANET")) {
+            assertEquals(planet.getTags().contains("campfire"), planet.matchesCondition("tag(campfire)", ""));
+            assertEquals(planet.getTags().contains("campfire"), !planet.matchesCondition("!tag(campfire)", ""));
+            assertEquals(!planet.getCategories().isEmpty(), planet.matchesCondition("category(" + (planet.getCategories().isEmpty() ? "" : planet.getCategories().get(0).getName()) + ")", ""));
+            assertFalse(planet.matchesCondition("avoid_duplicates", "At " + planet.getText() + "!"));
+        }
+    }
+
+    private boolean matches(String condition) {
+        return snippet.matchesCondition(condition, "");
+    }
+}
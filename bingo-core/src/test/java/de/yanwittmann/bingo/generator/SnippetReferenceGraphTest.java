@@ -0,0 +1,66 @@
+package de.yanwittmann.bingo.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnippetReferenceGraphTest {
+
+    private final Category x = new Category("x"), y = new Category("y"), z = new Category("z"), w = new Category("w");
+
+    @Test
+    void cyclicReferencesTest() {
+        // A and B reference each other, B also references C, D is not referenced by any other type
+        Map<String, List<TextSnippet>> textSnippets = new LinkedHashMap<>();
+        textSnippets.put("A", Collections.singletonList(snippet("a [B]", x)));
+        textSnippets.put("B", Arrays.asList(snippet("b [A]", y), snippet("b [C]")));
+        textSnippets.put("C", Collections.singletonList(snippet("c", z)));
+        textSnippets.put("D", Collections.singletonList(snippet("d", w)));
+        TileGenerator cycle = generator("[A]");
+        TileGenerator separate = generator("[D] and [C]");
+        TileGenerator twice = generator("[C] or [C]");
+        TileGenerator plain = generator("no placeholders");
+        SnippetReferenceGraph.assign(textSnippets, Arrays.asList(cycle, separate, twice, plain));
+
+        assertEquals(set(x, y, z), cycle.getDerivedCategories());
+        assertEquals(set(w, z), separate.getDerivedCategories());
+        assertEquals(set(z), twice.getDerivedCategories());
+        assertEquals(set(), plain.getDerivedCategories());
+        // every snippet of the cycle inserts the snippets of the other type, so both share the same categories
+        assertEquals(set(x, y, z), textSnippets.get("B").get(0).getDerivedCategories());
+        assertEquals(set(z), textSnippets.get("B").get(1).getDerivedCategories());
+        assertEquals(set(), textSnippets.get("C").get(0).getDerivedCategories());
+    }
+
+    @Test
+    void placeholderDerivesCategoriesOfAllSnippetsTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        TileGenerator campfire = configuration.getTileGenerators().stream().filter(generator -> generator.getText().contains("[PLANET:tag(campfire)]")).findFirst().get();
+        for (TextSnippet planet : configuration.getTextSnippets().get("PLANET")) {
+            assertTrue(campfire.getDerivedCategories().containsAll(planet.getCategories()));
+            assertTrue(campfire.getDerivedCategories().containsAll(planet.getDerivedCategories()));
+        }
+    }
+
+    private static TextSnippet snippet(String text, Category... categories) {
+        return new TextSnippet(text, null, 0, 1, Arrays.asList(categories), Collections.emptySet(), Collections.emptyList());
+    }
+
+    private static TileGenerator generator(String text) {
+        return new TileGenerator(text, null, 1, 1, Collections.emptyList(), Collections.emptyList(), Collections.emptySet());
+    }
+
+    private static HashSet<Category> set(Category... categories) {
+        return new HashSet<>(Arrays.asList(categories));
+    }
+}
@@ -0,0 +1,52 @@
+package de.yanwittmann.bingo.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TemplateExpansionTest {
+
+    private static final Map<String, List<TextSnippet>> SNIPPETS = Collections.singletonMap("A", Collections.emptyList());
+
+    @Test
+    void replacementGoesToFirstPendingPlaceholderTest() {
+        TemplateExpansion expansion = new TemplateExpansion();
+        expansion.reset(compile("[A] and [1-9]"));
+
+        assertEquals(2, expansion.beginPass());
+        assertEquals("[A]", expansion.nextPlaceholder().getSource());
+        expansion.replace(compile("[1-9]x"));
+        TextTemplate.PlaceholderNode number = expansion.nextPlaceholder();
+        assertEquals("[1-9]", number.getSource());
+        assertEquals("[1-9]x and [1-9]", expansion.render());
+        // the replacement of [A] inserted the same placeholder in front, that one is replaced first
+        expansion.replace(5);
+        assertEquals("5x and [1-9]", expansion.render());
+
+        assertEquals(1, expansion.beginPass());
+        assertSame(number, expansion.nextPlaceholder());
+        expansion.replace(7);
+        assertEquals(0, expansion.beginPass());
+        assertEquals("5x and 7", expansion.render());
+    }
+
+    @Test
+    void emptyReplacementTest() {
+        TemplateExpansion expansion = new TemplateExpansion();
+        expansion.reset(compile("[A]"));
+        assertEquals(1, expansion.beginPass());
+        expansion.nextPlaceholder();
+        expansion.replace(compile(""));
+        assertEquals(0, expansion.beginPass());
+        assertEquals("", expansion.render());
+    }
+
+    private static TextTemplate compile(String text) {
+        return TextTemplate.compile(text, SNIPPETS, Collections.emptyMap());
+    }
+}
@@ -0,0 +1,97 @@
+package de.yanwittmann.bingo.generator;
+
+import de.yanwittmann.bingo.BingoTile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextKeyTableTest {
+
+    /**
+     * All of these have the same {@link String#hashCode()}, so they end up in one probe sequence.
+     */
+    private static final String[] COLLIDING = {"AaAa", "AaBB", "BBAa", "BBBB"};
+
+    @Test
+    void collisionsAndRemovalTest() {
+        TextKeyTable table = new TextKeyTable(2);
+        for (String key : COLLIDING) {
+            table.add(key);
+        }
+        table.add("other");
+        table.add("AaBB");
+        assertEquals(5, table.size());
+
+        // the first key of the probe sequence is removed, the following ones have to stay reachable
+        table.remove("AaAa");
+        assertFalse(table.contains("AaAa"));
+        assertTrue(table.contains(new StringBuilder("AaBB")));
+        assertTrue(table.contains("BBAa"));
+        assertTrue(table.contains("BBBB"));
+        assertTrue(table.contains("other"));
+
+        // keys that were added twice are only removed once both are removed
+        table.remove("AaBB");
+        assertTrue(table.contains("AaBB"));
+        table.remove("AaBB");
+        assertFalse(table.contains("AaBB"));
+        table.remove("missing");
+        assertEquals(3, table.size());
+
+        table.clear();
+        assertFalse(table.contains("BBBB"));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void reusedBufferKeysTest() {
+        TextKeyTable table = new TextKeyTable(4);
+        StringBuilder first = new StringBuilder("stars");
+        StringBuilder second = new StringBuilder("stars");
+        table.add(first);
+        table.add(second);
+
+        // the stored key is removed while the equal key is still counted, so the buffer can be reused afterwards
+        table.remove(first);
+        first.setLength(0);
+        first.append("moons");
+        assertTrue(table.contains("stars"));
+        assertFalse(table.contains("moons"));
+
+        table.remove(second);
+        assertFalse(table.contains("stars"));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void growsBeyondInitialCapacityTest() {
+        TextKeyTable table = new TextKeyTable(1);
+        for (int i = 0; i < 1000; i++) {
+            table.add("key " + Integer.toHexString(i * 31));
+        }
+        assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(table.contains("key " + Integer.toHexString(i * 31)));
+        }
+        assertFalse(table.contains("key"));
+    }
+
+    @Test
+    void stateMatchesEqualTextsTest() throws FileNotFoundException {
+        CompiledBingoConfiguration compiled = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml")).compile();
+        GenerationState state = new GenerationState(compiled, 4, -1);
+        BingoTile tile = new BingoTile("Collect 5 Stars", null, 1);
+        state.add(tile);
+        // the same rules as BingoTile.isTextEqual: numbers and case are ignored
+        assertTrue(tile.isTextEqual("collect -3 STARS"));
+        assertTrue(state.containsText("collect -3 STARS"));
+        assertFalse(state.containsText("Collect 5 Moons"));
+        state.remove(0);
+        assertFalse(state.containsText("Collect 5 Stars"));
+    }
+}
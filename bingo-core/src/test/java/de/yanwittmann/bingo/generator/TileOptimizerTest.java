@@ -0,0 +1,70 @@
+package de.yanwittmann.bingo.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TileOptimizerTest {
+
+    @Test
+    void constraintMeetsCategoryLimitsTest() throws FileNotFoundException {
+        BingoConfiguration configuration = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml"));
+        BingoGenerator generator = new BingoGenerator(configuration);
+        BingoGenerationRequest constraint = new BingoGenerationRequest(5, 5, configuration.getDifficultyForLevel("Hard"), 2, 7)
+                .withOptimizer(TileOptimizer.forName("constraint"));
+        GenerationMetrics metrics = new GenerationMetrics();
+        assertEquals(generator.generateBingoBoard(constraint).toString(), generator.generateBingoBoard(constraint.withListener(metrics)).toString());
+        assertTrue(metrics.getCount(GenerationEvent.SOLVER_NODE) > 0);
+
+        GenerationState solved = new GenerationState(configuration.compile(), 25, constraint.getDifficulty());
+        TileOptimizer.CONSTRAINT.optimize(constraint, solved, new Random(5));
+        assertEquals(25, solved.size());
+        assertEquals(0, solved.getCategoryViolation());
+    }
+
+    @Test
+    void annealingReturnsBestBoardTest() throws FileNotFoundException {
+        CompiledBingoConfiguration compiled = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml")).compile();
+        // hot enough to accept most worse boards, so the best board is often left far behind
+        SimulatedAnnealingTileOptimizer optimizer = new SimulatedAnnealingTileOptimizer(0.5, 0.2, 1, 1);
+        BingoGenerationRequest request = new BingoGenerationRequest(5, 5, compiled.getDifficultyForLevel("Normal"), 4, 0);
+        for (long seed = 0; seed < 40; seed++) {
+            EnergyTrackingState state = new EnergyTrackingState(compiled, 25, request.getDifficulty());
+            optimizer.optimize(request, state, new Random(seed));
+            assertEquals(state.minEnergy, energy(state), 1e-9, "seed " + seed);
+        }
+    }
+
+    private static double energy(GenerationState state) {
+        return state.getDistanceToDestinationDifficulty() + state.getCategoryViolation();
+    }
+
+    /**
+     * Remembers the lowest energy of all boards the optimizer generated.
+     */
+    private static class EnergyTrackingState extends GenerationState {
+        private double minEnergy = Double.POSITIVE_INFINITY;
+
+        private EnergyTrackingState(CompiledBingoConfiguration configuration, int destAmount, double destinationDifficulty) {
+            super(configuration, destAmount, destinationDifficulty);
+        }
+
+        @Override
+        public void fill(Random random) {
+            super.fill(random);
+            minEnergy = Math.min(minEnergy, energy(this));
+        }
+
+        @Override
+        TileCandidate regenerateTile(int index, Random random) {
+            TileCandidate previous = super.regenerateTile(index, random);
+            minEnergy = Math.min(minEnergy, energy(this));
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package de.yanwittmann.bingo.generator;
+
+import de.yanwittmann.bingo.interfaces.Weightable;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class WeightedTableTest {
+
+    @Test
+    void drawsSameAsLinearScanTest() throws FileNotFoundException {
+        CompiledBingoConfiguration compiled = new BingoConfiguration(new File("src/test/resources/bingo/generate/outer_wilds.yaml")).compile();
+        List<Weightable> elements = new ArrayList<>();
+        for (double weight : new double[]{1, 0, 2.5, 0.1, 0, 7, 0.3}) {
+            elements.add(() -> weight);
+        }
+        assertSameDraws(compiled, elements);
+        // negative weights break the binary search, those tables fall back to scanning
+        assertSameDraws(compiled, Arrays.asList(() -> 2, () -> -1, () -> 3));
+
+        assertNull(WeightedTable.<Weightable>empty().next(new Random(1)));
+    }
+
+    @Test
+    void weightFunctionOverridesWeightsTest() {
+        Weightable first = () -> 1, second = () -> 1;
+        WeightedTable<Weightable> table = WeightedTable.of(Arrays.asList(first, second), element -> element == first ? 0 : 1);
+        assertEquals(1, table.getTotalWeight());
+        Random random = new Random(5);
+        for (int i = 0; i < 1000; i++) {
+            assertSame(second, table.next(random));
+        }
+    }
+
+    @Test
+    void drawWithBufferMatchesTableTest() {
+        List<Weightable> elements = new ArrayList<>();
+        Random weights = new Random(11);
+        for (int i = 0; i < 50; i++) {
+            double weight = weights.nextInt(5) == 0 ? 0 : weights.nextDouble() * 10;
+            elements.add(() -> weight);
+        }
+        WeightedTable<Weightable> table = WeightedTable.of(elements);
+        assertEquals(elements.stream().mapToDouble(Weightable::getWeight).sum(), table.getTotalWeight());
+        // a larger buffer than needed, as the scratch buffers are reused for any amount of elements
+        double[] buffer = new double[elements.size() * 2 + 7];
+        Random tableRandom = new Random(12);
+        Random bufferRandom = new Random(12);
+        for (int i = 0; i < 10_000; i++) {
+            assertSame(table.next(tableRandom), WeightedTable.next(elements, buffer, bufferRandom));
+        }
+    }
+
+    private static void assertSameDraws(CompiledBingoConfiguration compiled, List<Weightable> elements) {
+        WeightedTable<Weightable> table = WeightedTable.of(elements);
+        Random tableRandom = new Random(3);
+        Random scanRandom = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            assertSame(compiled.getRandom(elements, scanRandom), table.next(tableRandom));
+        }
+    }
+}
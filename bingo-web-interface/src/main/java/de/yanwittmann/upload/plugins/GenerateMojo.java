@@ -1,5 +1,7 @@
 package de.yanwittmann.upload.plugins;
 
+import de.yanwittmann.bingo.BingoBoard;
+import de.yanwittmann.bingo.BingoBoardWriter;
 import de.yanwittmann.bingo.generator.BingoConfiguration;
 import de.yanwittmann.bingo.generator.BingoGenerator;
 import org.apache.commons.io.FileUtils;
@@ -7,12 +9,10 @@ import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.json.JSONObject;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
 import java.util.Random;
 
 @Mojo(name = "generate-board", requiresProject = false)
@@ -42,6 +42,9 @@ public class GenerateMojo extends AbstractMojo {
     @Parameter(required = true)
     private File outputFile;
 
+    @Parameter
+    private File snapshotDirectory;
+
     public void execute() throws MojoExecutionException {
         if (!active) {
             getLog().info("Board generation is disabled by configuration.");
@@ -55,9 +58,15 @@ public class GenerateMojo extends AbstractMojo {
 
         BingoConfiguration bingoConfiguration;
         try {
-            bingoConfiguration = new BingoConfiguration(configurationFile);
-        } catch (FileNotFoundException e) {
+            if (snapshotDirectory != null) {
+                bingoConfiguration = BingoConfiguration.load(configurationFile, snapshotDirectory);
+            } else {
+                bingoConfiguration = new BingoConfiguration(configurationFile);
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
             throw new MojoExecutionException("Configuration file not found: " + configurationFile, e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not read configuration file: " + configurationFile, e);
         }
 
         BingoGenerator bingoGenerator = new BingoGenerator(bingoConfiguration);
@@ -95,10 +104,10 @@ public class GenerateMojo extends AbstractMojo {
         } else {
             random = new Random();
         }
-        JSONObject bingoJson = bingoGenerator.generateBingoBoard(random).toJson();
+        BingoBoard bingoBoard = bingoGenerator.generateBingoBoard(random);
 
-        try {
-            FileUtils.write(outputFile, bingoJson.toString(), StandardCharsets.UTF_8);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(FileUtils.openOutputStream(outputFile), StandardCharsets.UTF_8))) {
+            BingoBoardWriter.writeBoard(bingoBoard, writer);
             getLog().info("Board written to " + outputFile.getAbsolutePath());
         } catch (IOException e) {
             throw new MojoExecutionException("Could not write board to file: " + outputFile, e);